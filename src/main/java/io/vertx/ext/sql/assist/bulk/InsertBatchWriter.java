@@ -0,0 +1,71 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 将数据流按批收集后依次执行,执行一批时暂停数据流
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+class InsertBatchWriter {
+
+	private InsertBatchWriter() {
+	}
+
+	/**
+	 * 将数据流按批执行
+	 *
+	 * @param stream
+	 *          数据流
+	 * @param batch
+	 *          执行一批数据,返回影响的行数
+	 * @param batchSize
+	 *          每批的数量
+	 * @return 影响的总行数
+	 */
+	static <T> Future<Long> load(ReadStream<T> stream, Function<List<T>, Future<Long>> batch, int batchSize) {
+		Promise<Long> result = Promise.promise();
+		List<T> rows = new ArrayList<>(batchSize);
+		// 已经提交的批,按顺序执行
+		List<Future<Long>> last = new ArrayList<>(1);
+		last.add(Future.succeededFuture(0L));
+		stream.exceptionHandler(result::tryFail);
+		stream.handler(item -> {
+			rows.add(item);
+			if (rows.size() >= batchSize) {
+				List<T> current = new ArrayList<>(rows);
+				rows.clear();
+				stream.pause();
+				Future<Long> next = last.get(0).compose(total -> batch.apply(current).map(count -> total + count));
+				last.set(0, next);
+				next.onComplete(res -> {
+					if (res.succeeded()) {
+						stream.resume();
+					} else {
+						result.tryFail(res.cause());
+					}
+				});
+			}
+		});
+		stream.endHandler(v -> {
+			List<T> current = new ArrayList<>(rows);
+			rows.clear();
+			last.get(0).compose(total -> current.isEmpty() ? Future.succeededFuture(total) : batch.apply(current).map(count -> total + count))
+					.onComplete(res -> {
+						if (res.succeeded()) {
+							result.tryComplete(res.result());
+						} else {
+							result.tryFail(res.cause());
+						}
+					});
+		});
+		return result.future();
+	}
+}
@@ -0,0 +1,104 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.util.Iterator;
+
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 将Iterator包装为ReadStream,按消费者的需求(fetch/pause/resume)同步地发出元素
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ */
+class IteratorReadStream<T> implements ReadStream<T> {
+	/** 数据 */
+	private final Iterator<T> iterator;
+	/** 元素处理器 */
+	private Handler<T> handler;
+	/** 结束处理器 */
+	private Handler<Void> endHandler;
+	/** 异常处理器 */
+	private Handler<Throwable> exceptionHandler;
+	/** 需求数量,Long.MAX_VALUE表示不限制 */
+	private long demand = Long.MAX_VALUE;
+	/** 是否正在发出元素,避免在处理器中调用fetch时递归 */
+	private boolean emitting;
+	/** 是否已经通知结束 */
+	private boolean ended;
+
+	IteratorReadStream(Iterator<T> iterator) {
+		this.iterator = iterator;
+	}
+
+	@Override
+	public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+		this.exceptionHandler = handler;
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> handler(Handler<T> handler) {
+		this.handler = handler;
+		drain();
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> pause() {
+		demand = 0;
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> resume() {
+		return fetch(Long.MAX_VALUE);
+	}
+
+	@Override
+	public ReadStream<T> fetch(long amount) {
+		demand += amount;
+		if (demand < 0) {
+			demand = Long.MAX_VALUE;
+		}
+		drain();
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> endHandler(Handler<Void> endHandler) {
+		this.endHandler = endHandler;
+		drain();
+		return this;
+	}
+
+	/**
+	 * 在有需求时发出元素,没有更多元素时通知结束
+	 */
+	private void drain() {
+		if (emitting || handler == null || ended) {
+			return;
+		}
+		emitting = true;
+		try {
+			while (demand > 0 && handler != null && iterator.hasNext()) {
+				if (demand != Long.MAX_VALUE) {
+					demand--;
+				}
+				handler.handle(iterator.next());
+			}
+			if (demand > 0 && !iterator.hasNext() && endHandler != null) {
+				ended = true;
+				endHandler.handle(null);
+			}
+		} catch (Throwable e) {
+			ended = true;
+			if (exceptionHandler != null) {
+				exceptionHandler.handle(e);
+			}
+		} finally {
+			emitting = false;
+		}
+	}
+}
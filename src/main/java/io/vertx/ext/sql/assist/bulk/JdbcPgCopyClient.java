@@ -0,0 +1,132 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 通过PgJDBC的CopyManager执行COPY的客户端,COPY在worker线程中执行,需要添加org.postgresql:postgresql依赖<br>
+ * 数据流每次只请求一块,worker线程读完当前块后才请求下一块,内存中最多有两块数据
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+public class JdbcPgCopyClient implements PgCopyClient {
+	/** 数据流结束的标记 */
+	private static final Object END = new Object();
+
+	/** Vertx */
+	private final Vertx vertx;
+	/** PgJDBC的数据源 */
+	private final DataSource dataSource;
+
+	/**
+	 * 创建一个新的客户端
+	 *
+	 * @param vertx
+	 * @param dataSource
+	 *          PgJDBC的数据源,每次COPY获取一个连接,完成后关闭
+	 */
+	public JdbcPgCopyClient(Vertx vertx, DataSource dataSource) {
+		super();
+		this.vertx = vertx;
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public Future<Long> copyIn(String sql, ReadStream<Buffer> data) {
+		Context context = vertx.getOrCreateContext();
+		BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+		data.pause();
+		data.exceptionHandler(queue::add);
+		data.endHandler(v -> queue.add(END));
+		data.handler(queue::add);
+		InputStream input = new QueueInputStream(queue, () -> context.runOnContext(v -> data.fetch(1)));
+		Promise<Long> promise = Promise.promise();
+		context.runOnContext(v -> {
+			data.fetch(1);
+			vertx.<Long>executeBlocking(blocking -> {
+				try (Connection conn = dataSource.getConnection()) {
+					blocking.complete(conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, input));
+				} catch (Exception e) {
+					blocking.fail(e);
+				}
+			}, false, promise);
+		});
+		return promise.future();
+	}
+
+	/**
+	 * 从队列中读取数据块的输入流,在worker线程中使用
+	 */
+	private static final class QueueInputStream extends InputStream {
+		/** 数据块,结束标记或异常 */
+		private final BlockingQueue<Object> queue;
+		/** 请求下一块 */
+		private final Runnable fetch;
+		/** 当前的块 */
+		private byte[] current = new byte[0];
+		/** 当前块读取的位置 */
+		private int position;
+		/** 是否已经结束 */
+		private boolean ended;
+
+		QueueInputStream(BlockingQueue<Object> queue, Runnable fetch) {
+			this.queue = queue;
+			this.fetch = fetch;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (position >= current.length) {
+				if (ended) {
+					return -1;
+				}
+				Object next;
+				try {
+					next = queue.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				}
+				if (next == END) {
+					ended = true;
+					return -1;
+				}
+				if (next instanceof Throwable) {
+					ended = true;
+					throw new IOException((Throwable) next);
+				}
+				current = ((Buffer) next).getBytes();
+				position = 0;
+				fetch.run();
+			}
+			int size = Math.min(len, current.length - position);
+			System.arraycopy(current, position, b, off, size);
+			position += size;
+			return size;
+		}
+	}
+}
@@ -0,0 +1,366 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.core.SQLExecute;
+import io.vertx.ext.sql.assist.core.SQLStatement;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+import io.vertx.ext.sql.assist.sql.AbstractStatementSQL;
+import io.vertx.ext.sql.assist.sql.EntityMetadata;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+/**
+ * 使用MySQL的LOAD DATA LOCAL INFILE批量导入实体类,适合一次导入大量数据<br>
+ * 数据按块序列化为以tab分隔的文本并流式写入临时文件,再由客户端上传给数据库,导入完成后删除临时文件;<br>
+ * 数据库或客户端不允许LOCAL INFILE时(错误1148/3948),可以设置{@link #setFallbackToInsert(boolean)}改为使用多行insert分批导入
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+ */
+public class MySQLLoadDataLoader<T> {
+	/** 日志 */
+	private static final Logger LOG = LoggerFactory.getLogger(MySQLLoadDataLoader.class);
+	/** 默认块的大小 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	/** 不允许LOCAL INFILE的错误消息,MySQL客户端的格式为ERROR 1148 (42000): ... */
+	private static final Pattern LOCAL_INFILE_ERROR = Pattern.compile("\\bERROR (1148|3948)\\b");
+
+	/** Vertx */
+	private final Vertx vertx;
+	/** SQL执行器 */
+	private final SQLExecute<?> execute;
+	/** SQL语句 */
+	private final AbstractStatementSQL statement;
+	/** 实体类的元数据 */
+	private final EntityMetadata metadata;
+	/** 块的大小 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	/** 不允许LOCAL INFILE时是否使用insert导入 */
+	private boolean fallbackToInsert;
+	/** 是否已经确认不允许LOCAL INFILE */
+	private volatile boolean localInfileDisabled;
+
+	/**
+	 * 创建一个新的导入器
+	 *
+	 * @param vertx
+	 * @param execute
+	 *          SQL执行器,客户端需要开启LOCAL INFILE
+	 * @param entityClass
+	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+	 */
+	public MySQLLoadDataLoader(Vertx vertx, SQLExecute<?> execute, Class<T> entityClass) {
+		super();
+		this.vertx = vertx;
+		this.execute = execute;
+		this.statement = (AbstractStatementSQL) SQLStatement.create(entityClass, MySQLStatementSQL.class);
+		this.metadata = statement.getEntityMetadata();
+	}
+
+	/**
+	 * 获取导入文件的语句
+	 *
+	 * @param path
+	 *          文件的路径
+	 * @return
+	 */
+	public String getLoadSQL(String path) {
+		String file = path.replace('\\', '/').replace("'", "\\'");
+		StringBuilder sql = new StringBuilder("LOAD DATA LOCAL INFILE '" + file + "' INTO TABLE " + metadata.getTableName());
+		sql.append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (");
+		for (int i = 0; i < metadata.size(); i++) {
+			if (i > 0) {
+				sql.append(",");
+			}
+			sql.append(metadata.getColumn(i));
+		}
+		sql.append(")");
+		return sql.toString();
+	}
+
+	/**
+	 * 设置每块数据的大小,默认为{@link #DEFAULT_CHUNK_SIZE}
+	 *
+	 * @param chunkSize
+	 *          字节数
+	 * @return
+	 */
+	public MySQLLoadDataLoader<T> setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0");
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * 设置不允许LOCAL INFILE时是否使用多行insert导入,默认为false<br>
+	 * 确认不允许后,后续的导入直接使用insert;数据流在第一次确认时已经被消费,只能返回失败
+	 *
+	 * @param fallbackToInsert
+	 * @return
+	 */
+	public MySQLLoadDataLoader<T> setFallbackToInsert(boolean fallbackToInsert) {
+		this.fallbackToInsert = fallbackToInsert;
+		return this;
+	}
+
+	/**
+	 * 导入实体类集合
+	 *
+	 * @param list
+	 * @return 导入的行数
+	 */
+	public Future<Long> load(List<T> list) {
+		if (list == null || list.isEmpty()) {
+			return Future.succeededFuture(0L);
+		}
+		if (fallbackToInsert && localInfileDisabled) {
+			return insertBatch(list);
+		}
+		return loadStream(new IteratorReadStream<>(list.iterator())).recover(err -> {
+			if (fallbackToInsert && localInfileDisabled) {
+				return insertBatch(list);
+			}
+			return Future.failedFuture(err);
+		});
+	}
+
+	/**
+	 * 导入实体类的数据流
+	 *
+	 * @param stream
+	 * @return 导入的行数
+	 */
+	public Future<Long> load(ReadStream<T> stream) {
+		if (stream == null) {
+			return Future.succeededFuture(0L);
+		}
+		if (fallbackToInsert && localInfileDisabled) {
+			return InsertBatchWriter.load(stream, this::insertBatch, getInsertBatchSize());
+		}
+		return loadStream(stream);
+	}
+
+	/**
+	 * 将数据流写入临时文件后执行LOAD DATA
+	 *
+	 * @param stream
+	 * @return
+	 */
+	private Future<Long> loadStream(ReadStream<T> stream) {
+		Promise<String> tempFile = Promise.promise();
+		vertx.fileSystem().createTempFile("sql-assist-", ".tsv", tempFile);
+		return tempFile.future().compose(path -> {
+			Promise<AsyncFile> opened = Promise.promise();
+			vertx.fileSystem().open(path, new OpenOptions().setWrite(true).setTruncateExisting(true), opened);
+			Future<Long> result = opened.future().compose(file -> {
+				RowBufferStream<T> data = new RowBufferStream<>(stream, this::writeRow, chunkSize);
+				Promise<Void> written = Promise.promise();
+				data.pipeTo(file, written);
+				return written.future().compose(v -> execute.update(new SqlAndParams(getLoadSQL(path))))
+						.map(Integer::longValue)
+						.recover(err -> {
+							if (isLocalInfileDisabled(err)) {
+								localInfileDisabled = true;
+							}
+							return Future.failedFuture(err);
+						});
+			});
+			return result.onComplete(res -> vertx.fileSystem().delete(path, del -> {
+				if (del.failed()) {
+					LOG.warn("delete temp file " + path + " failed", del.cause());
+				}
+			}));
+		});
+	}
+
+	/**
+	 * 使用多行insert导入
+	 *
+	 * @param list
+	 * @return
+	 */
+	private Future<Long> insertBatch(List<T> list) {
+		List<SqlAndParams> qps = statement.insertAllBatchSQL(list);
+		for (SqlAndParams qp : qps) {
+			if (!qp.succeeded()) {
+				return Future.failedFuture(qp.getSql());
+			}
+		}
+		Future<Long> result = Future.succeededFuture(0L);
+		for (SqlAndParams qp : qps) {
+			result = result.compose(total -> execute.update(qp).map(rows -> total + rows));
+		}
+		return result;
+	}
+
+	/**
+	 * 数据流改为insert导入时每次收集的行数
+	 *
+	 * @return
+	 */
+	private int getInsertBatchSize() {
+		return Math.max(1, 65535 / Math.max(1, metadata.size()));
+	}
+
+	/**
+	 * 判断异常是否为不允许LOCAL INFILE(错误码1148或3948),优先使用驱动异常的错误码,没有错误码时匹配消息中的ERROR 1148/ERROR 3948
+	 *
+	 * @param err
+	 * @return
+	 */
+	static boolean isLocalInfileDisabled(Throwable err) {
+		for (Throwable e = err; e != null; e = e.getCause() == e ? null : e.getCause()) {
+			Integer code = errorCode(e);
+			if (code != null) {
+				if (code == 1148 || code == 3948) {
+					return true;
+				}
+			} else if (e.getMessage() != null && LOCAL_INFILE_ERROR.matcher(e.getMessage()).find()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取驱动异常的错误码,驱动为可选依赖所以通过类名判断
+	 *
+	 * @param e
+	 * @return 不是已知的驱动异常时返回null
+	 */
+	private static Integer errorCode(Throwable e) {
+		if (e instanceof SQLException) {
+			return ((SQLException) e).getErrorCode();
+		}
+		try {
+			switch (e.getClass().getName()) {
+			case "io.vertx.mysqlclient.MySQLException":
+				return (Integer) e.getClass().getMethod("getErrorCode").invoke(e);
+			case "com.github.jasync.sql.db.mysql.exceptions.MySQLException":
+				Object message = e.getClass().getMethod("getErrorMessage").invoke(e);
+				return (Integer) message.getClass().getMethod("getErrorCode").invoke(message);
+			default:
+				return null;
+			}
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * 将对象以LOAD DATA的默认格式写入buffer,以换行结束
+	 *
+	 * @param obj
+	 * @param buffer
+	 */
+	public void writeRow(T obj, Buffer buffer) {
+		Object[] values;
+		try {
+			values = metadata.getValues(obj);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				buffer.appendByte((byte) '\t');
+			}
+			writeValue(values[i], buffer);
+		}
+		buffer.appendByte((byte) '\n');
+	}
+
+	/**
+	 * 将值以LOAD DATA的默认格式写入buffer,null写为\N,反斜杠,tab,换行与\0会被转义
+	 *
+	 * @param value
+	 * @param buffer
+	 */
+	public static void writeValue(Object value, Buffer buffer) {
+		if (value == null) {
+			buffer.appendString("\\N");
+		} else if (value instanceof Boolean) {
+			buffer.appendByte((byte) (((Boolean) value) ? '1' : '0'));
+		} else if (value instanceof Number) {
+			buffer.appendString(value.toString());
+		} else if (value instanceof byte[]) {
+			for (byte b : (byte[]) value) {
+				appendEscaped(b, buffer);
+			}
+		} else if (value instanceof JsonObject) {
+			appendEscaped(((JsonObject) value).encode(), buffer);
+		} else if (value instanceof JsonArray) {
+			appendEscaped(((JsonArray) value).encode(), buffer);
+		} else if (value instanceof Date) {
+			appendEscaped(new Timestamp(((Date) value).getTime()).toString(), buffer);
+		} else {
+			appendEscaped(value.toString(), buffer);
+		}
+	}
+
+	/**
+	 * 转义并写入字符串
+	 *
+	 * @param value
+	 * @param buffer
+	 */
+	private static void appendEscaped(String value, Buffer buffer) {
+		Buffer bytes = Buffer.buffer(value);
+		for (int i = 0; i < bytes.length(); i++) {
+			appendEscaped(bytes.getByte(i), buffer);
+		}
+	}
+
+	/**
+	 * 转义并写入字节
+	 *
+	 * @param b
+	 * @param buffer
+	 */
+	private static void appendEscaped(byte b, Buffer buffer) {
+		switch (b) {
+		case '\\':
+			buffer.appendByte((byte) '\\').appendByte((byte) '\\');
+			break;
+		case '\t':
+			buffer.appendByte((byte) '\\').appendByte((byte) 't');
+			break;
+		case '\n':
+			buffer.appendByte((byte) '\\').appendByte((byte) 'n');
+			break;
+		case '\r':
+			buffer.appendByte((byte) '\\').appendByte((byte) 'r');
+			break;
+		case 0:
+			buffer.appendByte((byte) '\\').appendByte((byte) '0');
+			break;
+		case 0x1A:
+			buffer.appendByte((byte) '\\').appendByte((byte) 'Z');
+			break;
+		default:
+			buffer.appendByte(b);
+			break;
+		}
+	}
+}
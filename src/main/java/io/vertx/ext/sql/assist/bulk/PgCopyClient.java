@@ -0,0 +1,26 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 执行PostgreSQL的COPY ... FROM STDIN,由支持COPY协议的驱动实现<br>
+ * 比如在worker线程中使用PgJDBC的CopyManager.copyIn({@link JdbcPgCopyClient}),或者实现了CopyData消息的客户端
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+public interface PgCopyClient {
+	/**
+	 * 执行COPY语句,将数据流写入数据库,实现需要遵守数据流的背压(pause/resume/fetch)
+	 *
+	 * @param sql
+	 *          COPY ... FROM STDIN语句
+	 * @param data
+	 *          COPY的text格式数据
+	 * @return future
+	 *          导入的行数
+	 */
+	Future<Long> copyIn(String sql, ReadStream<Buffer> data);
+}
@@ -0,0 +1,223 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.util.Date;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.core.SQLStatement;
+import io.vertx.ext.sql.assist.sql.AbstractStatementSQL;
+import io.vertx.ext.sql.assist.sql.EntityMetadata;
+import io.vertx.ext.sql.assist.sql.PostgreSQLStatementSQL;
+
+/**
+ * 使用PostgreSQL的COPY ... FROM STDIN批量导入实体类,适合一次导入大量数据<br>
+ * 数据以COPY的text格式按块序列化,块的大小默认为64KB,数据流的背压由{@link PgCopyClient}控制;<br>
+ * 列的顺序与实体类的元数据一致(主键在第一位),值为null的属性导入为NULL,不会使用列的默认值
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+ */
+public class PgCopyLoader<T> {
+	/** 默认块的大小 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	/** 十六进制字符 */
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/** 执行COPY的客户端 */
+	private final PgCopyClient client;
+	/** 实体类的元数据 */
+	private final EntityMetadata metadata;
+	/** COPY语句 */
+	private final String copySQL;
+	/** 块的大小 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * 创建一个新的导入器
+	 *
+	 * @param client
+	 *          执行COPY的客户端
+	 * @param entityClass
+	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+	 */
+	public PgCopyLoader(PgCopyClient client, Class<T> entityClass) {
+		super();
+		this.client = client;
+		AbstractStatementSQL statement = (AbstractStatementSQL) SQLStatement.create(entityClass, PostgreSQLStatementSQL.class);
+		this.metadata = statement.getEntityMetadata();
+		StringBuilder sql = new StringBuilder("COPY " + metadata.getTableName() + " (");
+		for (int i = 0; i < metadata.size(); i++) {
+			if (i > 0) {
+				sql.append(",");
+			}
+			sql.append(metadata.getColumn(i));
+		}
+		sql.append(") FROM STDIN");
+		this.copySQL = sql.toString();
+	}
+
+	/**
+	 * 获取COPY语句
+	 *
+	 * @return
+	 */
+	public String getCopySQL() {
+		return copySQL;
+	}
+
+	/**
+	 * 设置每块数据的大小,默认为{@link #DEFAULT_CHUNK_SIZE}
+	 *
+	 * @param chunkSize
+	 *          字节数
+	 * @return
+	 */
+	public PgCopyLoader<T> setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0");
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * 导入实体类集合
+	 *
+	 * @param list
+	 * @return 导入的行数
+	 */
+	public Future<Long> load(List<T> list) {
+		if (list == null || list.isEmpty()) {
+			return Future.succeededFuture(0L);
+		}
+		return load(new IteratorReadStream<>(list.iterator()));
+	}
+
+	/**
+	 * 导入实体类的数据流
+	 *
+	 * @param stream
+	 * @return 导入的行数
+	 */
+	public Future<Long> load(ReadStream<T> stream) {
+		if (stream == null) {
+			return Future.succeededFuture(0L);
+		}
+		RowBufferStream<T> data = new RowBufferStream<>(stream, this::writeRow, chunkSize);
+		return client.copyIn(copySQL, data);
+	}
+
+	/**
+	 * 将对象以COPY的text格式写入buffer,以换行结束
+	 *
+	 * @param obj
+	 * @param buffer
+	 */
+	public void writeRow(T obj, Buffer buffer) {
+		Object[] values;
+		try {
+			values = metadata.getValues(obj);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				buffer.appendByte((byte) '\t');
+			}
+			writeValue(values[i], buffer);
+		}
+		buffer.appendByte((byte) '\n');
+	}
+
+	/**
+	 * 将值以COPY的text格式写入buffer,null写为\N,字符串中的反斜杠与控制字符会被转义
+	 *
+	 * @param value
+	 * @param buffer
+	 */
+	public static void writeValue(Object value, Buffer buffer) {
+		if (value == null) {
+			buffer.appendString("\\N");
+		} else if (value instanceof Boolean) {
+			buffer.appendByte((byte) (((Boolean) value) ? 't' : 'f'));
+		} else if (value instanceof Number) {
+			buffer.appendString(value.toString());
+		} else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			// bytea的hex格式,反斜杠本身需要转义
+			buffer.appendString("\\\\x");
+			for (byte b : bytes) {
+				buffer.appendByte((byte) HEX[(b >> 4) & 0xF]);
+				buffer.appendByte((byte) HEX[b & 0xF]);
+			}
+		} else if (value instanceof JsonObject) {
+			appendEscaped(((JsonObject) value).encode(), buffer);
+		} else if (value instanceof JsonArray) {
+			appendEscaped(((JsonArray) value).encode(), buffer);
+		} else if (value instanceof java.sql.Date || value instanceof java.sql.Time) {
+			// java.sql.Date与java.sql.Time不支持toInstant
+			buffer.appendString(value.toString());
+		} else if (value instanceof Date) {
+			appendEscaped(((Date) value).toInstant().toString(), buffer);
+		} else {
+			appendEscaped(value.toString(), buffer);
+		}
+	}
+
+	/**
+	 * 转义并写入字符串
+	 *
+	 * @param value
+	 * @param buffer
+	 */
+	private static void appendEscaped(String value, Buffer buffer) {
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			String escape;
+			switch (value.charAt(i)) {
+			case '\\':
+				escape = "\\\\";
+				break;
+			case '\n':
+				escape = "\\n";
+				break;
+			case '\r':
+				escape = "\\r";
+				break;
+			case '\t':
+				escape = "\\t";
+				break;
+			case '\b':
+				escape = "\\b";
+				break;
+			case '\f':
+				escape = "\\f";
+				break;
+			case 0x0B:
+				escape = "\\v";
+				break;
+			default:
+				continue;
+			}
+			if (i > start) {
+				buffer.appendString(value.substring(start, i));
+			}
+			buffer.appendString(escape);
+			start = i + 1;
+		}
+		if (start == 0) {
+			buffer.appendString(value);
+		} else if (start < value.length()) {
+			buffer.appendString(value.substring(start));
+		}
+	}
+}
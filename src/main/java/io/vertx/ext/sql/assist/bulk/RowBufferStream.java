@@ -0,0 +1,180 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import java.util.function.BiConsumer;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 将实体类的ReadStream序列化为Buffer块的ReadStream,每块约为chunkSize字节<br>
+ * 需求以块为单位计算,没有需求时暂停上游,已满的块保留到有需求时再发出,内存占用约为一个块
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ */
+class RowBufferStream<T> implements ReadStream<Buffer> {
+	/** 上游 */
+	private final ReadStream<T> source;
+	/** 序列化一行 */
+	private final BiConsumer<T, Buffer> writer;
+	/** 每块的大小 */
+	private final int chunkSize;
+	/** 当前的块 */
+	private Buffer chunk;
+	/** 已经序列化的行数 */
+	private long rows;
+	/** 需求的块数,Long.MAX_VALUE表示不限制 */
+	private long demand = Long.MAX_VALUE;
+	/** 块处理器 */
+	private Handler<Buffer> handler;
+	/** 结束处理器 */
+	private Handler<Void> endHandler;
+	/** 异常处理器 */
+	private Handler<Throwable> exceptionHandler;
+	/** 上游是否已经结束 */
+	private boolean sourceEnded;
+	/** 是否已经通知结束 */
+	private boolean ended;
+	/** 是否已经失败 */
+	private boolean failed;
+
+	RowBufferStream(ReadStream<T> source, BiConsumer<T, Buffer> writer, int chunkSize) {
+		this.source = source;
+		this.writer = writer;
+		this.chunkSize = chunkSize;
+		this.chunk = Buffer.buffer(chunkSize + 256);
+	}
+
+	/**
+	 * 获取已经序列化的行数
+	 *
+	 * @return
+	 */
+	long getRows() {
+		return rows;
+	}
+
+	@Override
+	public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+		this.exceptionHandler = handler;
+		source.exceptionHandler(handler);
+		return this;
+	}
+
+	@Override
+	public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+		this.handler = handler;
+		source.handler(handler == null ? null : this::onRow);
+		return this;
+	}
+
+	@Override
+	public ReadStream<Buffer> pause() {
+		demand = 0;
+		source.pause();
+		return this;
+	}
+
+	@Override
+	public ReadStream<Buffer> resume() {
+		return fetch(Long.MAX_VALUE);
+	}
+
+	@Override
+	public ReadStream<Buffer> fetch(long amount) {
+		demand += amount;
+		if (demand < 0) {
+			demand = Long.MAX_VALUE;
+		}
+		if (failed || ended) {
+			return this;
+		}
+		// 没有需求时已满的块
+		if (demand > 0 && chunk.length() >= chunkSize && handler != null) {
+			emit();
+		}
+		if (sourceEnded) {
+			checkEnd();
+		} else if (demand > 0) {
+			source.resume();
+		}
+		return this;
+	}
+
+	@Override
+	public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+		this.endHandler = endHandler;
+		source.endHandler(endHandler == null ? null : v -> {
+			sourceEnded = true;
+			checkEnd();
+		});
+		return this;
+	}
+
+	/**
+	 * 上游结束后,在有需求时发出最后一块,之后没有数据,直接通知结束
+	 */
+	private void checkEnd() {
+		if (failed || ended) {
+			return;
+		}
+		if (chunk.length() > 0 && handler != null) {
+			if (demand <= 0) {
+				return;
+			}
+			emit();
+			// 块处理器中的fetch可能已经通知了结束
+			if (ended) {
+				return;
+			}
+		}
+		ended = true;
+		if (endHandler != null) {
+			endHandler.handle(null);
+		}
+	}
+
+	/**
+	 * 发出当前的块,需求用完时暂停上游,调用前需要确认有需求
+	 */
+	private void emit() {
+		Buffer full = chunk;
+		chunk = sourceEnded ? Buffer.buffer(0) : Buffer.buffer(chunkSize + 256);
+		if (demand != Long.MAX_VALUE && --demand == 0) {
+			source.pause();
+		}
+		handler.handle(full);
+	}
+
+	/**
+	 * 序列化一行,当前块已满时发出
+	 *
+	 * @param row
+	 */
+	private void onRow(T row) {
+		if (failed) {
+			return;
+		}
+		try {
+			writer.accept(row, chunk);
+		} catch (Throwable e) {
+			failed = true;
+			source.pause();
+			if (exceptionHandler != null) {
+				exceptionHandler.handle(e);
+			}
+			return;
+		}
+		rows++;
+		if (chunk.length() >= chunkSize) {
+			if (demand > 0) {
+				emit();
+			} else {
+				// 上游在暂停后仍然可能发出已经读取的行,块保留到有需求时再发出
+				source.pause();
+			}
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PreparedStatement;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.RowStream;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * 响应式客户端(vertx-sql-client的{@link Pool})版的SQL执行器<br>
+ * 有参数的语句使用PreparedQuery执行,客户端会缓存预处理语句;不同数据库的占位符与自增主键由子类处理
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public abstract class AbstractPoolSQLExecute implements SQLExecute<Pool> {
+    /**
+     * SQL客户端
+     */
+    private final Pool pool;
+    /**
+     * 数据流每次从游标读取的行数
+     */
+    private int fetchSize = 256;
+
+    public AbstractPoolSQLExecute(Pool pool) {
+        super();
+        this.pool = pool;
+    }
+
+    /**
+     * 设置数据流每次从游标读取的行数,默认为256
+     *
+     * @param fetchSize
+     * @return
+     */
+    public AbstractPoolSQLExecute setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be greater than 0");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    @Override
+    public boolean isCursorStream() {
+        return true;
+    }
+
+    @Override
+    public Pool getClient() {
+        return pool;
+    }
+
+    @Override
+    public Future<JsonObject> queryAsObj(SqlAndParams qp) {
+        return this.queryExecute(qp)
+                .map(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? toJsonObject(iterator.next()) : null;
+                });
+    }
+
+    @Override
+    public Future<List<JsonObject>> queryAsListObj(SqlAndParams qp) {
+        return this.queryExecute(qp)
+                .map(rows -> {
+                    List<JsonObject> result = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        result.add(toJsonObject(row));
+                    }
+                    return result;
+                });
+    }
+
+    @Override
+    public Future<List<JsonArray>> queryAsListArray(SqlAndParams qp) {
+        return this.queryExecute(qp)
+                .map(rows -> {
+                    List<JsonArray> result = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        result.add(toJsonArray(row));
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * 数据流使用独立的连接,在事务中通过游标分批读取,数据流结束,出现异常或被关闭后结束事务并关闭连接
+     */
+    @Override
+    public Future<SqlReadStream<JsonObject>> queryAsStream(SqlAndParams qp) {
+        Promise<SqlConnection> connected = Promise.promise();
+        pool.getConnection(connected);
+        return connected.future().compose(conn -> {
+            Transaction tx = conn.begin();
+            Promise<PreparedStatement> prepared = Promise.promise();
+            conn.prepare(this.convertSql(qp.getSql()), prepared);
+            return prepared.future()
+                    .map(ps -> {
+                        SqlParams params = qp.getSqlParams();
+                        RowStream<Row> stream = ps.createStream(fetchSize, params == null ? Tuple.tuple() : toTuple(params));
+                        SqlReadStream<JsonObject> rows = new MappedReadStream<>(stream, AbstractPoolSQLExecute::toJsonObject, () -> {
+                            Promise<Void> released = Promise.promise();
+                            stream.close(closed -> {
+                                ps.close();
+                                tx.commit(committed -> {
+                                    conn.close();
+                                    released.complete();
+                                });
+                            });
+                            return released.future();
+                        });
+                        return rows;
+                    })
+                    .onFailure(err -> tx.rollback(rollback -> conn.close()));
+        });
+    }
+
+    @Override
+    public Future<JsonArray> insert(SqlAndParams qp) {
+        return this.queryExecute(qp)
+                .map(this::getKeys);
+    }
+
+    @Override
+    public Future<Integer> update(SqlAndParams qp) {
+        return this.queryExecute(qp)
+                .map(RowSet::rowCount);
+    }
+
+    /**
+     * 执行语句
+     *
+     * @param qp
+     */
+    public Future<RowSet<Row>> queryExecute(SqlAndParams qp) {
+        Promise<RowSet<Row>> result = Promise.promise();
+        SqlParams params = qp.getSqlParams();
+        if (params == null) {
+            pool.query(qp.getSql()).execute(result);
+        } else {
+            pool.preparedQuery(this.convertSql(qp.getSql())).execute(toTuple(params), result);
+        }
+        return result.future();
+    }
+
+    /**
+     * 将以?为占位符的语句转换为数据库客户端使用的语句
+     *
+     * @param sql
+     * @return
+     */
+    protected abstract String convertSql(String sql);
+
+    /**
+     * 获取插入语句生成的主键
+     *
+     * @param rows
+     * @return
+     */
+    protected abstract JsonArray getKeys(RowSet<Row> rows);
+
+    /**
+     * 将参数转换为Tuple
+     *
+     * @param params
+     * @return
+     */
+    public static Tuple toTuple(SqlParams params) {
+        Tuple tuple = Tuple.tuple();
+        for (int i = 0; i < params.size(); i++) {
+            switch (params.getType(i)) {
+            case SqlParams.TYPE_INT:
+                tuple.addInteger(params.getInt(i));
+                break;
+            case SqlParams.TYPE_LONG:
+                tuple.addLong(params.getLong(i));
+                break;
+            case SqlParams.TYPE_DOUBLE:
+                tuple.addDouble(params.getDouble(i));
+                break;
+            default:
+                tuple.addValue(params.getValue(i));
+                break;
+            }
+        }
+        return tuple;
+    }
+
+    /**
+     * 将行转换为JsonObject,key为列名
+     *
+     * @param row
+     * @return
+     */
+    public static JsonObject toJsonObject(Row row) {
+        JsonObject result = new JsonObject();
+        for (int i = 0; i < row.size(); i++) {
+            result.put(row.getColumnName(i), toJsonValue(row.getValue(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 将行转换为JsonArray
+     *
+     * @param row
+     * @return
+     */
+    public static JsonArray toJsonArray(Row row) {
+        JsonArray result = new JsonArray(new ArrayList<>(row.size()));
+        for (int i = 0; i < row.size(); i++) {
+            result.add(toJsonValue(row.getValue(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 将客户端返回的值转换为Json支持的值,与旧客户端一致:时间类型与高精度数字等转换为字符串
+     *
+     * @param value
+     * @return
+     */
+    public static Object toJsonValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte
+                || value instanceof JsonObject || value instanceof JsonArray) {
+            return value;
+        }
+        if (value instanceof Buffer) {
+            return ((Buffer) value).getBytes();
+        }
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            JsonArray result = new JsonArray(new ArrayList<>(values.length));
+            for (Object item : values) {
+                result.add(toJsonValue(item));
+            }
+            return result;
+        }
+        // 时间类型,BigDecimal,UUID等
+        return value.toString();
+    }
+}
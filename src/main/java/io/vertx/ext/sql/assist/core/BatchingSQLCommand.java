@@ -0,0 +1,164 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 合并selectById的SQLCommand装饰器,在同一次事件循环(或设置的时间窗口)内的selectById会合并为一次{@link SQLCommand#selectByIds(java.util.Collection)}查询,
+ * 再按主键把结果分发给各调用者,不存在的主键返回null<br>
+ * 只合并不指定返回列与连接的查询,结果在调用者所在的Context中返回,相同主键的多个调用者各得到一份副本
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class BatchingSQLCommand extends SQLCommandWrapper {
+	/** 用于设置时间窗口的定时器 */
+	private final Vertx vertx;
+	/** 时间窗口(毫秒),0表示在下一次事件循环执行 */
+	private final long windowMillis;
+	/** 一次查询的主键数量上限 */
+	private final int maxBatchSize;
+	/** 等待执行的主键,key=主键的字符串形式 */
+	private Map<Object, Waiters> pending;
+
+	/**
+	 * 创建一个新的selectById合并装饰器
+	 *
+	 * @param delegate
+	 *          被装饰的SQLCommand
+	 * @param vertx
+	 * @param windowMicros
+	 *          收集查询的时间窗口(微秒),小于等于0时只合并同一次事件循环内的查询;Vert.x的定时器精度为毫秒,不足1毫秒按1毫秒计算
+	 * @param maxBatchSize
+	 *          一次查询的主键数量上限,达到上限时立即执行
+	 */
+	public BatchingSQLCommand(SQLCommand delegate, Vertx vertx, long windowMicros, int maxBatchSize) {
+		super(delegate);
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+		}
+		this.vertx = vertx;
+		this.windowMillis = windowMicros <= 0 ? 0 : (windowMicros + 999) / 1000;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public <S> Future<JsonObject> selectById(S primaryValue, String resultColumns, String joinOrReference) {
+		if (primaryValue == null || resultColumns != null || joinOrReference != null) {
+			return delegate.selectById(primaryValue, resultColumns, joinOrReference);
+		}
+		Promise<JsonObject> result = Promise.promise();
+		Map<Object, Waiters> full = null;
+		boolean schedule = false;
+		synchronized (this) {
+			if (pending == null) {
+				pending = new LinkedHashMap<>();
+				schedule = true;
+			}
+			pending.computeIfAbsent(SQLCommandImpl.idKey(primaryValue), k -> new Waiters(primaryValue)).add(result, Vertx.currentContext());
+			if (pending.size() >= maxBatchSize) {
+				full = pending;
+				pending = null;
+			}
+		}
+		if (full != null) {
+			this.dispatch(full);
+		} else if (schedule) {
+			this.schedule();
+		}
+		return result.future();
+	}
+
+	/**
+	 * 在下一次事件循环或时间窗口结束时执行等待的查询
+	 */
+	private void schedule() {
+		if (windowMillis > 0) {
+			vertx.setTimer(windowMillis, tid -> this.flush());
+		} else {
+			Context context = Vertx.currentContext();
+			(context == null ? vertx.getOrCreateContext() : context).runOnContext(v -> this.flush());
+		}
+	}
+
+	/**
+	 * 执行等待的查询
+	 */
+	private void flush() {
+		Map<Object, Waiters> batch;
+		synchronized (this) {
+			batch = pending;
+			pending = null;
+		}
+		if (batch != null) {
+			this.dispatch(batch);
+		}
+	}
+
+	/**
+	 * 执行一批查询并分发结果
+	 *
+	 * @param batch
+	 */
+	private void dispatch(Map<Object, Waiters> batch) {
+		List<Object> ids = new ArrayList<>(batch.size());
+		for (Waiters waiters : batch.values()) {
+			ids.add(waiters.primaryValue);
+		}
+		Future<List<JsonObject>> future;
+		try {
+			future = delegate.selectByIds(ids);
+		} catch (RuntimeException e) {
+			future = Future.failedFuture(e);
+		}
+		future.onComplete(res -> {
+			int index = 0;
+			for (Waiters waiters : batch.values()) {
+				AsyncResult<JsonObject> row = res.succeeded() ? Future.succeededFuture(res.result().get(index++)) : Future.failedFuture(res.cause());
+				waiters.complete(row);
+			}
+		});
+	}
+
+	/**
+	 * 同一个主键的调用者
+	 */
+	private static class Waiters {
+		/** 主键的值 */
+		private final Object primaryValue;
+		/** 调用者的结果 */
+		private final List<Promise<JsonObject>> promises = new ArrayList<>(1);
+		/** 调用者的Context */
+		private final List<Context> contexts = new ArrayList<>(1);
+
+		private Waiters(Object primaryValue) {
+			this.primaryValue = primaryValue;
+		}
+
+		private void add(Promise<JsonObject> promise, Context context) {
+			promises.add(promise);
+			contexts.add(context);
+		}
+
+		/**
+		 * 完成所有调用者,只有一个调用者时使用原结果,否则每个调用者使用副本
+		 *
+		 * @param res
+		 */
+		private void complete(AsyncResult<JsonObject> res) {
+			UnaryOperator<JsonObject> copy = promises.size() == 1 ? null : row -> row == null ? null : row.copy();
+			for (int i = 0; i < promises.size(); i++) {
+				CoalescingSQLExecute.complete(promises.get(i), res, copy, contexts.get(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,292 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.sql.AbstractStatementSQL;
+
+/**
+ * 缓存查询结果的SQLCommand装饰器,缓存getCount,getExist,selectAll,limitAll与selectByObj的结果,key为生成的SQL语句与参数<br>
+ * 每个表有一个版本号,通过任意CachingSQLCommand对该表执行的写操作都会增加版本号,版本号变化后该表已经缓存的结果全部失效;<br>
+ * 外部对表的修改与连接查询(join)中其他表的修改不会使缓存失效,只能等待过期;返回的结果是缓存的副本,可以修改
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class CachingSQLCommand extends SQLCommandWrapper {
+	/** 表的版本号,key为表名 */
+	private static final ConcurrentHashMap<String, AtomicLong> TABLE_GENERATIONS = new ConcurrentHashMap<>();
+
+	/** 生成缓存key的语句 */
+	private final SQLStatement statement;
+	/** 表的版本号 */
+	private final AtomicLong generation;
+	/** 缓存 */
+	private final SqlCache<List<Object>, Cached> cache;
+
+	/**
+	 * 创建一个新的缓存装饰器
+	 *
+	 * @param delegate
+	 *          被装饰的SQLCommand
+	 * @param statement
+	 *          delegate使用的SQLStatement,用于生成缓存的key
+	 * @param maxSize
+	 *          缓存结果的数量上限
+	 * @param ttlMillis
+	 *          过期时间(毫秒)
+	 */
+	public CachingSQLCommand(SQLCommand delegate, SQLStatement statement, int maxSize, long ttlMillis) {
+		super(delegate);
+		this.statement = statement;
+		this.cache = new SqlCache<>(maxSize, ttlMillis);
+		String table = statement instanceof AbstractStatementSQL ? ((AbstractStatementSQL) statement).getEntityMetadata().getTableName()
+				: statement.getClass().getName();
+		this.generation = TABLE_GENERATIONS.computeIfAbsent(table, k -> new AtomicLong());
+	}
+
+	/**
+	 * 使表已经缓存的结果失效,用于通知缓存外部对表的修改
+	 *
+	 * @param tableName
+	 *          表名,与实体类{@link io.vertx.ext.sql.assist.anno.Table}中的名称相同(已按方言处理,比如MySQL为`name`)
+	 */
+	public static void invalidateTable(String tableName) {
+		AtomicLong generation = TABLE_GENERATIONS.get(tableName);
+		if (generation != null) {
+			generation.incrementAndGet();
+		}
+	}
+
+	@Override
+	public Future<Long> getCount(SqlAssist assist) {
+		return this.cached("count", statement.getCountSQL(assist), () -> delegate.getCount(assist), UnaryOperator.identity());
+	}
+
+	@Override
+	public Future<Boolean> getExist(SqlAssist assist) {
+		return this.cached("exist", statement.getExistSQL(assist), () -> delegate.getExist(assist), UnaryOperator.identity());
+	}
+
+	@Override
+	public Future<List<JsonObject>> selectAll(SqlAssist assist) {
+		return this.cached("list", statement.selectAllSQL(assist), () -> delegate.selectAll(assist), CachingSQLCommand::copy);
+	}
+
+	@Override
+	public <T> Future<List<JsonObject>> selectByObj(T obj, String resultColumns, String joinOrReference) {
+		return this.cached("list", statement.selectByObjSQL(obj, resultColumns, joinOrReference, false),
+				() -> delegate.selectByObj(obj, resultColumns, joinOrReference), CachingSQLCommand::copy);
+	}
+
+	/**
+	 * 分页查询,缓存delegate的分页结果,分页的方式(分页模式与估算总行数)仍然由delegate决定
+	 */
+	@Override
+	public Future<SqlLimitResult<JsonObject>> limitAll(SqlAssist assist) {
+		if (assist == null) {
+			return delegate.limitAll(assist);
+		}
+		assist.initLimit();
+		return this.cached("limit", statement.selectAllSQL(assist), () -> delegate.limitAll(assist), CachingSQLCommand::copy);
+	}
+
+	@Override
+	public <T> Future<Integer> insertAll(T obj) {
+		return this.write(() -> delegate.insertAll(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> insertAllBatch(List<T> list) {
+		return this.write(() -> delegate.insertAllBatch(list));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj) {
+		return this.write(() -> delegate.upsertAll(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj, String dupCol) {
+		return this.write(() -> delegate.upsertAll(obj, dupCol));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list) {
+		return this.write(() -> delegate.upsertAllBatch(list));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+		return this.write(() -> delegate.upsertAllBatch(list, dupCol));
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmpty(T obj) {
+		return this.write(() -> delegate.insertNonEmpty(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+		return this.write(() -> delegate.insertNonEmptyBatch(list));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj) {
+		return this.write(() -> delegate.upsertNonEmpty(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj, String dupCol) {
+		return this.write(() -> delegate.upsertNonEmpty(obj, dupCol));
+	}
+
+	@Override
+	public <T> Future<JsonArray> insertNonEmptyReturnId(T obj) {
+		return this.write(() -> delegate.insertNonEmptyReturnId(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllById(T obj) {
+		return this.write(() -> delegate.updateAllById(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllByAssist(T obj, SqlAssist assist) {
+		return this.write(() -> delegate.updateAllByAssist(obj, assist));
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyById(T obj) {
+		return this.write(() -> delegate.updateNonEmptyById(obj));
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+		return this.write(() -> delegate.updateNonEmptyByIdBatch(list));
+	}
+
+	@Override
+	public <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+		return this.write(() -> delegate.updateNonEmptyByIdBatchReturnId(list));
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByAssist(T obj, SqlAssist assist) {
+		return this.write(() -> delegate.updateNonEmptyByAssist(obj, assist));
+	}
+
+	@Override
+	public <S> Future<Integer> updateSetNullById(S primaryValue, List<String> columns) {
+		return this.write(() -> delegate.updateSetNullById(primaryValue, columns));
+	}
+
+	@Override
+	public Future<Integer> updateSetNullByAssist(SqlAssist assist, List<String> columns) {
+		return this.write(() -> delegate.updateSetNullByAssist(assist, columns));
+	}
+
+	@Override
+	public <S> Future<Integer> deleteById(S primaryValue) {
+		return this.write(() -> delegate.deleteById(primaryValue));
+	}
+
+	@Override
+	public Future<Integer> deleteByAssist(SqlAssist assist) {
+		return this.write(() -> delegate.deleteByAssist(assist));
+	}
+
+	/**
+	 * 通过缓存查询,缓存中的结果版本号与表的版本号相同时直接返回
+	 *
+	 * @param kind
+	 *          结果的类型
+	 * @param qp
+	 *          生成的SQL语句与参数
+	 * @param query
+	 *          没有缓存时执行的查询
+	 * @param copy
+	 *          复制结果
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <R> Future<R> cached(String kind, SqlAndParams qp, Supplier<Future<R>> query, UnaryOperator<R> copy) {
+		if (!qp.succeeded()) {
+			return query.get();
+		}
+		List<Object> key = Arrays.asList(kind, qp.getSql(), qp.getParams());
+		long current = generation.get();
+		Cached cached = cache.get(key);
+		if (cached != null && cached.generation == current) {
+			return Future.succeededFuture(copy.apply((R) cached.value));
+		}
+		return query.get().map(result -> {
+			if (result != null && generation.get() == current) {
+				cache.put(key, new Cached(current, copy.apply(result)));
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * 执行写操作,执行前后都会增加表的版本号
+	 *
+	 * @param write
+	 * @return
+	 */
+	private <R> Future<R> write(Supplier<Future<R>> write) {
+		generation.incrementAndGet();
+		return write.get().onComplete(res -> generation.incrementAndGet());
+	}
+
+	/**
+	 * 复制结果集
+	 *
+	 * @param rows
+	 * @return
+	 */
+	private static List<JsonObject> copy(List<JsonObject> rows) {
+		List<JsonObject> result = new ArrayList<>(rows.size());
+		for (JsonObject row : rows) {
+			result.add(row == null ? null : row.copy());
+		}
+		return result;
+	}
+
+	/**
+	 * 复制分页结果
+	 *
+	 * @param result
+	 * @return
+	 */
+	private static SqlLimitResult<JsonObject> copy(SqlLimitResult<JsonObject> result) {
+		SqlLimitResult<JsonObject> copy = new SqlLimitResult<>(result.getTotals(), result.getPage(), result.getSize());
+		copy.setEstimated(result.isEstimated());
+		if (result.getData() != null) {
+			copy.setData(copy(result.getData()));
+		}
+		return copy;
+	}
+
+	/**
+	 * 缓存的结果
+	 */
+	private static final class Cached {
+		/** 查询开始时表的版本号 */
+		private final long generation;
+		/** 结果 */
+		private final Object value;
+
+		Cached(long generation, Object value) {
+			this.generation = generation;
+			this.value = value;
+		}
+	}
+}
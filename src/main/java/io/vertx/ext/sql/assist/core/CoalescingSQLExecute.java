@@ -0,0 +1,219 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 合并相同查询的SQL执行器装饰器,语句与参数相同的查询在执行期间只会向数据库发送一次,其他调用共享同一个结果<br>
+ * 结果在有多个调用者时会复制,各调用者可以修改自己的结果;结果在调用者所在的Context中返回,可以在多个EventLoop之间共用<br>
+ * 写操作开始与结束时不再合并之前发出的查询,{@link SqlAndParams#setCoalesce(boolean)}为false的查询不合并,
+ * 也可以通过{@link SQLCommandImpl#setCoalesce(boolean)}(或CommonSQL.setCoalesce)使一个实例的查询都不合并
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ *          SQL执行器的客户端类型
+ */
+public class CoalescingSQLExecute<T> implements SQLExecute<T> {
+	/** 被装饰的执行器 */
+	private final SQLExecute<T> delegate;
+	/** 正在执行的查询,key=(查询方式,语句,参数),参数使用SqlParams比较,不需要转换为JsonArray */
+	private final ConcurrentHashMap<Object, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * 创建一个新的合并查询执行器
+	 *
+	 * @param delegate
+	 *          被装饰的执行器
+	 */
+	public CoalescingSQLExecute(SQLExecute<T> delegate) {
+		super();
+		this.delegate = delegate;
+	}
+
+	/**
+	 * 获取被装饰的执行器
+	 *
+	 * @return
+	 */
+	public SQLExecute<T> getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * 获取正在执行的查询数量
+	 *
+	 * @return
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	@Override
+	public T getClient() {
+		return delegate.getClient();
+	}
+
+	@Override
+	public Future<JsonObject> queryAsObj(SqlAndParams qp) {
+		return this.coalesce("obj", qp, delegate::queryAsObj, row -> row == null ? null : row.copy());
+	}
+
+	@Override
+	public Future<List<JsonObject>> queryAsListObj(SqlAndParams qp) {
+		return this.coalesce("listObj", qp, delegate::queryAsListObj, rows -> {
+			if (rows == null) {
+				return null;
+			}
+			List<JsonObject> result = new ArrayList<>(rows.size());
+			for (JsonObject row : rows) {
+				result.add(row == null ? null : row.copy());
+			}
+			return result;
+		});
+	}
+
+	@Override
+	public Future<List<JsonArray>> queryAsListArray(SqlAndParams qp) {
+		return this.coalesce("listArray", qp, delegate::queryAsListArray, rows -> {
+			if (rows == null) {
+				return null;
+			}
+			List<JsonArray> result = new ArrayList<>(rows.size());
+			for (JsonArray row : rows) {
+				result.add(row == null ? null : row.copy());
+			}
+			return result;
+		});
+	}
+
+	@Override
+	public Future<SqlReadStream<JsonObject>> queryAsStream(SqlAndParams qp) {
+		return delegate.queryAsStream(qp);
+	}
+
+	@Override
+	public boolean isCursorStream() {
+		return delegate.isCursorStream();
+	}
+
+	@Override
+	public Future<JsonArray> insert(SqlAndParams qp) {
+		inFlight.clear();
+		return delegate.insert(qp).onComplete(res -> inFlight.clear());
+	}
+
+	@Override
+	public Future<Integer> update(SqlAndParams qp) {
+		inFlight.clear();
+		return delegate.update(qp).onComplete(res -> inFlight.clear());
+	}
+
+	/**
+	 * 执行查询,存在相同的查询时共享其结果
+	 *
+	 * @param kind
+	 *          查询方式
+	 * @param qp
+	 *          SQL语句与参数
+	 * @param query
+	 *          执行查询的方法
+	 * @param copy
+	 *          复制结果的方法
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <R> Future<R> coalesce(String kind, SqlAndParams qp, Function<SqlAndParams, Future<R>> query, UnaryOperator<R> copy) {
+		if (qp == null || !qp.succeeded() || !qp.isCoalesce()) {
+			return query.apply(qp);
+		}
+		Object key = Arrays.asList(kind, qp.getSql(), qp.getSqlParams());
+		InFlight<?>[] created = new InFlight<?>[1];
+		InFlight<R> entry = (InFlight<R>) inFlight.compute(key, (k, current) -> {
+			if (current == null) {
+				created[0] = new InFlight<>();
+				return created[0];
+			}
+			current.callers++;
+			return current;
+		});
+		Promise<R> result = Promise.promise();
+		Context context = Vertx.currentContext();
+		entry.promise.future().onComplete(res -> {
+			// 第一个调用者在没有其他调用者时直接使用原结果
+			boolean shared = entry.callers > 1 || entry != created[0];
+			complete(result, res, shared ? copy : null, context);
+		});
+		if (entry == created[0]) {
+			Future<R> future;
+			try {
+				future = query.apply(qp);
+			} catch (RuntimeException e) {
+				future = Future.failedFuture(e);
+			}
+			future.onComplete(res -> {
+				inFlight.remove(key, entry);
+				entry.complete(res);
+			});
+		}
+		return result.future();
+	}
+
+	/**
+	 * 在调用者的Context中完成结果
+	 *
+	 * @param result
+	 * @param res
+	 * @param copy
+	 *          为null时不复制结果
+	 * @param context
+	 *          调用者的Context,为null时直接完成
+	 */
+	static <R> void complete(Promise<R> result, AsyncResult<R> res, UnaryOperator<R> copy, Context context) {
+		Runnable action = () -> {
+			if (res.failed()) {
+				result.fail(res.cause());
+			} else {
+				result.complete(copy == null ? res.result() : copy.apply(res.result()));
+			}
+		};
+		if (context == null || context == Vertx.currentContext()) {
+			action.run();
+		} else {
+			context.runOnContext(v -> action.run());
+		}
+	}
+
+	/**
+	 * 正在执行的查询
+	 *
+	 * @param <R>
+	 */
+	private static class InFlight<R> {
+		/** 查询的结果 */
+		private final Promise<R> promise = Promise.promise();
+		/** 调用者的数量,只在ConcurrentHashMap.compute中修改,查询完成并移除后不再变化 */
+		private volatile int callers = 1;
+
+		/**
+		 * 完成查询
+		 *
+		 * @param res
+		 */
+		private void complete(AsyncResult<R> res) {
+			promise.handle(res);
+		}
+	}
+}
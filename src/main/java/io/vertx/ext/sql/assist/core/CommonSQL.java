@@ -1,9 +1,12 @@
 package io.vertx.ext.sql.assist.core;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.assist.anno.Table;
@@ -23,8 +26,26 @@ import io.vertx.ext.sql.assist.anno.TableId;
 public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 	/** SQL 执行器 */
 	private SQLExecute<C> execute;
-	/** SQL 命令 */
-	private final SQLCommand command;
+	/** SQL 语句 */
+	private final SQLStatement statement;
+	/** SQL 命令的默认实现 */
+	private final SQLCommandImpl commandImpl;
+	/** SQL 命令,设置了结果缓存时为装饰后的命令 */
+	private volatile SQLCommand command;
+	/** 设置了结果缓存时为结果缓存装饰后的命令,合并selectById与主键缓存在它之外装饰 */
+	private volatile SQLCommand resultCommand;
+	/** 合并selectById使用的Vertx,为null时不合并 */
+	private Vertx batchVertx;
+	/** 合并selectById的时间窗口(微秒) */
+	private long batchWindowMicros;
+	/** 合并selectById的主键数量上限 */
+	private int batchMaxSize;
+	/** 主键缓存的数量上限,小于等于0时不缓存 */
+	private int idCacheSize;
+	/** 主键缓存的过期时间(毫秒) */
+	private long idCacheTtl;
+	/** 主键缓存是否缓存不存在的主键 */
+	private boolean idCacheMisses;
 
 	/**
 	 * 使用以注册或默认的{@link SQLStatement}
@@ -36,7 +57,10 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		Class<?> entityClz = (Class<?>) ((ParameterizedType) this.getClass().getGenericSuperclass()).getActualTypeArguments()[0];
 		SQLStatement statement = SQLStatement.create(entityClz);
 		this.execute = execute;
-		this.command = new SQLCommandImpl(statement, execute);
+		this.statement = statement;
+		this.commandImpl = new SQLCommandImpl(statement, execute);
+		this.command = commandImpl;
+		this.resultCommand = commandImpl;
 	}
 
 	/**
@@ -48,7 +72,10 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 	 *          SQL执行语句
 	 */
 	public CommonSQL(SQLExecute<E> execute, SQLStatement statement) {
-		this.command = new SQLCommandImpl(statement, execute);
+		this.statement = statement;
+		this.commandImpl = new SQLCommandImpl(statement, execute);
+		this.command = commandImpl;
+		this.resultCommand = commandImpl;
 	}
 
 	/**
@@ -62,6 +89,165 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return execute.getClient();
 	}
 
+	/**
+	 * 设置当前实例分页查询的方式,比如连接池有空余时使用{@link SqlLimitMode#CONCURRENT}同时查询总行数与数据
+	 *
+	 * @param mode
+	 *          为null时使用{@link SQLCommandImpl#registerLimitMode(SqlLimitMode)}设置的方式
+	 * @return
+	 */
+	public CommonSQL<E, C> setLimitMode(SqlLimitMode mode) {
+		commandImpl.setLimitMode(mode);
+		return this;
+	}
+
+	/**
+	 * 设置当前实例分页查询使用估算总行数的阈值,估算行数大于等于阈值时不再精确统计总行数
+	 *
+	 * @param threshold
+	 *          小于等于0时不使用估算,为null时使用{@link SQLCommandImpl#registerEstimatedCountThreshold(long)}设置的阈值
+	 * @return
+	 */
+	public CommonSQL<E, C> setEstimatedCountThreshold(Long threshold) {
+		commandImpl.setEstimatedCountThreshold(threshold);
+		return this;
+	}
+
+	/**
+	 * 设置通过多个主键查询的分批方式,默认每条语句1000个主键,同时执行4条语句
+	 *
+	 * @param chunkSize
+	 *          每条语句的主键数量上限
+	 * @param concurrency
+	 *          同时执行的语句数量上限
+	 * @return
+	 */
+	public CommonSQL<E, C> setSelectByIdsOptions(int chunkSize, int concurrency) {
+		commandImpl.setSelectByIdsOptions(chunkSize, concurrency);
+		return this;
+	}
+
+	/**
+	 * 设置当前实例的查询是否可以与相同的查询合并,只在执行器为{@link CoalescingSQLExecute}时有效,默认为true
+	 *
+	 * @param coalesce
+	 * @return
+	 */
+	public CommonSQL<E, C> setCoalesce(boolean coalesce) {
+		commandImpl.setCoalesce(coalesce);
+		return this;
+	}
+
+	/**
+	 * 设置执行器不支持游标时数据流每批查询的行数,默认500
+	 *
+	 * @param chunkSize
+	 *          每批查询的行数
+	 * @return
+	 */
+	public CommonSQL<E, C> setStreamChunkSize(int chunkSize) {
+		commandImpl.setStreamChunkSize(chunkSize);
+		return this;
+	}
+
+	/**
+	 * 设置总行数的缓存,翻页时相同条件的总行数只统计一次,通过当前实例执行的写操作会清空缓存
+	 *
+	 * @param maxSize
+	 *          缓存条件的数量上限,小于等于0时不缓存
+	 * @param ttlMillis
+	 *          过期时间(毫秒),小于等于0时不缓存
+	 * @return
+	 */
+	public CommonSQL<E, C> setCountCache(int maxSize, long ttlMillis) {
+		commandImpl.setCountCache(maxSize, ttlMillis);
+		return this;
+	}
+
+	/**
+	 * 设置查询结果的缓存,缓存getCount,getExist,selectAll,selectByObj与limitAll的结果,通过{@link CachingSQLCommand}对表的写操作会使该表的缓存失效
+	 *
+	 * @param maxSize
+	 *          缓存结果的数量上限,小于等于0时不缓存
+	 * @param ttlMillis
+	 *          过期时间(毫秒),小于等于0时不缓存
+	 * @return
+	 */
+	public CommonSQL<E, C> setResultCache(int maxSize, long ttlMillis) {
+		if (maxSize > 0 && ttlMillis > 0) {
+			this.resultCommand = new CachingSQLCommand(commandImpl, statement, maxSize, ttlMillis);
+		} else {
+			this.resultCommand = commandImpl;
+		}
+		this.wrapCommand();
+		return this;
+	}
+
+	/**
+	 * 设置合并selectById,同一次事件循环(或时间窗口)内的selectById(id)合并为一个in查询,详见{@link BatchingSQLCommand}
+	 *
+	 * @param vertx
+	 *          为null时不合并
+	 * @param windowMicros
+	 *          收集查询的时间窗口(微秒),小于等于0时只合并同一次事件循环内的查询
+	 * @param maxBatchSize
+	 *          一次查询的主键数量上限
+	 * @return
+	 */
+	public CommonSQL<E, C> setSelectByIdBatching(Vertx vertx, long windowMicros, int maxBatchSize) {
+		if (vertx != null && maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+		}
+		this.batchVertx = vertx;
+		this.batchWindowMicros = windowMicros;
+		this.batchMaxSize = maxBatchSize;
+		this.wrapCommand();
+		return this;
+	}
+
+	/**
+	 * 设置selectById的主键缓存,按主键的写操作只使该主键失效,通过SqlAssist的写操作使全部缓存失效,同一个表的所有实例共享失效,详见{@link IdCachingSQLCommand}
+	 *
+	 * @param maxSize
+	 *          缓存主键的数量上限,小于等于0时不缓存
+	 * @param ttlMillis
+	 *          过期时间(毫秒),小于等于0时不缓存
+	 * @param cacheMisses
+	 *          是否缓存不存在的主键
+	 * @return
+	 */
+	public CommonSQL<E, C> setIdCache(int maxSize, long ttlMillis, boolean cacheMisses) {
+		this.idCacheSize = ttlMillis > 0 ? maxSize : 0;
+		this.idCacheTtl = ttlMillis;
+		this.idCacheMisses = cacheMisses;
+		this.wrapCommand();
+		return this;
+	}
+
+	/**
+	 * 获取主键缓存,没有设置时返回null,可以用于获取命中次数
+	 *
+	 * @return
+	 */
+	public IdCachingSQLCommand getIdCache() {
+		SQLCommand current = command;
+		return current instanceof IdCachingSQLCommand ? (IdCachingSQLCommand) current : null;
+	}
+
+	/**
+	 * 在结果缓存之外依次装饰合并selectById与主键缓存
+	 */
+	private void wrapCommand() {
+		SQLCommand result = resultCommand;
+		if (batchVertx != null) {
+			result = new BatchingSQLCommand(result, batchVertx, batchWindowMicros, batchMaxSize);
+		}
+		if (idCacheSize > 0) {
+			result = new IdCachingSQLCommand(result, statement, idCacheSize, idCacheTtl, idCacheMisses);
+		}
+		this.command = result;
+	}
+
 	@Override
 	public Future<Long> getCount() {
 		return command.getCount();
@@ -72,6 +258,11 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.getCount(assist);
 	}
 
+	@Override
+	public Future<Long> getEstimatedCount(SqlAssist assist) {
+		return command.getEstimatedCount(assist);
+	}
+
 	@Override
 	public Future<Boolean> getExist(SqlAssist assist) {
 		return command.getExist(assist);
@@ -87,6 +278,21 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.selectAll(assist);
 	}
 
+	@Override
+	public Future<SqlReadStream<JsonObject>> selectAllAsStream(SqlAssist assist) {
+		return command.selectAllAsStream(assist);
+	}
+
+	@Override
+	public Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor) {
+		return command.keysetAll(assist, cursor);
+	}
+
+	@Override
+	public Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor, boolean desc, String... sortColumns) {
+		return command.keysetAll(assist, cursor, desc, sortColumns);
+	}
+
 	@Override
 	public Future<SqlLimitResult<JsonObject>> limitAll(SqlAssist assist) {
 		return command.limitAll(assist);
@@ -102,6 +308,21 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.selectById(primaryValue, resultColumns);
 	}
 
+	@Override
+	public <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues) {
+		return command.selectByIds(primaryValues);
+	}
+
+	@Override
+	public <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues, String resultColumns) {
+		return command.selectByIds(primaryValues, resultColumns, null);
+	}
+
+	@Override
+	public <S> Future<Map<S, JsonObject>> selectByIdsAsMap(Collection<S> primaryValues) {
+		return command.selectByIdsAsMap(primaryValues);
+	}
+
 	@Override
 	public <T> Future<JsonObject> selectSingleByObj(T obj) {
 		return command.selectSingleByObj(obj);
@@ -127,6 +348,11 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.insertAll(obj);
 	}
 
+	@Override
+	public <T> Future<Integer> insertAllBatch(List<T> list) {
+		return command.insertAllBatch(list);
+	}
+
 	@Override
 	public <T> Future<Integer> upsertAll(T obj) {
 		return command.upsertAll(obj);
@@ -137,11 +363,26 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.upsertAll(obj,dupCol);
 	}
 
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list) {
+		return command.upsertAllBatch(list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+		return command.upsertAllBatch(list, dupCol);
+	}
+
 	@Override
 	public <T> Future<Integer> insertNonEmpty(T obj) {
 		return command.insertNonEmpty(obj);
 	}
 
+	@Override
+	public <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+		return command.insertNonEmptyBatch(list);
+	}
+
 	@Override
 	public <T> Future<Integer> upsertNonEmpty(T obj) {
 		return command.upsertNonEmpty(obj);
@@ -172,6 +413,16 @@ public abstract class CommonSQL<E, C> implements CommonSQLClient<C> {
 		return command.updateNonEmptyById(obj);
 	}
 
+	@Override
+	public <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+		return command.updateNonEmptyByIdBatch(list);
+	}
+
+	@Override
+	public <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+		return command.updateNonEmptyByIdBatchReturnId(list);
+	}
+
 	@Override
 	public <T> Future<Integer> updateNonEmptyByAssist(T obj, SqlAssist assist) {
 		return command.updateNonEmptyByAssist(obj, assist);
@@ -1,6 +1,8 @@
 package io.vertx.ext.sql.assist.core;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
@@ -42,6 +44,16 @@ public interface CommonSQLClient<C> {
 	 */
 	Future<Long> getCount(SqlAssist assist);
 
+	/**
+	 * 获取估算的数据总行数,没有条件时读取表的统计信息,有条件时使用EXPLAIN的估算行数,不需要扫描数据
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null
+	 * @return future
+	 *          返回估算的行数,无法估算时为-1
+	 */
+	Future<Long> getEstimatedCount(SqlAssist assist);
+
 
 	/**
 	 * 获取数据总行数
@@ -71,6 +83,47 @@ public interface CommonSQLClient<C> {
 	 */
 	Future<List<JsonObject>> selectAll(SqlAssist assist);
 
+	/**
+	 * 通过查询工具以数据流的方式查询所有数据,行数据按需求从数据库读取,适合导出或遍历大量数据<br>
+	 * 数据流需要读取到结束,或者不再读取时调用{@link SqlReadStream#close()},否则游标与连接不会被释放<br>
+	 * 执行器不支持游标时,没有行数限制的查询通过主键分批读取,此时查询工具不能有排序,分组或去重
+	 *
+	 * @param assist
+	 *          查询工具帮助类,如果没有可以为null
+	 * @return future
+	 *          数据流
+	 */
+	Future<SqlReadStream<JsonObject>> selectAllAsStream(SqlAssist assist);
+
+	/**
+	 * keyset(seek)分页查询,按主键正序,默认rowSize=15
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null;每页的行数为assist的rowSize,排序与分页在该方法中无效
+	 * @param cursor
+	 *          上一页返回的{@link SqlKeysetResult#getNextCursor()},第一页为null
+	 * @return future
+	 *          返回结果为(JsonObject)格式为: {@link SqlKeysetResult#toJson()}
+	 */
+	Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor);
+
+	/**
+	 * keyset(seek)分页查询,通过(排序列,主键) > (上一页最后一行的值)定位下一页,每一页的查询时间与页码无关,默认rowSize=15<br>
+	 * 排序列的值不能为null,并且需要包含在返回列中
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null;每页的行数为assist的rowSize,排序与分页在该方法中无效
+	 * @param cursor
+	 *          上一页返回的{@link SqlKeysetResult#getNextCursor()},第一页为null
+	 * @param desc
+	 *          是否倒序
+	 * @param sortColumns
+	 *          排序列,主键会被追加到最后作为唯一排序
+	 * @return future
+	 *          返回结果为(JsonObject)格式为: {@link SqlKeysetResult#toJson()}
+	 */
+	Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor, boolean desc, String... sortColumns);
+
 	/**
 	 * 分页查询,默认page=1,rowSize=15(取第一页,每页取15行数据)
 	 *
@@ -103,6 +156,38 @@ public interface CommonSQLClient<C> {
 	 */
 	<S> Future<JsonObject> selectById(S primaryValue, String resultColumns);
 
+	/**
+	 * 通过多个ID查询出数据,主键较多时分为多条语句执行
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @return future
+	 *          返回结果:与主键的顺序一致,查询不到的主键对应null
+	 */
+	<S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues);
+
+	/**
+	 * 通过多个ID查询出数据,主键较多时分为多条语句执行
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @param resultColumns
+	 *          自定义返回列
+	 * @return future
+	 *          返回结果:与主键的顺序一致,查询不到的主键对应null
+	 */
+	<S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues, String resultColumns);
+
+	/**
+	 * 通过多个ID查询出数据
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @return future
+	 *          返回结果:key为主键,顺序与主键一致,不包含查询不到的主键
+	 */
+	<S> Future<Map<S, JsonObject>> selectByIdsAsMap(Collection<S> primaryValues);
+
 	/**
 	 * 将对象属性不为null的属性作为条件查询出数据,只取查询出来的第一条数据;
 	 *
@@ -161,6 +246,17 @@ public interface CommonSQLClient<C> {
 	 */
 	<T> Future<Integer> insertAll(T obj);
 
+	/**
+	 * 批量插入对象包括属性值为null的值,使用多行values的语句,每条语句插入多个对象<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数
+	 */
+	<T> Future<Integer> insertAllBatch(List<T> list);
+
 
 	/**
 	 * 插入一个对象,如果该对象不存在就新建如果该对象已经存在就更新
@@ -185,6 +281,30 @@ public interface CommonSQLClient<C> {
 	 */
 	<T> Future<Integer> upsertAll(T obj,String dupCol);
 
+	/**
+	 * 批量插入或更新对象包括属性值为null的值,使用多行values的upsert语句,冲突列为主键<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中;PostgreSQL同一条语句中冲突列的值不能重复
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数
+	 */
+	<T> Future<Integer> upsertAllBatch(List<T> list);
+
+	/**
+	 * 批量插入或更新对象包括属性值为null的值,使用多行values的upsert语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中;PostgreSQL同一条语句中冲突列的值不能重复
+	 *
+	 * @param list
+	 *          对象集合
+	 * @param dupCol
+	 *          冲突列
+	 * @return future
+	 *          返回受影响的总行数
+	 */
+	<T> Future<Integer> upsertAllBatch(List<T> list, String dupCol);
+
 	/**
 	 * 插入一个对象,只插入对象中值不为null的属性
 	 *
@@ -195,6 +315,17 @@ public interface CommonSQLClient<C> {
 	 */
 	<T> Future<Integer> insertNonEmpty(T obj);
 
+	/**
+	 * 批量插入对象,只插入对象中值不为null的属性,非空属性相同的对象使用同一条多行values的语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数
+	 */
+	<T> Future<Integer> insertNonEmptyBatch(List<T> list);
+
 
 	/**
 	 * 插入一个对象,如果该对象不存在就新建如果该对象已经存在就更新
@@ -263,6 +394,28 @@ public interface CommonSQLClient<C> {
 	 */
 	<T> Future<Integer> updateNonEmptyById(T obj);
 
+	/**
+	 * 批量更新对象中属性不为null值,条件为对象中的主键值,非空属性相同的对象使用同一条语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数
+	 */
+	<T> Future<Integer> updateNonEmptyByIdBatch(List<T> list);
+
+	/**
+	 * 批量更新对象中属性不为null值并返回被更新的主键,只有PostgreSQL支持,MySQL只能通过{@link #updateNonEmptyByIdBatch(List)}获取总行数<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          被更新的主键,主键不存在的对象没有对应的值
+	 */
+	<T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list);
+
 	/**
 	 * 更新一个对象中属性不为null值,条件为SqlAssist条件集
 	 *
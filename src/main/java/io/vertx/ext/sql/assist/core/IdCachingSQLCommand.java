@@ -0,0 +1,390 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.sql.AbstractStatementSQL;
+import io.vertx.ext.sql.assist.sql.EntityMetadata;
+import io.vertx.ext.sql.assist.sql.PostgreSQLStatementSQL;
+
+/**
+ * 按主键缓存selectById结果的SQLCommand装饰器,只缓存不指定返回列与连接的查询,可以缓存不存在的主键<br>
+ * 通过主键的修改(updateAllById,updateNonEmptyById,updateSetNullById,deleteById,携带主键的insert与upsert)只使该主键失效,
+ * 通过SqlAssist的修改与无法确定主键的修改使全部缓存失效;同一个表的所有实例共享失效,任意实例的写操作都会使其他实例的缓存失效;<br>
+ * 外部对表的修改不会使缓存失效,可以调用{@link #invalidateTable(String)}或{@link #invalidate(String, Object)}通知缓存
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class IdCachingSQLCommand extends SQLCommandWrapper {
+	/** 缓存不存在的主键时使用的值 */
+	private static final JsonObject MISSING = new JsonObject();
+	/** 表的共享状态,key为表名 */
+	private static final ConcurrentHashMap<String, TableCaches> TABLES = new ConcurrentHashMap<>();
+
+	/** 实体类的元数据 */
+	private final EntityMetadata metadata;
+	/** upsert是否只会按主键冲突 */
+	private final boolean upsertByPrimary;
+	/** 缓存 */
+	private final SqlCache<Object, JsonObject> cache;
+	/** 是否缓存不存在的主键 */
+	private final boolean cacheMisses;
+	/** 表的写操作次数,查询期间有写操作时不缓存查询结果 */
+	private final AtomicLong writes;
+	/** 表的共享状态 */
+	private final TableCaches table;
+	/** 命中次数 */
+	private final LongAdder hits = new LongAdder();
+	/** 未命中次数 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * 创建一个新的主键缓存装饰器
+	 *
+	 * @param delegate
+	 *          被装饰的SQLCommand
+	 * @param statement
+	 *          delegate使用的SQLStatement,需要继承{@link AbstractStatementSQL}
+	 * @param maxSize
+	 *          缓存主键的数量上限
+	 * @param ttlMillis
+	 *          过期时间(毫秒)
+	 * @param cacheMisses
+	 *          是否缓存不存在的主键
+	 */
+	public IdCachingSQLCommand(SQLCommand delegate, SQLStatement statement, int maxSize, long ttlMillis, boolean cacheMisses) {
+		super(delegate);
+		if (!(statement instanceof AbstractStatementSQL)) {
+			throw new IllegalArgumentException("The statement must extend AbstractStatementSQL");
+		}
+		this.metadata = ((AbstractStatementSQL) statement).getEntityMetadata();
+		// MySQL的on duplicate key update会按任意唯一索引冲突,无法确定被修改的主键
+		this.upsertByPrimary = statement instanceof PostgreSQLStatementSQL;
+		this.cache = new SqlCache<>(maxSize, ttlMillis);
+		this.cacheMisses = cacheMisses;
+		this.table = TABLES.computeIfAbsent(String.valueOf(metadata.getTableName()), k -> new TableCaches());
+		this.writes = table.writes;
+		table.register(cache);
+	}
+
+	/**
+	 * 使表所有实例中主键的缓存失效,用于通知缓存外部对表的修改
+	 *
+	 * @param tableName
+	 *          表名,与实体类{@link io.vertx.ext.sql.assist.anno.Table}中的名称相同(已按方言处理,比如MySQL为`name`)
+	 * @param primaryValue
+	 *          主键
+	 */
+	public static void invalidate(String tableName, Object primaryValue) {
+		TableCaches table = TABLES.get(tableName);
+		if (table != null) {
+			table.writes.incrementAndGet();
+			Object key = SQLCommandImpl.idKey(primaryValue);
+			table.forEach(cache -> cache.remove(key));
+		}
+	}
+
+	/**
+	 * 使表所有实例的缓存失效,用于通知缓存外部对表的修改
+	 *
+	 * @param tableName
+	 *          表名,与实体类{@link io.vertx.ext.sql.assist.anno.Table}中的名称相同(已按方言处理,比如MySQL为`name`)
+	 */
+	public static void invalidateTable(String tableName) {
+		TableCaches table = TABLES.get(tableName);
+		if (table != null) {
+			table.writes.incrementAndGet();
+			table.forEach(SqlCache::invalidateAll);
+		}
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * 获取未命中次数
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 使同一个表所有实例中主键的缓存失效
+	 *
+	 * @param primaryValue
+	 */
+	public void invalidate(Object primaryValue) {
+		Object key = SQLCommandImpl.idKey(primaryValue);
+		table.forEach(cache -> cache.remove(key));
+	}
+
+	/**
+	 * 使同一个表所有实例的全部缓存失效
+	 */
+	public void invalidateAll() {
+		table.forEach(SqlCache::invalidateAll);
+	}
+
+	@Override
+	public <S> Future<JsonObject> selectById(S primaryValue, String resultColumns, String joinOrReference) {
+		if (primaryValue == null || resultColumns != null || joinOrReference != null) {
+			return delegate.selectById(primaryValue, resultColumns, joinOrReference);
+		}
+		Object key = SQLCommandImpl.idKey(primaryValue);
+		JsonObject cached = cache.get(key);
+		if (cached != null) {
+			hits.increment();
+			return Future.succeededFuture(cached == MISSING ? null : cached.copy());
+		}
+		misses.increment();
+		long current = writes.get();
+		return delegate.selectById(primaryValue, resultColumns, joinOrReference).map(row -> {
+			if ((row != null || cacheMisses) && writes.get() == current) {
+				cache.put(key, row == null ? MISSING : row.copy());
+			}
+			return row;
+		});
+	}
+
+	@Override
+	public <T> Future<Integer> insertAll(T obj) {
+		return this.write(() -> delegate.insertAll(obj), obj);
+	}
+
+	@Override
+	public <T> Future<Integer> insertAllBatch(List<T> list) {
+		return this.write(() -> delegate.insertAllBatch(list), list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj) {
+		return this.upsert(() -> delegate.upsertAll(obj), obj, null);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj, String dupCol) {
+		return this.upsert(() -> delegate.upsertAll(obj, dupCol), obj, dupCol);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list) {
+		return this.upsert(() -> delegate.upsertAllBatch(list), list, null);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+		return this.upsert(() -> delegate.upsertAllBatch(list, dupCol), list, dupCol);
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmpty(T obj) {
+		return this.write(() -> delegate.insertNonEmpty(obj), obj);
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+		return this.write(() -> delegate.insertNonEmptyBatch(list), list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj) {
+		return this.upsert(() -> delegate.upsertNonEmpty(obj), obj, null);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj, String dupCol) {
+		return this.upsert(() -> delegate.upsertNonEmpty(obj, dupCol), obj, dupCol);
+	}
+
+	@Override
+	public <T> Future<JsonArray> insertNonEmptyReturnId(T obj) {
+		return this.write(() -> delegate.insertNonEmptyReturnId(obj), obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllById(T obj) {
+		return this.write(() -> delegate.updateAllById(obj), obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllByAssist(T obj, SqlAssist assist) {
+		return this.write(() -> delegate.updateAllByAssist(obj, assist), null);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyById(T obj) {
+		return this.write(() -> delegate.updateNonEmptyById(obj), obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+		return this.write(() -> delegate.updateNonEmptyByIdBatch(list), list);
+	}
+
+	@Override
+	public <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+		return this.write(() -> delegate.updateNonEmptyByIdBatchReturnId(list), list);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByAssist(T obj, SqlAssist assist) {
+		return this.write(() -> delegate.updateNonEmptyByAssist(obj, assist), null);
+	}
+
+	@Override
+	public <S> Future<Integer> updateSetNullById(S primaryValue, List<String> columns) {
+		return this.writeById(() -> delegate.updateSetNullById(primaryValue, columns), primaryValue);
+	}
+
+	@Override
+	public Future<Integer> updateSetNullByAssist(SqlAssist assist, List<String> columns) {
+		return this.write(() -> delegate.updateSetNullByAssist(assist, columns), null);
+	}
+
+	@Override
+	public <S> Future<Integer> deleteById(S primaryValue) {
+		return this.writeById(() -> delegate.deleteById(primaryValue), primaryValue);
+	}
+
+	@Override
+	public Future<Integer> deleteByAssist(SqlAssist assist) {
+		return this.write(() -> delegate.deleteByAssist(assist), null);
+	}
+
+	/**
+	 * 执行upsert,只有按主键冲突时才按主键失效
+	 *
+	 * @param write
+	 * @param objs
+	 *          对象或对象集合
+	 * @param dupCol
+	 * @return
+	 */
+	private <R> Future<R> upsert(Supplier<Future<R>> write, Object objs, String dupCol) {
+		boolean byPrimary = upsertByPrimary && (dupCol == null || dupCol.trim().isEmpty() || dupCol.equals(metadata.getPrimaryId()));
+		return this.write(write, byPrimary ? objs : null);
+	}
+
+	/**
+	 * 按主键执行写操作,执行前后使主键失效
+	 *
+	 * @param write
+	 * @param primaryValue
+	 * @return
+	 */
+	private <R> Future<R> writeById(Supplier<Future<R>> write, Object primaryValue) {
+		writes.incrementAndGet();
+		this.invalidate(primaryValue);
+		return write.get().onComplete(res -> {
+			writes.incrementAndGet();
+			this.invalidate(primaryValue);
+		});
+	}
+
+	/**
+	 * 执行写操作,执行前后使对象的主键失效
+	 *
+	 * @param write
+	 * @param objs
+	 *          对象或对象集合,为null或无法确定主键时使全部缓存失效
+	 * @return
+	 */
+	private <R> Future<R> write(Supplier<Future<R>> write, Object objs) {
+		writes.incrementAndGet();
+		this.invalidateObjects(objs);
+		return write.get().onComplete(res -> {
+			writes.incrementAndGet();
+			this.invalidateObjects(objs);
+		});
+	}
+
+	/**
+	 * 使对象的主键失效,无法确定主键时使全部缓存失效
+	 *
+	 * @param objs
+	 *          对象或对象集合
+	 */
+	private void invalidateObjects(Object objs) {
+		if (objs instanceof List) {
+			for (Object obj : (List<?>) objs) {
+				if (!this.invalidateObject(obj)) {
+					return;
+				}
+			}
+		} else {
+			this.invalidateObject(objs);
+		}
+	}
+
+	/**
+	 * 使对象的主键失效,无法确定主键时使全部缓存失效
+	 *
+	 * @param obj
+	 * @return 是否按主键失效
+	 */
+	private boolean invalidateObject(Object obj) {
+		Object primaryValue = null;
+		if (obj != null && metadata.getPrimaryId() != null && obj.getClass() == metadata.getEntity()) {
+			try {
+				primaryValue = metadata.getValues(obj)[0];
+			} catch (IllegalAccessException e) {
+				primaryValue = null;
+			}
+		}
+		if (primaryValue == null) {
+			// 没有主键的插入可能生成已经缓存为不存在的主键
+			this.invalidateAll();
+			return false;
+		}
+		this.invalidate(primaryValue);
+		return true;
+	}
+
+	/**
+	 * 同一个表所有实例共享的状态
+	 */
+	private static final class TableCaches {
+		/** 表的写操作次数 */
+		private final AtomicLong writes = new AtomicLong();
+		/** 表所有实例的缓存,实例被回收后自动移除 */
+		private final Set<SqlCache<Object, JsonObject>> caches = Collections.newSetFromMap(new WeakHashMap<>());
+
+		/**
+		 * 登记实例的缓存
+		 *
+		 * @param cache
+		 */
+		synchronized void register(SqlCache<Object, JsonObject> cache) {
+			caches.add(cache);
+		}
+
+		/**
+		 * 对所有实例的缓存执行操作
+		 *
+		 * @param action
+		 */
+		synchronized void forEach(Consumer<SqlCache<Object, JsonObject>> action) {
+			for (SqlCache<Object, JsonObject> cache : caches) {
+				action.accept(cache);
+			}
+		}
+	}
+}
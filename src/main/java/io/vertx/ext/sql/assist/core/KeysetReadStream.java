@@ -0,0 +1,194 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.Function;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 按keyset分批查询的数据流,用于不支持游标的客户端(SQLOperations会先读取全部结果)<br>
+ * 有需求且缓存的行已经读完时才查询下一批,内存中最多只有一批数据,批次之间不占用连接
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+class KeysetReadStream implements SqlReadStream<JsonObject> {
+	/** 通过上一批最后一行的排序列值查询下一批,第一批为null */
+	private final Function<JsonArray, Future<List<JsonObject>>> loader;
+	/** 排序列在结果中的列名 */
+	private final String[] keys;
+	/** 每批的行数 */
+	private final int chunkSize;
+	/** 已经查询但未发送的行 */
+	private final ArrayDeque<JsonObject> buffer = new ArrayDeque<>();
+	/** 上一批最后一行的排序列值 */
+	private JsonArray lastValues;
+	/** 需求的行数,Long.MAX_VALUE表示不限 */
+	private long demand = Long.MAX_VALUE;
+	/** 是否正在查询 */
+	private boolean loading;
+	/** 是否已经没有下一批 */
+	private boolean finished;
+	/** 是否已经结束(包括关闭与异常) */
+	private boolean ended;
+	/** 是否正在发送数据,防止处理器中调用fetch时重入 */
+	private boolean draining;
+	/** 行处理器 */
+	private Handler<JsonObject> handler;
+	/** 结束处理器 */
+	private Handler<Void> endHandler;
+	/** 异常处理器 */
+	private Handler<Throwable> exceptionHandler;
+
+	KeysetReadStream(Function<JsonArray, Future<List<JsonObject>>> loader, String[] keys, int chunkSize) {
+		this.loader = loader;
+		this.keys = keys;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public KeysetReadStream exceptionHandler(Handler<Throwable> handler) {
+		this.exceptionHandler = handler;
+		return this;
+	}
+
+	@Override
+	public KeysetReadStream handler(Handler<JsonObject> handler) {
+		this.handler = handler;
+		if (handler != null) {
+			this.drain();
+		}
+		return this;
+	}
+
+	@Override
+	public KeysetReadStream pause() {
+		this.demand = 0;
+		return this;
+	}
+
+	@Override
+	public KeysetReadStream resume() {
+		return this.fetch(Long.MAX_VALUE);
+	}
+
+	@Override
+	public KeysetReadStream fetch(long amount) {
+		if (amount > 0) {
+			demand += amount;
+			if (demand < 0) {
+				demand = Long.MAX_VALUE;
+			}
+			this.drain();
+		}
+		return this;
+	}
+
+	@Override
+	public KeysetReadStream endHandler(Handler<Void> endHandler) {
+		this.endHandler = endHandler;
+		return this;
+	}
+
+	@Override
+	public Future<Void> close() {
+		this.ended = true;
+		this.buffer.clear();
+		return Future.succeededFuture();
+	}
+
+	/**
+	 * 按需求发送缓存的行,缓存读完时查询下一批
+	 */
+	private void drain() {
+		if (draining) {
+			return;
+		}
+		draining = true;
+		try {
+			while (!ended && handler != null && demand > 0) {
+				JsonObject row = buffer.poll();
+				if (row == null) {
+					if (finished) {
+						ended = true;
+						if (endHandler != null) {
+							endHandler.handle(null);
+						}
+						return;
+					}
+					this.load();
+					if (loading) {
+						return;
+					}
+					continue;
+				}
+				if (demand != Long.MAX_VALUE) {
+					demand--;
+				}
+				handler.handle(row);
+			}
+		} finally {
+			draining = false;
+		}
+	}
+
+	/**
+	 * 查询下一批
+	 */
+	private void load() {
+		if (loading || ended) {
+			return;
+		}
+		loading = true;
+		Future<List<JsonObject>> future;
+		try {
+			future = loader.apply(lastValues);
+		} catch (RuntimeException e) {
+			future = Future.failedFuture(e);
+		}
+		future.onComplete(res -> {
+			loading = false;
+			if (ended) {
+				return;
+			}
+			if (res.failed()) {
+				this.fail(res.cause());
+				return;
+			}
+			List<JsonObject> rows = res.result();
+			if (rows.size() < chunkSize) {
+				finished = true;
+			}
+			if (!rows.isEmpty()) {
+				JsonObject last = rows.get(rows.size() - 1);
+				JsonArray values = new JsonArray();
+				for (String key : keys) {
+					if (!last.containsKey(key)) {
+						this.fail(new IllegalStateException("The keyset column " + key + " is not in the result columns"));
+						return;
+					}
+					values.add(last.getValue(key));
+				}
+				lastValues = values;
+				buffer.addAll(rows);
+			}
+			this.drain();
+		});
+	}
+
+	/**
+	 * 出现异常时结束数据流
+	 *
+	 * @param e
+	 */
+	private void fail(Throwable e) {
+		ended = true;
+		buffer.clear();
+		if (exceptionHandler != null) {
+			exceptionHandler.handle(e);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 将数据库返回的行数据流转换为另一种类型的数据流,暂停与需求直接传递给上游<br>
+ * 数据流结束,出现异常或被关闭时执行一次释放资源的操作(比如关闭游标与连接)
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <S>
+ *          上游的类型
+ * @param <T>
+ *          转换后的类型
+ */
+class MappedReadStream<S, T> implements SqlReadStream<T> {
+	/** 上游 */
+	private final ReadStream<S> source;
+	/** 转换函数 */
+	private final Function<S, T> mapper;
+	/** 释放资源 */
+	private final Supplier<Future<Void>> release;
+	/** 释放资源的结果,为null时还没有释放 */
+	private Future<Void> released;
+	/** 异常处理器 */
+	private Handler<Throwable> exceptionHandler;
+
+	MappedReadStream(ReadStream<S> source, Function<S, T> mapper, Supplier<Future<Void>> release) {
+		this.source = source;
+		this.mapper = mapper;
+		this.release = release;
+		source.exceptionHandler(this::onException);
+	}
+
+	@Override
+	public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+		this.exceptionHandler = handler;
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> handler(Handler<T> handler) {
+		if (handler == null) {
+			source.handler(null);
+		} else {
+			source.handler(row -> {
+				if (released != null) {
+					// 关闭后上游可能还有已经读取的行
+					return;
+				}
+				T value;
+				try {
+					value = mapper.apply(row);
+				} catch (Throwable e) {
+					source.pause();
+					onException(e);
+					return;
+				}
+				handler.handle(value);
+			});
+		}
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> pause() {
+		source.pause();
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> resume() {
+		source.resume();
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> fetch(long amount) {
+		source.fetch(amount);
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> endHandler(Handler<Void> endHandler) {
+		if (endHandler == null) {
+			source.endHandler(null);
+		} else {
+			source.endHandler(v -> {
+				if (released == null) {
+					release();
+					endHandler.handle(null);
+				}
+			});
+		}
+		return this;
+	}
+
+	@Override
+	public Future<Void> close() {
+		return release();
+	}
+
+	/**
+	 * 上游出现异常
+	 *
+	 * @param e
+	 */
+	private void onException(Throwable e) {
+		if (released != null) {
+			return;
+		}
+		release();
+		if (exceptionHandler != null) {
+			exceptionHandler.handle(e);
+		}
+	}
+
+	/**
+	 * 释放资源
+	 */
+	private Future<Void> release() {
+		if (released == null) {
+			try {
+				released = release.get();
+			} catch (RuntimeException e) {
+				released = Future.failedFuture(e);
+			}
+		}
+		return released;
+	}
+}
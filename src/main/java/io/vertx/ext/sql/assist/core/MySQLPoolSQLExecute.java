@@ -0,0 +1,39 @@
+package io.vertx.ext.sql.assist.core;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.mysqlclient.MySQLClient;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+
+/**
+ * MySQL响应式客户端(MySQLPool)版的SQL执行器
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class MySQLPoolSQLExecute extends AbstractPoolSQLExecute {
+
+    public MySQLPoolSQLExecute(Pool pool) {
+        super(pool);
+    }
+
+    @Override
+    protected String convertSql(String sql) {
+        return sql;
+    }
+
+    @Override
+    protected JsonArray getKeys(RowSet<Row> rows) {
+        RowIterator<Row> iterator = rows.iterator();
+        if (iterator.hasNext()) {
+            return toJsonArray(iterator.next());
+        }
+        JsonArray result = new JsonArray();
+        Long id = rows.property(MySQLClient.LAST_INSERTED_ID);
+        if (id != null) {
+            result.add(id);
+        }
+        return result;
+    }
+}
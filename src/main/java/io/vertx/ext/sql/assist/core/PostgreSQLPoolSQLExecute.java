@@ -0,0 +1,87 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+
+/**
+ * PostgreSQL响应式客户端(PgPool)版的SQL执行器,语句中的?占位符会被转换为$1,$2...<br>
+ * 插入时需要返回主键请使用带有returning的语句,比如{@link SQLStatement#insertNonEmptySQLReturnId(Object)}
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class PostgreSQLPoolSQLExecute extends AbstractPoolSQLExecute {
+    /**
+     * 转换后语句的缓存数量上限
+     */
+    private static final int SQL_CACHE_SIZE = 1024;
+    /**
+     * 转换后的语句,key=原语句
+     */
+    private final ConcurrentHashMap<String, String> sqlCache = new ConcurrentHashMap<>();
+
+    public PostgreSQLPoolSQLExecute(Pool pool) {
+        super(pool);
+    }
+
+    @Override
+    protected String convertSql(String sql) {
+        String result = sqlCache.get(sql);
+        if (result == null) {
+            result = toNumberedPlaceholder(sql);
+            if (sqlCache.size() < SQL_CACHE_SIZE) {
+                sqlCache.putIfAbsent(sql, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected JsonArray getKeys(RowSet<Row> rows) {
+        RowIterator<Row> iterator = rows.iterator();
+        return iterator.hasNext() ? toJsonArray(iterator.next()) : new JsonArray();
+    }
+
+    /**
+     * 将语句中的?占位符转换为$n,字符串,带引号的名称与注释中的?不转换
+     *
+     * @param sql
+     * @return
+     */
+    public static String toNumberedPlaceholder(String sql) {
+        if (sql.indexOf('?') < 0) {
+            return sql;
+        }
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? length - 1 : end;
+                result.append(sql, i, end + 1);
+                i = end;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                end = end < 0 ? length - 1 : end;
+                result.append(sql, i, end + 1);
+                i = end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? length - 1 : end + 1;
+                result.append(sql, i, end + 1);
+                i = end;
+            } else if (c == '?') {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -1,7 +1,12 @@
 package io.vertx.ext.sql.assist.core;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -33,6 +38,18 @@ public interface SQLCommand {
 	 */
 	Future<Long> getCount(SqlAssist assist);
 
+	/**
+	 * 获取估算的数据总行数,没有条件时读取表的统计信息,有条件时使用EXPLAIN的估算行数,不需要扫描数据
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null
+	 * @return future
+	 *          返回估算的行数,无法估算时为-1;默认使用{@link #getCount(SqlAssist)}精确统计
+	 */
+	default Future<Long> getEstimatedCount(SqlAssist assist) {
+		return getCount(assist);
+	}
+
 
 	/**
 	 * 获取数据总行数
@@ -64,6 +81,53 @@ public interface SQLCommand {
 	 */
 	Future<List<JsonObject>> selectAll(SqlAssist assist);
 
+	/**
+	 * 通过查询工具以数据流的方式查询所有数据,行数据按需求从数据库读取,适合导出或遍历大量数据<br>
+	 * 数据流需要读取到结束,或者不再读取时调用{@link SqlReadStream#close()},否则游标与连接不会被释放<br>
+	 * 执行器不支持游标时,没有行数限制的查询通过主键分批读取,此时查询工具不能有排序,分组或去重
+	 *
+	 * @param assist
+	 *          查询工具帮助类,如果没有可以为null
+	 * @return future
+	 *          数据流,默认返回失败的结果
+	 */
+	default Future<SqlReadStream<JsonObject>> selectAllAsStream(SqlAssist assist) {
+		return Future.failedFuture(new UnsupportedOperationException("selectAllAsStream is not supported by " + getClass().getName()));
+	}
+
+	/**
+	 * keyset(seek)分页查询,按主键正序,默认rowSize=15
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null;每页的行数为assist的rowSize,排序与分页在该方法中无效
+	 * @param cursor
+	 *          上一页返回的{@link SqlKeysetResult#getNextCursor()},第一页为null
+	 * @return future
+	 *          返回结果为(JsonObject)格式为: {@link SqlKeysetResult#toJson()}
+	 */
+	default Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor) {
+		return keysetAll(assist, cursor, false);
+	}
+
+	/**
+	 * keyset(seek)分页查询,通过(排序列,主键) > (上一页最后一行的值)定位下一页,每一页的查询时间与页码无关,默认rowSize=15<br>
+	 * 排序列的值不能为null,并且需要包含在返回列中
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null;每页的行数为assist的rowSize,排序与分页在该方法中无效
+	 * @param cursor
+	 *          上一页返回的{@link SqlKeysetResult#getNextCursor()},第一页为null
+	 * @param desc
+	 *          是否倒序
+	 * @param sortColumns
+	 *          排序列,主键会被追加到最后作为唯一排序
+	 * @return future
+	 *          返回结果为(JsonObject)格式为: {@link SqlKeysetResult#toJson()},默认返回失败的结果
+	 */
+	default Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor, boolean desc, String... sortColumns) {
+		return Future.failedFuture(new UnsupportedOperationException("keysetAll is not supported by " + getClass().getName()));
+	}
+
 
 	/**
 	 * 分页查询,默认page=1,rowSize=15(取第一页,每页取15行数据)
@@ -77,17 +141,7 @@ public interface SQLCommand {
 		if (assist == null) {
 			return Future.failedFuture("The SqlAssist cannot be null , you can pass in new SqlAssist()");
 		}
-		if (assist.getPage() == null || assist.getPage() < 1) {
-			assist.setPage(1);
-		}
-		if (assist.getRowSize() == null || assist.getRowSize() < 1) {
-			assist.setRowSize(15);
-		}
-		if (assist.getPage() == 1) {
-			assist.setStartRow(0);
-		} else {
-			assist.setStartRow((assist.getPage() - 1) * assist.getRowSize());
-		}
+		assist.initLimit();
 		return this.getCount(assist)
 				.compose(count -> {
 					SqlLimitResult<JsonObject> result = new SqlLimitResult<>(count, assist.getPage(), assist.getRowSize());
@@ -137,6 +191,80 @@ public interface SQLCommand {
 	 *          多表查询或表连接的语句,示例 as t inner join table2 as t2 on t.id=t2.id
 	 */
 	<S> Future<JsonObject> selectById(S primaryValue, String resultColumns, String joinOrReference);
+
+	/**
+	 * 通过多个ID查询出数据,主键较多时分为多条语句执行
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @return future
+	 *          返回结果:与主键的顺序一致,查询不到的主键对应null
+	 */
+	default <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues) {
+		return selectByIds(primaryValues, null, null);
+	}
+
+	/**
+	 * 通过多个ID查询出数据,并自定义返回列
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @param resultColumns
+	 *          自定义返回列
+	 * @param joinOrReference
+	 *          多表查询或表连接的语句,示例 as t inner join table2 as t2 on t.id=t2.id
+	 * @return future
+	 *          返回结果:与主键的顺序一致,查询不到的主键对应null;默认每个主键执行一次{@link #selectById(Object, String, String)}
+	 */
+	@SuppressWarnings("rawtypes")
+	default <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues, String resultColumns, String joinOrReference) {
+		List<Future> rows = new ArrayList<>(primaryValues.size());
+		for (S value : primaryValues) {
+			rows.add(value == null ? Future.succeededFuture() : selectById(value, resultColumns, joinOrReference));
+		}
+		return CompositeFuture.all(rows).map(all -> all.<JsonObject>list());
+	}
+
+	/**
+	 * 通过多个ID查询出数据
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @return future
+	 *          返回结果:key为主键,顺序与主键一致,不包含查询不到的主键
+	 */
+	default <S> Future<Map<S, JsonObject>> selectByIdsAsMap(Collection<S> primaryValues) {
+		return selectByIdsAsMap(primaryValues, null, null);
+	}
+
+	/**
+	 * 通过多个ID查询出数据,并自定义返回列
+	 *
+	 * @param primaryValues
+	 *          主键值
+	 * @param resultColumns
+	 *          自定义返回列
+	 * @param joinOrReference
+	 *          多表查询或表连接的语句,示例 as t inner join table2 as t2 on t.id=t2.id
+	 * @return future
+	 *          返回结果:key为主键,顺序与主键一致,不包含查询不到的主键
+	 */
+	default <S> Future<Map<S, JsonObject>> selectByIdsAsMap(Collection<S> primaryValues, String resultColumns, String joinOrReference) {
+		return selectByIds(primaryValues, resultColumns, joinOrReference).map(rows -> {
+			Map<S, JsonObject> result = new LinkedHashMap<>();
+			if (primaryValues == null) {
+				return result;
+			}
+			int index = 0;
+			for (S value : primaryValues) {
+				JsonObject row = rows.get(index++);
+				if (row != null) {
+					result.putIfAbsent(value, row);
+				}
+			}
+			return result;
+		});
+	}
 	/**
 	 * 将对象属性不为null的属性作为条件查询出数据,只取查询出来的第一条数据;
 	 *
@@ -227,6 +355,23 @@ public interface SQLCommand {
 	 */
 	<T> Future<Integer> insertAll(T obj);
 
+	/**
+	 * 批量插入对象包括属性值为null的值,使用多行values的语句,每条语句插入多个对象<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数;默认依次执行{@link #insertAll(Object)}
+	 */
+	default <T> Future<Integer> insertAllBatch(List<T> list) {
+		Future<Integer> result = Future.succeededFuture(0);
+		for (T obj : list) {
+			result = result.compose(total -> insertAll(obj).map(rows -> total + rows));
+		}
+		return result;
+	}
+
 
 	/**
 	 * 插入一个对象包括属性值为null的值
@@ -251,6 +396,42 @@ public interface SQLCommand {
 	 */
 	<T> Future<Integer> upsertAll(T obj,String dupCol);
 
+	/**
+	 * 批量插入或更新对象包括属性值为null的值,使用多行values的upsert语句,冲突列为主键<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中;PostgreSQL同一条语句中冲突列的值不能重复
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数;默认依次执行{@link #upsertAll(Object)}
+	 */
+	default <T> Future<Integer> upsertAllBatch(List<T> list) {
+		Future<Integer> result = Future.succeededFuture(0);
+		for (T obj : list) {
+			result = result.compose(total -> upsertAll(obj).map(rows -> total + rows));
+		}
+		return result;
+	}
+
+	/**
+	 * 批量插入或更新对象包括属性值为null的值,使用多行values的upsert语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中;PostgreSQL同一条语句中冲突列的值不能重复
+	 *
+	 * @param list
+	 *          对象集合
+	 * @param dupCol
+	 *          冲突列
+	 * @return future
+	 *          返回受影响的总行数;默认依次执行{@link #upsertAll(Object, String)}
+	 */
+	default <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+		Future<Integer> result = Future.succeededFuture(0);
+		for (T obj : list) {
+			result = result.compose(total -> upsertAll(obj, dupCol).map(rows -> total + rows));
+		}
+		return result;
+	}
+
 	/**
 	 * 插入一个对象,只插入对象中值不为null的属性
 	 *
@@ -261,6 +442,23 @@ public interface SQLCommand {
 	 */
 	<T> Future<Integer> insertNonEmpty(T obj);
 
+	/**
+	 * 批量插入对象,只插入对象中值不为null的属性,非空属性相同的对象使用同一条多行values的语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数;默认依次执行{@link #insertNonEmpty(Object)}
+	 */
+	default <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+		Future<Integer> result = Future.succeededFuture(0);
+		for (T obj : list) {
+			result = result.compose(total -> insertNonEmpty(obj).map(rows -> total + rows));
+		}
+		return result;
+	}
+
 
 
 	/**
@@ -331,6 +529,36 @@ public interface SQLCommand {
 	 */
 	<T> Future<Integer> updateNonEmptyById(T obj);
 
+	/**
+	 * 批量更新对象中属性不为null值,条件为对象中的主键值,非空属性相同的对象使用同一条语句<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          返回受影响的总行数;默认依次执行{@link #updateNonEmptyById(Object)}
+	 */
+	default <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+		Future<Integer> result = Future.succeededFuture(0);
+		for (T obj : list) {
+			result = result.compose(total -> updateNonEmptyById(obj).map(rows -> total + rows));
+		}
+		return result;
+	}
+
+	/**
+	 * 批量更新对象中属性不为null值并返回被更新的主键,只有PostgreSQL支持<br>
+	 * 对象较多时会拆分为多条语句依次执行,语句之间不在同一个事务中
+	 *
+	 * @param list
+	 *          对象集合
+	 * @return future
+	 *          被更新的主键,主键不存在的对象没有对应的值
+	 */
+	default <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+		return Future.failedFuture(new UnsupportedOperationException("updateNonEmptyByIdBatchReturnId is not supported by " + getClass().getName()));
+	}
+
 	/**
 	 * 更新一个对象中属性不为null值,条件为SqlAssist条件集
 	 *
@@ -1,8 +1,20 @@
 package io.vertx.ext.sql.assist.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -21,17 +33,188 @@ public class SQLCommandImpl implements SQLCommand {
      */
     private final SQLExecute<?> execute;
 
+    /**
+     * 当前实例分页查询的方式,为null时使用全局的方式
+     */
+    private volatile SqlLimitMode instanceLimitMode;
+
+    /**
+     * 当前实例使用估算总行数的阈值,为null时使用全局的阈值
+     */
+    private volatile Long instanceEstimatedThreshold;
+    /**
+     * 总行数的缓存,key为统计语句与参数,为null时不缓存
+     */
+    private volatile SqlCache<List<Object>, Long> countCache;
+    /**
+     * 通过多个主键查询时每条语句的主键数量上限
+     */
+    private volatile int idsChunkSize = 1000;
+    /**
+     * 通过多个主键查询时同时执行的语句数量上限
+     */
+    private volatile int idsConcurrency = 4;
+    /**
+     * 执行器不支持游标时数据流每批查询的行数
+     */
+    private volatile int streamChunkSize = 500;
+    /**
+     * 查询是否可以与相同的查询合并,见{@link CoalescingSQLExecute}
+     */
+    private volatile boolean coalesce = true;
+
+    /**
+     * 分页查询的方式
+     */
+    private static volatile SqlLimitMode limitMode = SqlLimitMode.SEQUENTIAL;
+    /**
+     * 分页查询使用估算总行数的阈值,小于等于0不使用估算
+     */
+    private static volatile long estimatedThreshold = 0;
+
     public SQLCommandImpl(SQLStatement statement, SQLExecute<?> execute) {
         super();
         this.statement = statement;
         this.execute = execute;
     }
 
+    /**
+     * 设置分页查询获取数据与总行数的方式,默认为{@link SqlLimitMode#SEQUENTIAL}
+     *
+     * @param mode
+     */
+    public static void registerLimitMode(SqlLimitMode mode) {
+        limitMode = Objects.requireNonNull(mode, "The limit mode cannot be null");
+    }
+
+    /**
+     * 获取分页查询获取数据与总行数的方式
+     *
+     * @return
+     */
+    public static SqlLimitMode getLimitMode() {
+        return limitMode;
+    }
+
+    /**
+     * 设置分页查询使用估算总行数的阈值,估算行数大于等于阈值时使用估算值(结果的estimated为true),否则精确统计总行数<br>
+     * 默认为0(不使用估算);{@link SqlLimitMode#WINDOW_COUNT}方式总是返回精确的总行数
+     *
+     * @param threshold
+     *          小于等于0时不使用估算
+     */
+    public static void registerEstimatedCountThreshold(long threshold) {
+        estimatedThreshold = threshold;
+    }
+
+    /**
+     * 设置当前实例分页查询使用估算总行数的阈值
+     *
+     * @param threshold
+     *          为null时使用{@link #registerEstimatedCountThreshold(long)}设置的阈值
+     * @return
+     */
+    public SQLCommandImpl setEstimatedCountThreshold(Long threshold) {
+        this.instanceEstimatedThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * 设置总行数的缓存,相同条件(不包括分页)的总行数在过期前直接返回缓存的值,通过当前实例执行的写操作会清空缓存<br>
+     * 其他实例或外部对表的修改不会清空缓存,只能等待过期
+     *
+     * @param maxSize
+     *          缓存条件的数量上限,小于等于0时不缓存
+     * @param ttlMillis
+     *          过期时间(毫秒),小于等于0时不缓存
+     * @return
+     */
+    public SQLCommandImpl setCountCache(int maxSize, long ttlMillis) {
+        this.countCache = maxSize > 0 && ttlMillis > 0 ? new SqlCache<>(maxSize, ttlMillis) : null;
+        return this;
+    }
+
+    /**
+     * 设置通过多个主键查询的分批方式,默认每条语句1000个主键,同时执行4条语句
+     *
+     * @param chunkSize
+     *          每条语句的主键数量上限
+     * @param concurrency
+     *          同时执行的语句数量上限
+     * @return
+     */
+    public SQLCommandImpl setSelectByIdsOptions(int chunkSize, int concurrency) {
+        if (chunkSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("chunkSize and concurrency must be greater than 0");
+        }
+        this.idsChunkSize = chunkSize;
+        this.idsConcurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * 设置当前实例的查询是否可以与相同的查询合并,只在执行器为{@link CoalescingSQLExecute}时有效,默认为true<br>
+     * 需要读取最新数据(比如在写操作之后立即读取)的实例可以设置为false
+     *
+     * @param coalesce
+     * @return
+     */
+    public SQLCommandImpl setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+        return this;
+    }
+
+    /**
+     * 设置执行器不支持游标时数据流每批查询的行数,默认500
+     *
+     * @param chunkSize
+     *          每批查询的行数
+     * @return
+     */
+    public SQLCommandImpl setStreamChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        this.streamChunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 设置当前实例分页查询的方式
+     *
+     * @param mode
+     *          为null时使用{@link #registerLimitMode(SqlLimitMode)}设置的方式
+     * @return
+     */
+    public SQLCommandImpl setLimitMode(SqlLimitMode mode) {
+        this.instanceLimitMode = mode;
+        return this;
+    }
+
     @Override
     public Future<Long> getCount(SqlAssist assist) {
         SqlAndParams qp = statement.getCountSQL(assist);
+        SqlCache<List<Object>, Long> cache = this.countCache;
+        if (cache == null) {
+            return this.countExecute(qp);
+        }
+        List<Object> key = Arrays.asList(qp.getSql(), qp.getParams());
+        Long count = cache.get(key);
+        if (count != null) {
+            return Future.succeededFuture(count);
+        }
+        long generation = cache.getGeneration();
+        return this.countExecute(qp).onSuccess(result -> cache.put(key, result, generation));
+    }
 
-        return execute.queryAsListArray(qp).compose(rows -> {
+    /**
+     * 执行统计语句
+     *
+     * @param qp
+     * @return
+     */
+    private Future<Long> countExecute(SqlAndParams qp) {
+        return execute.queryAsListArray(this.readQuery(qp)).compose(rows -> {
             if (rows != null && !rows.isEmpty()) {
                 Object value = rows.get(0).getValue(0);
                 if (value instanceof Number) {
@@ -45,125 +228,514 @@ public class SQLCommandImpl implements SQLCommand {
         });
     }
 
+    @Override
+    public Future<Long> getEstimatedCount(SqlAssist assist) {
+        SqlAndParams qp = statement.getEstimatedCountSQL(assist);
+        if (!qp.succeeded()) {
+            return Future.failedFuture(qp.getSql());
+        }
+        return execute.queryAsListObj(this.readQuery(qp)).map(statement::parseEstimatedCount);
+    }
+
     @Override
     public Future<Boolean> getExist(SqlAssist assist) {
         SqlAndParams qp = statement.getExistSQL(assist);
 
-        return execute.queryAsListArray(qp).compose(rows -> Future.succeededFuture(!rows.isEmpty()));
+        return execute.queryAsListArray(this.readQuery(qp)).compose(rows -> Future.succeededFuture(!rows.isEmpty()));
     }
 
     @Override
     public Future<List<JsonObject>> selectAll(SqlAssist assist) {
         SqlAndParams qp = statement.selectAllSQL(assist);
-        return execute.queryAsListObj(qp);
+        return execute.queryAsListObj(this.readQuery(qp));
+    }
+
+    @Override
+    public Future<SqlLimitResult<JsonObject>> limitAll(SqlAssist assist) {
+        SqlLimitMode mode = instanceLimitMode == null ? limitMode : instanceLimitMode;
+        if (assist == null) {
+            return SQLCommand.super.limitAll(assist);
+        }
+        if (mode == SqlLimitMode.CONCURRENT) {
+            return this.limitAllConcurrent(assist);
+        }
+        if (mode == SqlLimitMode.SEQUENTIAL || assist.getDistinct() != null) {
+            return this.limitAllSequential(assist);
+        }
+        assist.initLimit();
+        SqlAndParams qp = statement.selectAllWithCountSQL(assist);
+        if (!qp.succeeded()) {
+            return Future.failedFuture(qp.getSql());
+        }
+        return execute.queryAsListObj(this.readQuery(qp)).compose(rows -> {
+            if (rows.isEmpty()) {
+                SqlLimitResult<JsonObject> empty = new SqlLimitResult<>(0, assist.getPage(), assist.getRowSize());
+                if (assist.getPage() == 1) {
+                    return Future.succeededFuture(empty);
+                }
+                // 超出最后一页时没有返回行,需要单独查询总行数
+                return this.getCount(assist).map(empty::setTotals);
+            }
+            Object total = rows.get(0).getValue(SQLStatement.WINDOW_COUNT_COLUMN);
+            for (JsonObject row : rows) {
+                row.remove(SQLStatement.WINDOW_COUNT_COLUMN);
+            }
+            long totals = total instanceof Number ? ((Number) total).longValue() : Long.parseLong(String.valueOf(total));
+            return Future.succeededFuture(new SqlLimitResult<JsonObject>(totals, assist.getPage(), assist.getRowSize()).setData(rows));
+        });
+    }
+
+    /**
+     * 同时查询总行数与数据,超出最后一页时丢弃数据
+     *
+     * @param assist
+     * @return
+     */
+    private Future<SqlLimitResult<JsonObject>> limitAllConcurrent(SqlAssist assist) {
+        assist.initLimit();
+        Future<SqlLimitResult<JsonObject>> count = this.getLimitCount(assist);
+        Future<List<JsonObject>> data = this.selectAll(assist);
+        return CompositeFuture.all(count, data).map(all -> {
+            SqlLimitResult<JsonObject> result = count.result();
+            if (result.getTotals() == 0 || assist.getPage() > result.getPages()) {
+                return result;
+            }
+            return result.setData(data.result());
+        });
+    }
+
+    /**
+     * 先查询总行数再查询数据
+     *
+     * @param assist
+     * @return
+     */
+    private Future<SqlLimitResult<JsonObject>> limitAllSequential(SqlAssist assist) {
+        assist.initLimit();
+        return this.getLimitCount(assist).compose(result -> {
+            if (result.getTotals() == 0 || assist.getPage() > result.getPages()) {
+                return Future.succeededFuture(result);
+            }
+            return this.selectAll(assist).map(result::setData);
+        });
+    }
+
+    /**
+     * 获取分页的总行数,设置了估算阈值时先估算,估算行数达到阈值时使用估算值,估算失败时精确统计
+     *
+     * @param assist
+     * @return 还没有数据的分页结果
+     */
+    private Future<SqlLimitResult<JsonObject>> getLimitCount(SqlAssist assist) {
+        long threshold = instanceEstimatedThreshold == null ? estimatedThreshold : instanceEstimatedThreshold;
+        if (threshold <= 0) {
+            return this.getCount(assist).map(count -> new SqlLimitResult<>(count, assist.getPage(), assist.getRowSize()));
+        }
+        return this.getEstimatedCount(assist)
+                .otherwise(-1L)
+                .compose(estimated -> {
+                    if (estimated >= threshold) {
+                        return Future.succeededFuture(new SqlLimitResult<JsonObject>(estimated, assist.getPage(), assist.getRowSize()).setEstimated(true));
+                    }
+                    return this.getCount(assist).map(count -> new SqlLimitResult<>(count, assist.getPage(), assist.getRowSize()));
+                });
+    }
+
+    @Override
+    public Future<SqlReadStream<JsonObject>> selectAllAsStream(SqlAssist assist) {
+        // 只有设置了startRow时selectAllSQL才会生成LIMIT,只设置rowSize不限制行数
+        if (execute.isCursorStream() || (assist != null && assist.getStartRow() != null)) {
+            SqlAndParams qp = statement.selectAllSQL(assist);
+            if (!qp.succeeded()) {
+                return Future.failedFuture(qp.getSql());
+            }
+            return execute.queryAsStream(qp);
+        }
+        // 不支持游标的执行器会先读取全部结果,没有行数限制时通过主键分批查询
+        if (assist != null && (assist.getOrder() != null || assist.getGroupBy() != null || assist.getDistinct() != null)) {
+            return Future.failedFuture(new UnsupportedOperationException(
+                    "selectAllAsStream with order, group by or distinct needs a cursor executor (SQLExecute.createMySqlPool/createPostgresPool), or use keysetAll"));
+        }
+        int chunkSize = streamChunkSize;
+        String[] keys = statement.keysetColumns();
+        SqlReadStream<JsonObject> stream = new KeysetReadStream(lastValues -> {
+            SqlAndParams qp = statement.keysetAllSQL(assist, lastValues, chunkSize, false);
+            if (!qp.succeeded()) {
+                return Future.failedFuture(qp.getSql());
+            }
+            return execute.queryAsListObj(this.readQuery(qp));
+        }, keys, chunkSize);
+        return Future.succeededFuture(stream);
+    }
+
+    @Override
+    public Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor, boolean desc, String... sortColumns) {
+        int rowSize = assist == null || assist.getRowSize() == null || assist.getRowSize() < 1 ? 15 : assist.getRowSize();
+        JsonArray lastValues;
+        try {
+            lastValues = SqlKeysetResult.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Future.failedFuture(e);
+        }
+        // 多查询一行用于判断是否有下一页
+        SqlAndParams qp = statement.keysetAllSQL(assist, lastValues, rowSize + 1, desc, sortColumns);
+        if (!qp.succeeded()) {
+            return Future.failedFuture(qp.getSql());
+        }
+        String[] keys = statement.keysetColumns(sortColumns);
+        return execute.queryAsListObj(this.readQuery(qp)).compose(rows -> {
+            SqlKeysetResult<JsonObject> result = new SqlKeysetResult<>(rowSize);
+            if (rows.size() <= rowSize) {
+                return Future.succeededFuture(result.setData(rows));
+            }
+            List<JsonObject> data = new ArrayList<>(rows.subList(0, rowSize));
+            JsonObject last = data.get(rowSize - 1);
+            JsonArray next = new JsonArray();
+            for (String key : keys) {
+                if (!last.containsKey(key)) {
+                    return Future.failedFuture("The keyset column " + key + " is not in the result columns");
+                }
+                next.add(last.getValue(key));
+            }
+            return Future.succeededFuture(result.setData(data).setNextCursor(SqlKeysetResult.encodeCursor(next)));
+        });
     }
 
     @Override
     public <S> Future<JsonObject> selectById(S primaryValue, String resultColumns, String joinOrReference) {
         SqlAndParams qp = statement.selectByIdSQL(primaryValue, resultColumns, joinOrReference);
-        return execute.queryAsObj(qp);
+        return execute.queryAsObj(this.readQuery(qp));
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues, String resultColumns, String joinOrReference) {
+        if (primaryValues == null || primaryValues.isEmpty()) {
+            return Future.succeededFuture(new ArrayList<>());
+        }
+        // 去除重复与为null的主键后分批
+        Map<Object, S> distinct = new LinkedHashMap<>();
+        for (S value : primaryValues) {
+            if (value != null) {
+                distinct.putIfAbsent(idKey(value), value);
+            }
+        }
+        List<S> ids = new ArrayList<>(distinct.values());
+        int chunkSize = idsChunkSize;
+        List<List<S>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + chunkSize)));
+        }
+        Map<Object, JsonObject> rows = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        List<Future> lanes = new ArrayList<>();
+        for (int i = 0; i < Math.min(idsConcurrency, chunks.size()); i++) {
+            lanes.add(this.selectByIdsChunks(chunks, next, rows, resultColumns, joinOrReference));
+        }
+        return CompositeFuture.all(lanes).map(done -> {
+            List<JsonObject> result = new ArrayList<>(primaryValues.size());
+            Set<Object> used = new HashSet<>();
+            for (S value : primaryValues) {
+                Object key = value == null ? null : idKey(value);
+                JsonObject row = key == null ? null : rows.get(key);
+                // 重复的主键使用副本
+                if (row != null && !used.add(key)) {
+                    row = row.copy();
+                }
+                result.add(row);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 依次执行未执行的分批查询,多个调用同时进行时每个调用为一个并发的通道
+     *
+     * @param chunks
+     *          分批的主键
+     * @param next
+     *          下一个未执行的批次
+     * @param rows
+     *          查询结果,key为{@link #idKey(Object)}
+     * @param resultColumns
+     * @param joinOrReference
+     * @return
+     */
+    private <S> Future<Void> selectByIdsChunks(List<List<S>> chunks, AtomicInteger next, Map<Object, JsonObject> rows, String resultColumns,
+            String joinOrReference) {
+        int index = next.getAndIncrement();
+        if (index >= chunks.size()) {
+            return Future.succeededFuture();
+        }
+        SqlAndParams qp = statement.selectByIdsSQL(chunks.get(index), resultColumns, joinOrReference);
+        if (!qp.succeeded()) {
+            return Future.failedFuture(qp.getSql());
+        }
+        return execute.queryAsListObj(this.readQuery(qp)).compose(list -> {
+            for (JsonObject row : list) {
+                Object id = row.remove(SQLStatement.ID_COLUMN);
+                if (id != null) {
+                    rows.putIfAbsent(idKey(id), row);
+                }
+            }
+            return this.selectByIdsChunks(chunks, next, rows, resultColumns, joinOrReference);
+        });
+    }
+
+    /**
+     * 主键的key,数据库返回的主键类型可能与调用者使用的不同,整数类型统一为Long,二进制统一为{@link BinaryKey},
+     * 其他类型(UUID,BigDecimal,日期时间等在行数据中为字符串)统一为toString()
+     *
+     * @param primaryValue
+     * @return
+     */
+    static Object idKey(Object primaryValue) {
+        if (primaryValue instanceof Long || primaryValue instanceof Integer || primaryValue instanceof Short || primaryValue instanceof Byte) {
+            return ((Number) primaryValue).longValue();
+        }
+        if (primaryValue instanceof byte[]) {
+            return new BinaryKey((byte[]) primaryValue);
+        }
+        if (primaryValue instanceof Buffer) {
+            return new BinaryKey(((Buffer) primaryValue).getBytes());
+        }
+        return primaryValue.toString();
+    }
+
+    /**
+     * 二进制主键的key,按内容比较
+     */
+    static final class BinaryKey {
+        /** 主键的内容 */
+        private final byte[] bytes;
+
+        BinaryKey(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof BinaryKey && Arrays.equals(bytes, ((BinaryKey) obj).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
     }
 
     @Override
     public <T> Future<JsonObject> selectSingleByObj(T obj, String resultColumns, String joinOrReference) {
         SqlAndParams qp = statement.selectByObjSQL(obj, resultColumns, joinOrReference, true);
-        return execute.queryAsObj(qp);
+        return execute.queryAsObj(this.readQuery(qp));
     }
 
     @Override
     public <T> Future<List<JsonObject>> selectByObj(T obj, String resultColumns, String joinOrReference) {
         SqlAndParams qp = statement.selectByObjSQL(obj, resultColumns, joinOrReference, false);
-        return execute.queryAsListObj(qp);
+        return execute.queryAsListObj(this.readQuery(qp));
     }
 
     @Override
     public <T> Future<Integer> insertAll(T obj) {
         SqlAndParams qp = statement.insertAllSQL(obj);
-        return execute.update(qp);
+        return this.update(qp);
+    }
+
+    @Override
+    public <T> Future<Integer> insertAllBatch(List<T> list) {
+        return this.updateBatch(statement.insertAllBatchSQL(list));
     }
 
 	@Override
 	public <T> Future<Integer> upsertAll(T obj) {
 		SqlAndParams qp = statement.upsertAllSQL(obj,null);
-		return execute.update(qp);
+		return this.update(qp);
 	}
 
     @Override
     public <T> Future<Integer> upsertAll(T obj, String dupCol) {
         SqlAndParams qp = statement.upsertAllSQL(obj,dupCol);
-        return execute.update(qp);
+        return this.update(qp);
+    }
+
+    @Override
+    public <T> Future<Integer> upsertAllBatch(List<T> list) {
+        return this.updateBatch(statement.upsertAllBatchSQL(list, null));
+    }
+
+    @Override
+    public <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+        return this.updateBatch(statement.upsertAllBatchSQL(list, dupCol));
     }
 
     @Override
     public <T> Future<Integer> insertNonEmpty(T obj) {
         SqlAndParams qp = statement.insertNonEmptySQL(obj);
-        return execute.update(qp);
+        return this.update(qp);
+    }
+
+    @Override
+    public <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+        return this.updateBatch(statement.insertNonEmptyBatchSQL(list));
     }
 
 	@Override
 	public <T> Future<Integer> upsertNonEmpty(T obj) {
 		SqlAndParams qp = statement.upsertNonEmptySQL(obj, null);
-		return execute.update(qp);
+		return this.update(qp);
 	}
 
     @Override
     public <T> Future<Integer> upsertNonEmpty(T obj, String dupCol) {
         SqlAndParams qp = statement.upsertNonEmptySQL(obj,dupCol);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public <T> Future<JsonArray> insertNonEmptyReturnId(T obj) {
         SqlAndParams qp = statement.insertNonEmptySQLReturnId(obj);
-        return execute.insert(qp);
+        return this.insert(qp);
     }
 
     @Override
     public <T> Future<Integer> updateAllById(T obj) {
         SqlAndParams qp = statement.updateAllByIdSQL(obj);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public <T> Future<Integer> updateAllByAssist(T obj, SqlAssist assist) {
         SqlAndParams qp = statement.updateAllByAssistSQL(obj, assist);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public <T> Future<Integer> updateNonEmptyById(T obj) {
         SqlAndParams qp = statement.updateNonEmptyByIdSQL(obj);
-        return execute.update(qp);
+        return this.update(qp);
+    }
+
+    @Override
+    public <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+        return this.updateBatch(statement.updateNonEmptyByIdBatchSQL(list));
+    }
+
+    @Override
+    public <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+        List<SqlAndParams> qps = statement.updateNonEmptyByIdBatchSQLReturnId(list);
+        for (SqlAndParams qp : qps) {
+            if (!qp.succeeded()) {
+                return Future.failedFuture(qp.getSql());
+            }
+        }
+        this.invalidateCount();
+        Future<JsonArray> result = Future.succeededFuture(new JsonArray());
+        for (SqlAndParams qp : qps) {
+            result = result.compose(ids -> execute.queryAsListArray(qp).map(rows -> {
+                for (JsonArray row : rows) {
+                    ids.add(row.getValue(0));
+                }
+                return ids;
+            }));
+        }
+        return result.onComplete(res -> this.invalidateCount());
     }
 
     @Override
     public <T> Future<Integer> updateNonEmptyByAssist(T obj, SqlAssist assist) {
         SqlAndParams qp = statement.updateNonEmptyByAssistSQL(obj, assist);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public <S> Future<Integer> updateSetNullById(S primaryValue, List<String> columns) {
         SqlAndParams qp = statement.updateSetNullByIdSQL(primaryValue, columns);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public Future<Integer> updateSetNullByAssist(SqlAssist assist, List<String> columns) {
         SqlAndParams qp = statement.updateSetNullByAssistSQL(assist, columns);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public <S> Future<Integer> deleteById(S primaryValue) {
         SqlAndParams qp = statement.deleteByIdSQL(primaryValue);
-        return execute.update(qp);
+        return this.update(qp);
     }
 
     @Override
     public Future<Integer> deleteByAssist(SqlAssist assist) {
         SqlAndParams qp = statement.deleteByAssistSQL(assist);
-        return execute.update(qp);
+        return this.update(qp);
+    }
+
+    /**
+     * 依次执行多条更新语句,返回受影响的总行数,有语句生成失败时不执行任何语句
+     *
+     * @param qps
+     *          SQL语句与参数
+     * @return future
+     */
+    private Future<Integer> updateBatch(List<SqlAndParams> qps) {
+        for (SqlAndParams qp : qps) {
+            if (!qp.succeeded()) {
+                return Future.failedFuture(qp.getSql());
+            }
+        }
+        this.invalidateCount();
+        Future<Integer> result = Future.succeededFuture(0);
+        for (SqlAndParams qp : qps) {
+            result = result.compose(total -> execute.update(qp).map(rows -> total + rows));
+        }
+        return result.onComplete(res -> this.invalidateCount());
+    }
+
+    /**
+     * 执行写操作,执行前后都会清空总行数的缓存,避免执行期间开始的统计缓存旧的值
+     *
+     * @param qp
+     * @return
+     */
+    private Future<Integer> update(SqlAndParams qp) {
+        this.invalidateCount();
+        return execute.update(qp).onComplete(res -> this.invalidateCount());
+    }
+
+    /**
+     * 执行插入操作,执行前后都会清空总行数的缓存
+     *
+     * @param qp
+     * @return
+     */
+    private Future<JsonArray> insert(SqlAndParams qp) {
+        this.invalidateCount();
+        return execute.insert(qp).onComplete(res -> this.invalidateCount());
+    }
+
+    /**
+     * 按当前实例的设置标记查询是否可以合并
+     *
+     * @param qp
+     * @return
+     */
+    private SqlAndParams readQuery(SqlAndParams qp) {
+        if (!coalesce && qp != null) {
+            qp.setCoalesce(false);
+        }
+        return qp;
+    }
+
+    /**
+     * 清空总行数的缓存
+     */
+    private void invalidateCount() {
+        SqlCache<List<Object>, Long> cache = this.countCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
     }
 
 }
@@ -0,0 +1,193 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.Collection;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * SQLCommand的装饰器基类,所有方法默认交给被装饰的SQLCommand执行,子类只需要重写需要改变的方法
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public class SQLCommandWrapper implements SQLCommand {
+	/** 被装饰的SQLCommand */
+	protected final SQLCommand delegate;
+
+	public SQLCommandWrapper(SQLCommand delegate) {
+		super();
+		this.delegate = delegate;
+	}
+
+	/**
+	 * 获取被装饰的SQLCommand
+	 *
+	 * @return
+	 */
+	public SQLCommand getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public Future<Long> getCount(SqlAssist assist) {
+		return delegate.getCount(assist);
+	}
+
+	@Override
+	public Future<Long> getEstimatedCount(SqlAssist assist) {
+		return delegate.getEstimatedCount(assist);
+	}
+
+	@Override
+	public Future<Boolean> getExist(SqlAssist assist) {
+		return delegate.getExist(assist);
+	}
+
+	@Override
+	public Future<List<JsonObject>> selectAll(SqlAssist assist) {
+		return delegate.selectAll(assist);
+	}
+
+	@Override
+	public Future<SqlReadStream<JsonObject>> selectAllAsStream(SqlAssist assist) {
+		return delegate.selectAllAsStream(assist);
+	}
+
+	@Override
+	public Future<SqlKeysetResult<JsonObject>> keysetAll(SqlAssist assist, String cursor, boolean desc, String... sortColumns) {
+		return delegate.keysetAll(assist, cursor, desc, sortColumns);
+	}
+
+	@Override
+	public Future<SqlLimitResult<JsonObject>> limitAll(SqlAssist assist) {
+		return delegate.limitAll(assist);
+	}
+
+	@Override
+	public <S> Future<JsonObject> selectById(S primaryValue, String resultColumns, String joinOrReference) {
+		return delegate.selectById(primaryValue, resultColumns, joinOrReference);
+	}
+
+	@Override
+	public <S> Future<List<JsonObject>> selectByIds(Collection<S> primaryValues, String resultColumns, String joinOrReference) {
+		return delegate.selectByIds(primaryValues, resultColumns, joinOrReference);
+	}
+
+	@Override
+	public <T> Future<JsonObject> selectSingleByObj(T obj, String resultColumns, String joinOrReference) {
+		return delegate.selectSingleByObj(obj, resultColumns, joinOrReference);
+	}
+
+	@Override
+	public <T> Future<List<JsonObject>> selectByObj(T obj, String resultColumns, String joinOrReference) {
+		return delegate.selectByObj(obj, resultColumns, joinOrReference);
+	}
+
+	@Override
+	public <T> Future<Integer> insertAll(T obj) {
+		return delegate.insertAll(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> insertAllBatch(List<T> list) {
+		return delegate.insertAllBatch(list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj) {
+		return delegate.upsertAll(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAll(T obj, String dupCol) {
+		return delegate.upsertAll(obj, dupCol);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list) {
+		return delegate.upsertAllBatch(list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertAllBatch(List<T> list, String dupCol) {
+		return delegate.upsertAllBatch(list, dupCol);
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmpty(T obj) {
+		return delegate.insertNonEmpty(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> insertNonEmptyBatch(List<T> list) {
+		return delegate.insertNonEmptyBatch(list);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj) {
+		return delegate.upsertNonEmpty(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> upsertNonEmpty(T obj, String dupCol) {
+		return delegate.upsertNonEmpty(obj, dupCol);
+	}
+
+	@Override
+	public <T> Future<JsonArray> insertNonEmptyReturnId(T obj) {
+		return delegate.insertNonEmptyReturnId(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllById(T obj) {
+		return delegate.updateAllById(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateAllByAssist(T obj, SqlAssist assist) {
+		return delegate.updateAllByAssist(obj, assist);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyById(T obj) {
+		return delegate.updateNonEmptyById(obj);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByIdBatch(List<T> list) {
+		return delegate.updateNonEmptyByIdBatch(list);
+	}
+
+	@Override
+	public <T> Future<JsonArray> updateNonEmptyByIdBatchReturnId(List<T> list) {
+		return delegate.updateNonEmptyByIdBatchReturnId(list);
+	}
+
+	@Override
+	public <T> Future<Integer> updateNonEmptyByAssist(T obj, SqlAssist assist) {
+		return delegate.updateNonEmptyByAssist(obj, assist);
+	}
+
+	@Override
+	public <S> Future<Integer> updateSetNullById(S primaryValue, List<String> columns) {
+		return delegate.updateSetNullById(primaryValue, columns);
+	}
+
+	@Override
+	public Future<Integer> updateSetNullByAssist(SqlAssist assist, List<String> columns) {
+		return delegate.updateSetNullByAssist(assist, columns);
+	}
+
+	@Override
+	public <S> Future<Integer> deleteById(S primaryValue) {
+		return delegate.deleteById(primaryValue);
+	}
+
+	@Override
+	public Future<Integer> deleteByAssist(SqlAssist assist) {
+		return delegate.deleteByAssist(assist);
+	}
+
+}
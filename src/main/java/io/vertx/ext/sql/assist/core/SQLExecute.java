@@ -8,6 +8,7 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.SQLOperations;
 import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
 import io.vertx.ext.sql.assist.sql.PostgreSQLStatementSQL;
+import io.vertx.sqlclient.Pool;
 
 /**
  * SQL执行器
@@ -36,6 +37,28 @@ public interface SQLExecute<T> {
 		return new SQLExecuteImpl(client);
 	}
 
+	/**
+	 * 通过MySQL响应式客户端(MySQLPool)创建一个实例
+	 *
+	 * @param pool
+	 * @return
+	 */
+	static SQLExecute<Pool> createMySqlPool(Pool pool) {
+		SQLStatement.register(MySQLStatementSQL.class);
+		return new MySQLPoolSQLExecute(pool);
+	}
+
+	/**
+	 * 通过PostgreSQL响应式客户端(PgPool)创建一个实例
+	 *
+	 * @param pool
+	 * @return
+	 */
+	static SQLExecute<Pool> createPostgresPool(Pool pool) {
+		SQLStatement.register(PostgreSQLStatementSQL.class);
+		return new PostgreSQLPoolSQLExecute(pool);
+	}
+
 	/**
 	 * 获取客户端
 	 *
@@ -72,6 +95,29 @@ public interface SQLExecute<T> {
 	 */
 	Future<List<JsonArray>> queryAsListArray(SqlAndParams qp);
 
+	/**
+	 * 以数据流的方式查询,支持游标的执行器({@link #isCursorStream()})按需求从数据库读取行数据,适合导出或遍历大量数据<br>
+	 * 数据流需要读取到结束(或出现异常),或者调用{@link SqlReadStream#close()},否则游标与连接不会被释放<br>
+	 * 默认返回失败的结果
+	 *
+	 * @param qp
+	 *          SQL语句与参数
+	 * @return future
+	 *          数据流,每行为一个JsonObject,key为列名
+	 */
+	default Future<SqlReadStream<JsonObject>> queryAsStream(SqlAndParams qp) {
+		return Future.failedFuture(new UnsupportedOperationException("queryAsStream is not supported by " + getClass().getName()));
+	}
+
+	/**
+	 * {@link #queryAsStream(SqlAndParams)}是否通过游标按需求读取,为false时会先读取全部结果
+	 *
+	 * @return
+	 */
+	default boolean isCursorStream() {
+		return false;
+	}
+
 	/**
 	 * 执行更新等操作得到受影响的行数
 	 *
@@ -8,6 +8,7 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.ResultSet;
 import io.vertx.ext.sql.SQLOperations;
+import io.vertx.ext.sql.SQLRowStream;
 import io.vertx.ext.sql.UpdateResult;
 
 /**
@@ -55,6 +56,29 @@ public class SQLExecuteImpl implements SQLExecute<SQLOperations> {
                 .map(ResultSet::getResults);
     }
 
+    /**
+     * SQLOperations的数据流由已经读取完成的结果创建,会先读取全部结果,只适合行数有限的查询
+     */
+    @Override
+    public Future<SqlReadStream<JsonObject>> queryAsStream(SqlAndParams qp) {
+        Promise<SQLRowStream> result = Promise.promise();
+        if (qp.getParams() == null) {
+            client.queryStream(qp.getSql(), result);
+        } else {
+            client.queryStreamWithParams(qp.getSql(), qp.getParams(), result);
+        }
+        return result.future()
+                .map(stream -> {
+                    List<String> columns = stream.columns();
+                    SqlReadStream<JsonObject> rows = new MappedReadStream<>(stream, row -> toJsonObject(columns, row), () -> {
+                        Promise<Void> closed = Promise.promise();
+                        stream.close(closed);
+                        return closed.future();
+                    });
+                    return rows;
+                });
+    }
+
     @Override
     public Future<JsonArray> insert(SqlAndParams qp) {
         return this.updateExecute(qp)
@@ -96,4 +120,19 @@ public class SQLExecuteImpl implements SQLExecute<SQLOperations> {
         }
         return result.future();
     }
+
+    /**
+     * 将行转换为JsonObject,key为列名
+     *
+     * @param columns
+     * @param row
+     * @return
+     */
+    private static JsonObject toJsonObject(List<String> columns, JsonArray row) {
+        JsonObject result = new JsonObject();
+        for (int i = 0; i < columns.size(); i++) {
+            result.put(columns.get(i), row.getValue(i));
+        }
+        return result;
+    }
 }
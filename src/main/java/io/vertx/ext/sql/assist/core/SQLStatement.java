@@ -1,12 +1,15 @@
 package io.vertx.ext.sql.assist.core;
 
-import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
 import io.vertx.ext.sql.assist.anno.Table;
 import io.vertx.ext.sql.assist.anno.TableColumn;
 import io.vertx.ext.sql.assist.anno.TableId;
-import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
 
 /**
  * SQL执行语句
@@ -17,6 +20,10 @@ import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
 public interface SQLStatement {
 	/** SQLStatement的使用哪个类的key */
 	final static String PROVIDER_CLASS_KEY = "VQA_SQL_STATEMENT_PROVIDER_CLASS_NAME";
+	/** 通过窗口函数返回总行数的列名 */
+	final static String WINDOW_COUNT_COLUMN = "sql_assist_total";
+	/** 通过多个主键查询时附加的主键列名,用于将行对应到主键 */
+	final static String ID_COLUMN = "sql_assist_id";
 
 	/**
 	 * 设置SQL语句使用哪个类实现
@@ -24,6 +31,7 @@ public interface SQLStatement {
 	 * @param statementImplClass
 	 */
 	static void register(Class<?> statementImplClass) {
+		SQLStatementRegistry.register(statementImplClass);
 		System.setProperty(PROVIDER_CLASS_KEY, statementImplClass.getName());
 	}
 
@@ -43,27 +51,18 @@ public interface SQLStatement {
 		System.setProperty(PROVIDER_CLASS_KEY, className);
 	}
 	/**
-	 * 创建实例,默认使用MySQL规范实现,如果使用其他数据库可以使用{@link #register(Class) }注册或者使用{@link #create(Class, Class)}方法
+	 * 创建实例,默认使用MySQL规范实现,如果使用其他数据库可以使用{@link #register(Class) }注册或者使用{@link #create(Class, Class)}方法<br>
+	 * 同一个实体类的实例由{@link SQLStatementRegistry}缓存并共用
 	 *
 	 * @param entityClass
 	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
 	 * @return
 	 */
 	static SQLStatement create(Class<?> entityClass) {
-		String className = System.getProperty(PROVIDER_CLASS_KEY);
-		if (className == null) {
-			return new MySQLStatementSQL(entityClass);
-		}
-		try {
-			Class<?> forClass = Class.forName(className);
-			Constructor<?> constructor = forClass.getConstructor(Class.class);
-			return (SQLStatement) constructor.newInstance(entityClass);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+		return SQLStatementRegistry.get(entityClass);
 	}
 	/**
-	 * 创建实例
+	 * 创建实例,同一个实体类的实例由{@link SQLStatementRegistry}缓存并共用
 	 *
 	 * @param entityClass
 	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
@@ -72,12 +71,7 @@ public interface SQLStatement {
 	 * @return
 	 */
 	static SQLStatement create(Class<?> entityClass, Class<?> statementClass) {
-		try {
-			Constructor<?> constructor = statementClass.getConstructor(Class.class);
-			return (SQLStatement) constructor.newInstance(entityClass);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+		return SQLStatementRegistry.get(entityClass, statementClass);
 	}
 
 	/**
@@ -98,6 +92,40 @@ public interface SQLStatement {
 	 */
 	SqlAndParams getExistSQL(SqlAssist assist);
 
+	/**
+	 * 获得估算数据总行数的SQL语句与参数,没有条件时读取表的统计信息,有条件时使用EXPLAIN的估算行数<br>
+	 * 结果使用{@link #parseEstimatedCount(List)}解析;默认使用{@link #getCountSQL(SqlAssist)}精确统计
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null
+	 * @return 返回:sql or sql与params
+	 */
+	default SqlAndParams getEstimatedCountSQL(SqlAssist assist) {
+		return getCountSQL(assist);
+	}
+
+	/**
+	 * 解析{@link #getEstimatedCountSQL(SqlAssist)}的查询结果
+	 *
+	 * @param rows
+	 *          查询结果
+	 * @return 估算的行数,无法估算时返回-1;默认读取第一行的第一列
+	 */
+	default long parseEstimatedCount(List<JsonObject> rows) {
+		if (rows == null || rows.isEmpty() || rows.get(0) == null || rows.get(0).isEmpty()) {
+			return -1;
+		}
+		Object value = rows.get(0).iterator().next().getValue();
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		try {
+			return value == null ? -1 : Long.parseLong(value.toString());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
 	/**
 	 * 获得查询全部数据SQL语句与参数<br>
 	 *
@@ -107,6 +135,51 @@ public interface SQLStatement {
 	 */
 	SqlAndParams selectAllSQL(SqlAssist assist);
 
+	/**
+	 * 获得分页查询的SQL语句与参数,每行通过COUNT(*) OVER()附加总行数列{@link #WINDOW_COUNT_COLUMN}<br>
+	 * 需要数据库支持窗口函数,默认返回失败的结果
+	 *
+	 * @param assist
+	 *          查询工具
+	 * @return 返回:sql or sql与params
+	 */
+	default SqlAndParams selectAllWithCountSQL(SqlAssist assist) {
+		return new SqlAndParams(false, "selectAllWithCountSQL is not supported by " + getClass().getName() + ", use SqlLimitMode.SEQUENTIAL");
+	}
+
+	/**
+	 * 获得keyset(seek)分页查询的SQL语句与参数,按排序列与主键排序,通过(排序列,主键) > (上一页最后一行的值)定位,不使用OFFSET<br>
+	 * 排序列的值不能为null;assist的排序与分页会被忽略;默认返回失败的结果<br>
+	 * 游标的值经过JSON编码,日期时间等类型的值为字符串,实体类的列按属性的类型转换,其他表达式的排序列只能是数字,字符串或布尔值
+	 *
+	 * @param assist
+	 *          查询工具,如果没有可以为null
+	 * @param lastValues
+	 *          上一页最后一行{@link #keysetColumns(String...)}的值,第一页为null
+	 * @param limit
+	 *          查询的行数
+	 * @param desc
+	 *          是否倒序
+	 * @param sortColumns
+	 *          排序列,主键会被追加到最后作为唯一排序
+	 * @return 返回:sql or sql与params
+	 */
+	default SqlAndParams keysetAllSQL(SqlAssist assist, JsonArray lastValues, int limit, boolean desc, String... sortColumns) {
+		return new SqlAndParams(false, "keysetAllSQL is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * 获取keyset分页游标中保存的列名(不包含表名与引号),即排序列与主键,用于从结果集中读取游标的值<br>
+	 * 默认返回空数组,此时{@link #keysetAllSQL(SqlAssist, JsonArray, int, boolean, String...)}也返回失败的结果
+	 *
+	 * @param sortColumns
+	 *          排序列
+	 * @return
+	 */
+	default String[] keysetColumns(String... sortColumns) {
+		return new String[0];
+	}
+
 	/**
 	 * 通过主键查询一个对象<br>
 	 * 返回:sql or sql与params
@@ -121,6 +194,23 @@ public interface SQLStatement {
 	 * @return
 	 */
 	<S> SqlAndParams selectByIdSQL(S primaryValue, String resultColumns, String joinOrReference);
+
+	/**
+	 * 通过多个主键查询对象,每行附加主键列{@link #ID_COLUMN}<br>
+	 * 返回:sql与params;默认返回失败的结果
+	 *
+	 * @param <S>
+	 * @param primaryValues
+	 *          主键的值,不能为空
+	 * @param resultColumns
+	 *          指定返回列 格式 [table.]列名 [as 类的属性名字],...
+	 * @param joinOrReference
+	 *          多表查询或表连接的语句,示例 as t inner join table2 as t2 on t.id=t2.id
+	 * @return
+	 */
+	default <S> SqlAndParams selectByIdsSQL(List<S> primaryValues, String resultColumns, String joinOrReference) {
+		return new SqlAndParams(false, "selectByIdsSQL is not supported by " + getClass().getName());
+	}
 	/**
 	 * 将对象属性不为null的属性作为条件查询出数据
 	 *
@@ -146,6 +236,22 @@ public interface SQLStatement {
 	 */
 	<T> SqlAndParams insertAllSQL(T obj);
 
+	/**
+	 * 批量插入对象包括属性值为null的值,生成多行values的语句<br>
+	 * 语句按参数数量与语句大小拆分为多条;默认每个对象使用一条{@link #insertAllSQL(Object)}
+	 *
+	 * @param objs
+	 *          对象集合
+	 * @return 返回:多条sql与params
+	 */
+	default <T> List<SqlAndParams> insertAllBatchSQL(List<T> objs) {
+		List<SqlAndParams> result = new ArrayList<>(objs.size());
+		for (T obj : objs) {
+			result.add(insertAllSQL(obj));
+		}
+		return result;
+	}
+
 	/**
 	 * 插入一个对象包括属性值为null的值<br>
 	 *
@@ -155,6 +261,24 @@ public interface SQLStatement {
 	 */
 	<T> SqlAndParams upsertAllSQL(T obj, String dupCol);
 
+	/**
+	 * 批量插入或更新对象包括属性值为null的值,生成多行values的upsert语句,语句按参数数量与语句大小拆分为多条<br>
+	 * 默认每个对象使用一条{@link #upsertAllSQL(Object, String)}
+	 *
+	 * @param objs
+	 *          对象集合
+	 * @param dupCol
+	 *          冲突列,为null时使用主键
+	 * @return 返回:多条sql与params
+	 */
+	default <T> List<SqlAndParams> upsertAllBatchSQL(List<T> objs, String dupCol) {
+		List<SqlAndParams> result = new ArrayList<>(objs.size());
+		for (T obj : objs) {
+			result.add(upsertAllSQL(obj, dupCol));
+		}
+		return result;
+	}
+
 
 	/**
 	 * 插入一个对象,只插入对象中值不为null的属性<br>
@@ -165,6 +289,22 @@ public interface SQLStatement {
 	 */
 	<T> SqlAndParams insertNonEmptySQL(T obj);
 
+	/**
+	 * 批量插入对象,只插入对象中值不为null的属性<br>
+	 * 非空属性相同的对象合并为一条多行values的语句,语句按参数数量与语句大小拆分为多条;默认每个对象使用一条{@link #insertNonEmptySQL(Object)}
+	 *
+	 * @param objs
+	 *          对象集合
+	 * @return 返回:多条sql与params
+	 */
+	default <T> List<SqlAndParams> insertNonEmptyBatchSQL(List<T> objs) {
+		List<SqlAndParams> result = new ArrayList<>(objs.size());
+		for (T obj : objs) {
+			result.add(insertNonEmptySQL(obj));
+		}
+		return result;
+	}
+
 
 	/**
 	 * 插入一个对象,只插入对象中值不为null的属性<br>
@@ -214,6 +354,35 @@ public interface SQLStatement {
 	 */
 	<T> SqlAndParams updateNonEmptyByIdSQL(T obj);
 
+	/**
+	 * 批量更新对象中属性不为null值,条件为对象中的主键值<br>
+	 * 非空属性相同的对象合并为一条语句,语句按参数数量与语句大小拆分为多条;默认每个对象使用一条{@link #updateNonEmptyByIdSQL(Object)}
+	 *
+	 * @param objs
+	 *          对象集合
+	 * @return 返回:多条sql与params
+	 */
+	default <T> List<SqlAndParams> updateNonEmptyByIdBatchSQL(List<T> objs) {
+		List<SqlAndParams> result = new ArrayList<>(objs.size());
+		for (T obj : objs) {
+			result.add(updateNonEmptyByIdSQL(obj));
+		}
+		return result;
+	}
+
+	/**
+	 * 批量更新对象中属性不为null值并返回被更新的主键,语句与{@link #updateNonEmptyByIdBatchSQL(List)}相同并追加returning 主键<br>
+	 * 只有支持update ... returning的数据库(PostgreSQL)实现,默认返回失败的结果
+	 *
+	 * @param objs
+	 *          对象集合
+	 * @return 返回:多条sql与params
+	 */
+	default <T> List<SqlAndParams> updateNonEmptyByIdBatchSQLReturnId(List<T> objs) {
+		return Collections.singletonList(
+				new SqlAndParams(false, "updateNonEmptyByIdBatchSQLReturnId is not supported by " + getClass().getName()));
+	}
+
 	/**
 	 * 将对象中属性值不为null的进行更新,条件为SqlAssist条件集
 	 *
@@ -0,0 +1,106 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+/**
+ * SQLStatement的实例缓存,按(实现类,实体类)保存,每个实体类只解析一次<br>
+ * 同一个实体类的多个{@link CommonSQL}实例(比如每个Verticle一个DAO)共用同一个SQLStatement
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+public final class SQLStatementRegistry {
+	/** 已经创建的SQLStatement,key=实现类,value=(key=实体类,value=实例) */
+	private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, SQLStatement>> STATEMENTS = new ConcurrentHashMap<>();
+	/** 默认使用的实现类 */
+	private static volatile Class<?> statementClass;
+
+	private SQLStatementRegistry() {
+	}
+
+	/**
+	 * 获取实体类的SQLStatement,实现类使用{@link SQLStatement#register(Class)}注册的类,没有注册默认使用MySQL规范实现
+	 *
+	 * @param entityClass
+	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+	 * @return
+	 */
+	public static SQLStatement get(Class<?> entityClass) {
+		return get(entityClass, getStatementClass());
+	}
+
+	/**
+	 * 获取实体类的SQLStatement,不存在则创建并缓存
+	 *
+	 * @param entityClass
+	 *          实体类,类必须包含{@link Table} {@link TableId} {@link TableColumn}注解
+	 * @param statementClass
+	 *          实现了{@link SQLStatement}的类
+	 * @return
+	 */
+	public static SQLStatement get(Class<?> entityClass, Class<?> statementClass) {
+		return STATEMENTS.computeIfAbsent(statementClass, k -> new ConcurrentHashMap<>())
+				.computeIfAbsent(entityClass, k -> newInstance(k, statementClass));
+	}
+
+	/**
+	 * 清空已经创建的SQLStatement
+	 */
+	public static void clear() {
+		STATEMENTS.clear();
+	}
+
+	/**
+	 * 设置默认使用的实现类
+	 *
+	 * @param statementImplClass
+	 */
+	static void register(Class<?> statementImplClass) {
+		statementClass = statementImplClass;
+	}
+
+	/**
+	 * 获取默认使用的实现类,System属性{@link SQLStatement#PROVIDER_CLASS_KEY}被直接修改时以System属性为准
+	 *
+	 * @return
+	 */
+	private static Class<?> getStatementClass() {
+		String className = System.getProperty(SQLStatement.PROVIDER_CLASS_KEY);
+		if (className == null) {
+			return MySQLStatementSQL.class;
+		}
+		Class<?> result = statementClass;
+		if (result != null && result.getName().equals(className)) {
+			return result;
+		}
+		try {
+			result = Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+		statementClass = result;
+		return result;
+	}
+
+	/**
+	 * 创建SQLStatement
+	 *
+	 * @param entityClass
+	 * @param statementClass
+	 * @return
+	 */
+	private static SQLStatement newInstance(Class<?> entityClass, Class<?> statementClass) {
+		try {
+			Constructor<?> constructor = statementClass.getConstructor(Class.class);
+			return (SQLStatement) constructor.newInstance(entityClass);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -13,8 +13,12 @@ public class SqlAndParams {
 	private String sql;
 	/** 参数 */
 	private JsonArray params;
+	/** 原始类型的参数,在需要JsonArray时才转换 */
+	private SqlParams sqlParams;
 	/** 生成语句是否成功 */
 	private boolean succeeded = true;
+	/** 是否允许与相同的查询合并执行,见{@link CoalescingSQLExecute} */
+	private boolean coalesce = true;
 	/**
 	 * 创建一个新的SqlAndParams
 	 * 
@@ -49,6 +53,18 @@ public class SqlAndParams {
 		this(sql);
 		this.params = params;
 	}
+	/**
+	 * 创建一个新的SqlAndParams
+	 * 
+	 * @param sql
+	 *          SQL语句
+	 * @param params
+	 *          原始类型的参数
+	 */
+	public SqlAndParams(String sql, SqlParams params) {
+		this(sql);
+		this.sqlParams = params;
+	}
 	/**
 	 * 获得SQL语句,如果失败时则为错误语句
 	 * 
@@ -72,6 +88,9 @@ public class SqlAndParams {
 	 * @return
 	 */
 	public JsonArray getParams() {
+		if (params == null && sqlParams != null) {
+			params = sqlParams.toJsonArray();
+		}
 		return params;
 	}
 	/**
@@ -79,6 +98,26 @@ public class SqlAndParams {
 	 */
 	public SqlAndParams setParams(JsonArray params) {
 		this.params = params;
+		this.sqlParams = null;
+		return this;
+	}
+	/**
+	 * 获得原始类型的参数,如果参数是以JsonArray设置的则转换为SqlParams
+	 * 
+	 * @return
+	 */
+	public SqlParams getSqlParams() {
+		if (sqlParams == null && params != null) {
+			return SqlParams.of(params);
+		}
+		return sqlParams;
+	}
+	/**
+	 * 设置原始类型的参数
+	 */
+	public SqlAndParams setSqlParams(SqlParams params) {
+		this.sqlParams = params;
+		this.params = null;
 		return this;
 	}
 	/**
@@ -99,9 +138,27 @@ public class SqlAndParams {
 		return this;
 	}
 
+	/**
+	 * 获取是否允许与正在执行的相同查询合并
+	 * 
+	 * @return
+	 */
+	public boolean isCoalesce() {
+		return coalesce;
+	}
+	/**
+	 * 设置是否允许与正在执行的相同查询合并,默认为true,需要读取最新数据(比如在自己的写操作之后)时可以设置为false
+	 * 
+	 * @param coalesce
+	 */
+	public SqlAndParams setCoalesce(boolean coalesce) {
+		this.coalesce = coalesce;
+		return this;
+	}
+
 	@Override
 	public String toString() {
-		return "SqlAndParams [sql=" + sql + ", params=" + params + ", succeeded=" + succeeded + "]";
+		return "SqlAndParams [sql=" + sql + ", params=" + getParams() + ", succeeded=" + succeeded + "]";
 	}
 
 }
@@ -822,6 +822,22 @@ public class SqlAssist<T> {
 		return this;
 	}
 
+	/**
+	 * 分页查询时按page与rowSize计算startRow,默认page=1,rowSize=15
+	 * 
+	 * @return
+	 */
+	SqlAssist<T> initLimit() {
+		if (this.page == null || this.page < 1) {
+			this.page = 1;
+		}
+		if (this.rowSize == null || this.rowSize < 1) {
+			this.rowSize = 15;
+		}
+		this.startRow = (this.page - 1) * this.rowSize;
+		return this;
+	}
+
 	/**
 	 * 设置从第几行开始取数据
 	 * 
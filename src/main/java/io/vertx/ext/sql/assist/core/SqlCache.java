@@ -0,0 +1,181 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有容量上限与过期时间的缓存,线程安全,读取不加锁<br>
+ * 超出容量上限时先移除已经过期的项,再按缓存时间移除最早的一部分项<br>
+ * 每次清空缓存都会增加版本号,查询开始前记录版本号,结果返回时版本号不同(期间有写操作)则不缓存该结果
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class SqlCache<K, V> {
+	/** 缓存 */
+	private final ConcurrentHashMap<K, CacheEntry<V>> cache = new ConcurrentHashMap<>();
+	/** 容量上限 */
+	private final int maxSize;
+	/** 过期时间(纳秒) */
+	private final long ttlNanos;
+	/** 版本号 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * 创建一个新的缓存
+	 *
+	 * @param maxSize
+	 *          容量上限,超出时移除过期与最早缓存的项
+	 * @param ttlMillis
+	 *          过期时间(毫秒)
+	 */
+	public SqlCache(int maxSize, long ttlMillis) {
+		if (maxSize <= 0 || ttlMillis <= 0) {
+			throw new IllegalArgumentException("maxSize and ttlMillis must be greater than 0");
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	/**
+	 * 获取缓存的值
+	 *
+	 * @param key
+	 * @return 不存在或已经过期返回null
+	 */
+	public V get(K key) {
+		CacheEntry<V> entry = cache.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.nanoTime() - entry.time > ttlNanos) {
+			cache.remove(key, entry);
+			return null;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * 缓存值
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		cache.put(key, new CacheEntry<>(value, System.nanoTime()));
+		if (cache.size() > maxSize) {
+			this.evict();
+		}
+	}
+
+	/**
+	 * 版本号与当前版本号相同时缓存值
+	 *
+	 * @param key
+	 * @param value
+	 * @param generation
+	 *          查询开始前通过{@link #getGeneration()}获取的版本号
+	 * @return 是否已经缓存
+	 */
+	public boolean put(K key, V value, long generation) {
+		if (this.generation.get() != generation) {
+			return false;
+		}
+		CacheEntry<V> entry = new CacheEntry<>(value, System.nanoTime());
+		cache.put(key, entry);
+		// 放入期间清空了缓存
+		if (this.generation.get() != generation) {
+			cache.remove(key, entry);
+			return false;
+		}
+		if (cache.size() > maxSize) {
+			this.evict();
+		}
+		return true;
+	}
+
+	/**
+	 * 移除缓存的值
+	 *
+	 * @param key
+	 */
+	public void remove(K key) {
+		cache.remove(key);
+	}
+
+	/**
+	 * 清空缓存并增加版本号
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		cache.clear();
+	}
+
+	/**
+	 * 获取当前的版本号
+	 *
+	 * @return
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * 获取缓存的数量(包括已经过期但还没有移除的项)
+	 *
+	 * @return
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * 超出容量上限时移除过期的项,仍然超出时按缓存时间移除最早的项,直到剩下容量的90%
+	 */
+	private synchronized void evict() {
+		if (cache.size() <= maxSize) {
+			return;
+		}
+		long now = System.nanoTime();
+		List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<>(cache.entrySet());
+		List<Map.Entry<K, CacheEntry<V>>> live = new ArrayList<>(entries.size());
+		for (Map.Entry<K, CacheEntry<V>> entry : entries) {
+			if (now - entry.getValue().time > ttlNanos) {
+				cache.remove(entry.getKey(), entry.getValue());
+			} else {
+				live.add(entry);
+			}
+		}
+		int target = maxSize - maxSize / 10;
+		if (live.size() <= target) {
+			return;
+		}
+		live.sort((a, b) -> Long.compare(a.getValue().time - now, b.getValue().time - now));
+		for (int i = 0; i < live.size() - target; i++) {
+			cache.remove(live.get(i).getKey(), live.get(i).getValue());
+		}
+	}
+
+	/**
+	 * 缓存项
+	 *
+	 * @param <V>
+	 */
+	private static final class CacheEntry<V> {
+		/** 值 */
+		private final V value;
+		/** 缓存的时间 */
+		private final long time;
+
+		CacheEntry(V value, long time) {
+			this.value = value;
+			this.time = time;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 数据库keyset(seek)分页返回结果,nextCursor为读取下一页使用的游标,没有下一页时为null
+ * 
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+public class SqlKeysetResult<T> {
+	/** 每页显示多少行数据 */
+	private final int size;
+	/** 下一页的游标 */
+	private String nextCursor;
+	/** 数据 */
+	private List<T> data;
+
+	/**
+	 * 初始化
+	 * 
+	 * @param size
+	 *          每页显示多少行数据
+	 */
+	public SqlKeysetResult(int size) {
+		super();
+		this.size = size;
+	}
+
+	/**
+	 * 将排序列的值编码为游标
+	 * 
+	 * @param values
+	 *          最后一行排序列的值,主键在最后
+	 * @return
+	 */
+	public static String encodeCursor(JsonArray values) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(values.encode().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 将游标解码为排序列的值
+	 * 
+	 * @param cursor
+	 *          游标,为null或空时返回null(第一页)
+	 * @return
+	 * @throws IllegalArgumentException
+	 *           游标无效
+	 */
+	public static JsonArray decodeCursor(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return null;
+		}
+		try {
+			return new JsonArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException | DecodeException e) {
+			throw new IllegalArgumentException("Invalid keyset cursor: " + cursor, e);
+		}
+	}
+
+	/**
+	 * 将当前对象装换为JsonObject:<br>
+	 * size(int):每页显示多少行数据<br>
+	 * nextCursor(String):下一页的游标,没有下一页时为null<br>
+	 * data(List<T>):数据
+	 * 
+	 * @return
+	 */
+	public JsonObject toJson() {
+		JsonObject result = new JsonObject();
+		result.put("size", getSize());
+		result.put("nextCursor", getNextCursor());
+		result.put("data", getData() == null ? new JsonArray() : getData());
+		return result;
+	}
+
+	/**
+	 * 获取每页显示多少行数据
+	 * 
+	 * @return
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * 获取下一页的游标
+	 * 
+	 * @return 没有下一页时为null
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * 设置下一页的游标
+	 * 
+	 * @param nextCursor
+	 * @return
+	 */
+	public SqlKeysetResult<T> setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+		return this;
+	}
+
+	/**
+	 * 是否有下一页
+	 * 
+	 * @return
+	 */
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	/**
+	 * 获取数据
+	 * 
+	 * @return
+	 */
+	public List<T> getData() {
+		return data;
+	}
+
+	/**
+	 * 设置数据
+	 * 
+	 * @param data
+	 * @return
+	 */
+	public SqlKeysetResult<T> setData(List<T> data) {
+		this.data = data;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "SqlKeysetResult [size=" + size + ", nextCursor=" + nextCursor + ", data=" + data + "]";
+	}
+
+}
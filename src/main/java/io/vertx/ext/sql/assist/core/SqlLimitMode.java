@@ -0,0 +1,15 @@
+package io.vertx.ext.sql.assist.core;
+
+/**
+ * 分页查询({@link SQLCommand#limitAll(SqlAssist)})获取数据与总行数的方式
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public enum SqlLimitMode {
+	/** 先查询总行数再查询数据,两次请求依次执行 */
+	SEQUENTIAL,
+	/** 通过COUNT(*) OVER()在一次查询中同时返回数据与总行数,需要数据库支持窗口函数(PostgreSQL,MySQL 8+) */
+	WINDOW_COUNT,
+	/** 总行数与数据同时查询,每次分页占用两个连接,执行器需要是连接池 */
+	CONCURRENT
+}
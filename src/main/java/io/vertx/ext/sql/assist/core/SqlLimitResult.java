@@ -23,6 +23,7 @@ public class SqlLimitResult<T> {
 		JSON_NAME_KEY_MAPS.put("page", "page");
 		JSON_NAME_KEY_MAPS.put("size", "size");
 		JSON_NAME_KEY_MAPS.put("data", "data");
+		JSON_NAME_KEY_MAPS.put("estimated", "estimated");
 	}
 
 	/**
@@ -33,13 +34,14 @@ public class SqlLimitResult<T> {
 	 *          pages=数据总页数 <br>
 	 *          page=当前是第几页<br>
 	 *          size=每页显示多少行数据<br>
-	 *          data=数据
+	 *          data=数据<br>
+	 *          estimated=总行数是否为估算值
 	 * @param newName
 	 *          新的名称
 	 */
 	public static void registerResultKey(String oldName, String newName) {
 		if (JSON_NAME_KEY_MAPS.get(oldName) == null) {
-			throw new IllegalArgumentException("Failed to return result name, invalid old name, only totals、pages、page、size、data are supported");
+			throw new IllegalArgumentException("Failed to return result name, invalid old name, only totals、pages、page、size、data、estimated are supported");
 		}
 		Objects.requireNonNull(newName, "Failed to set return result name, new name can not be null");
 		JSON_NAME_KEY_MAPS.put(oldName, newName);
@@ -55,6 +57,8 @@ public class SqlLimitResult<T> {
 	private final int size;
 	/** 数据 */
 	private List<T> data;
+	/** 总行数是否为估算值 */
+	private boolean estimated;
 
 	/**
 	 * 初始化
@@ -79,7 +83,8 @@ public class SqlLimitResult<T> {
 	 * pages(int):数据总页数<br>
 	 * page(int):当前是第几页<br>
 	 * size(int):每页显示多少行数据<br>
-	 * data(List<T>):数据
+	 * data(List<T>):数据<br>
+	 * estimated(boolean):总行数是否为估算值,只有为估算值时才有该项
 	 * 
 	 * @return
 	 */
@@ -95,6 +100,9 @@ public class SqlLimitResult<T> {
 		} else {
 			result.put(dataKey, getData());
 		}
+		if (isEstimated()) {
+			result.put(JSON_NAME_KEY_MAPS.getOrDefault("estimated", "estimated"), true);
+		}
 		return result;
 	}
 
@@ -173,9 +181,30 @@ public class SqlLimitResult<T> {
 		return this;
 	}
 
+	/**
+	 * 总行数是否为估算值
+	 * 
+	 * @return
+	 */
+	public boolean isEstimated() {
+		return estimated;
+	}
+
+	/**
+	 * 设置总行数是否为估算值
+	 * 
+	 * @param estimated
+	 * @return
+	 */
+	public SqlLimitResult<T> setEstimated(boolean estimated) {
+		this.estimated = estimated;
+		return this;
+	}
+
 	@Override
 	public String toString() {
-		return "SqlLimitResult [totals=" + totals + ", pages=" + pages + ", page=" + page + ", size=" + size + ", data=" + data + "]";
+		return "SqlLimitResult [totals=" + totals + ", pages=" + pages + ", page=" + page + ", size=" + size + ", estimated=" + estimated
+				+ ", data=" + data + "]";
 	}
 
 }
@@ -0,0 +1,358 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+import io.vertx.core.json.JsonArray;
+
+/**
+ * SQL语句的参数,int/long/double以原始类型保存,其他类型以对象保存<br>
+ * 只有在需要时(比如交给SQLOperations执行)才转换为JsonArray
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ */
+public class SqlParams {
+	/** 参数的类型:null */
+	public static final byte TYPE_NULL = 0;
+	/** 参数的类型:对象 */
+	public static final byte TYPE_OBJECT = 1;
+	/** 参数的类型:int */
+	public static final byte TYPE_INT = 2;
+	/** 参数的类型:long */
+	public static final byte TYPE_LONG = 3;
+	/** 参数的类型:double */
+	public static final byte TYPE_DOUBLE = 4;
+
+	/** 参数的类型 */
+	private byte[] types;
+	/** int/long/double参数,double以bit保存 */
+	private long[] primitives;
+	/** 对象参数 */
+	private Object[] objects;
+	/** 参数的数量 */
+	private int size;
+
+	/**
+	 * 创建一个新的SqlParams
+	 */
+	public SqlParams() {
+		this(8);
+	}
+
+	/**
+	 * 创建一个新的SqlParams
+	 *
+	 * @param capacity
+	 *          初始容量,通常为语句中占位符的数量
+	 */
+	public SqlParams(int capacity) {
+		int initial = Math.max(capacity, 1);
+		this.types = new byte[initial];
+		this.primitives = new long[initial];
+		this.objects = new Object[initial];
+	}
+
+	/**
+	 * 通过JsonArray创建SqlParams
+	 *
+	 * @param params
+	 * @return 参数为null时返回null
+	 */
+	public static SqlParams of(JsonArray params) {
+		if (params == null) {
+			return null;
+		}
+		SqlParams result = new SqlParams(params.size());
+		for (int i = 0; i < params.size(); i++) {
+			result.add(params.getValue(i));
+		}
+		return result;
+	}
+
+	/**
+	 * 添加一个参数,Integer/Long/Double会以原始类型保存
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SqlParams add(Object value) {
+		if (value == null) {
+			return addNull();
+		}
+		if (value instanceof Integer) {
+			return addInt((Integer) value);
+		}
+		if (value instanceof Long) {
+			return addLong((Long) value);
+		}
+		if (value instanceof Double) {
+			return addDouble((Double) value);
+		}
+		int index = next(TYPE_OBJECT);
+		this.objects[index] = value;
+		return this;
+	}
+
+	/**
+	 * 添加一个int参数
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SqlParams addInt(int value) {
+		int index = next(TYPE_INT);
+		this.primitives[index] = value;
+		return this;
+	}
+
+	/**
+	 * 添加一个long参数
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SqlParams addLong(long value) {
+		int index = next(TYPE_LONG);
+		this.primitives[index] = value;
+		return this;
+	}
+
+	/**
+	 * 添加一个double参数
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SqlParams addDouble(double value) {
+		int index = next(TYPE_DOUBLE);
+		this.primitives[index] = Double.doubleToRawLongBits(value);
+		return this;
+	}
+
+	/**
+	 * 添加一个null参数
+	 *
+	 * @return
+	 */
+	public SqlParams addNull() {
+		next(TYPE_NULL);
+		return this;
+	}
+
+	/**
+	 * 添加另一个SqlParams中的全部参数
+	 *
+	 * @param params
+	 * @return
+	 */
+	public SqlParams addAll(SqlParams params) {
+		ensureCapacity(this.size + params.size);
+		System.arraycopy(params.types, 0, this.types, this.size, params.size);
+		System.arraycopy(params.primitives, 0, this.primitives, this.size, params.size);
+		System.arraycopy(params.objects, 0, this.objects, this.size, params.size);
+		this.size += params.size;
+		return this;
+	}
+
+	/**
+	 * 获取参数的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 获取参数的类型,值为TYPE_开头的常量
+	 *
+	 * @param index
+	 * @return
+	 */
+	public byte getType(int index) {
+		checkIndex(index);
+		return types[index];
+	}
+
+	/**
+	 * 获取int参数
+	 *
+	 * @param index
+	 * @return
+	 */
+	public int getInt(int index) {
+		return (int) getLong(index);
+	}
+
+	/**
+	 * 获取long参数
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		if (types[index] == TYPE_DOUBLE) {
+			return (long) Double.longBitsToDouble(primitives[index]);
+		}
+		if (types[index] != TYPE_INT && types[index] != TYPE_LONG) {
+			throw new ClassCastException("The parameter at " + index + " is not a number");
+		}
+		return primitives[index];
+	}
+
+	/**
+	 * 获取double参数
+	 *
+	 * @param index
+	 * @return
+	 */
+	public double getDouble(int index) {
+		checkIndex(index);
+		if (types[index] == TYPE_DOUBLE) {
+			return Double.longBitsToDouble(primitives[index]);
+		}
+		return getLong(index);
+	}
+
+	/**
+	 * 获取参数的值,原始类型会被装箱
+	 *
+	 * @param index
+	 * @return
+	 */
+	public Object getValue(int index) {
+		checkIndex(index);
+		switch (types[index]) {
+		case TYPE_INT:
+			return (int) primitives[index];
+		case TYPE_LONG:
+			return primitives[index];
+		case TYPE_DOUBLE:
+			return Double.longBitsToDouble(primitives[index]);
+		case TYPE_OBJECT:
+			return objects[index];
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * 转换为JsonArray
+	 *
+	 * @return
+	 */
+	public JsonArray toJsonArray() {
+		JsonArray result = new JsonArray(new ArrayList<>(size));
+		for (int i = 0; i < size; i++) {
+			switch (types[i]) {
+			case TYPE_INT:
+				result.add((int) primitives[i]);
+				break;
+			case TYPE_LONG:
+				result.add(primitives[i]);
+				break;
+			case TYPE_DOUBLE:
+				result.add(Double.longBitsToDouble(primitives[i]));
+				break;
+			case TYPE_OBJECT:
+				result.add(objects[i]);
+				break;
+			default:
+				result.addNull();
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 占用下一个位置
+	 *
+	 * @param type
+	 *          参数的类型
+	 * @return 位置
+	 */
+	private int next(byte type) {
+		ensureCapacity(size + 1);
+		types[size] = type;
+		return size++;
+	}
+
+	/**
+	 * 确保容量足够
+	 *
+	 * @param capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > types.length) {
+			int newCapacity = Math.max(capacity, types.length << 1);
+			types = Arrays.copyOf(types, newCapacity);
+			primitives = Arrays.copyOf(primitives, newCapacity);
+			objects = Arrays.copyOf(objects, newCapacity);
+		}
+	}
+
+	/**
+	 * 检查位置是否有效
+	 *
+	 * @param index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * 参数的数量,类型与值都相同时相等,byte[]等数组按内容比较
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SqlParams)) {
+			return false;
+		}
+		SqlParams other = (SqlParams) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (types[i] != other.types[i]) {
+				return false;
+			}
+			if (types[i] == TYPE_OBJECT) {
+				if (!Objects.deepEquals(objects[i], other.objects[i])) {
+					return false;
+				}
+			} else if (primitives[i] != other.primitives[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = size;
+		for (int i = 0; i < size; i++) {
+			result = 31 * result + types[i];
+			if (types[i] == TYPE_OBJECT) {
+				result = 31 * result + Arrays.deepHashCode(new Object[] { objects[i] });
+			} else {
+				result = 31 * result + Long.hashCode(primitives[i]);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return toJsonArray().toString();
+	}
+
+}
@@ -0,0 +1,22 @@
+package io.vertx.ext.sql.assist.core;
+
+import io.vertx.core.Future;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 查询结果的数据流,读取到结束或出现异常时自动释放游标与连接<br>
+ * 不再读取时(比如客户端断开连接)需要调用{@link #close()},否则游标与连接不会被释放
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ *
+ * @param <T>
+ *          行的类型
+ */
+public interface SqlReadStream<T> extends ReadStream<T> {
+	/**
+	 * 关闭数据流并释放游标与连接,之后不再产生数据,也不会调用结束处理器;可以重复调用
+	 *
+	 * @return 资源释放完成
+	 */
+	Future<Void> close();
+}
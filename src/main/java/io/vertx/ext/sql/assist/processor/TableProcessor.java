@@ -0,0 +1,230 @@
+package io.vertx.ext.sql.assist.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.sql.EntityDescriptor;
+
+/**
+ * 编译时注解处理器,为带有{@link Table}注解的实体类生成{@link EntityDescriptor}的实现类<br>
+ * 生成的类使用常量保存表名与列名,直接读取非私有属性(私有属性通过返回类型相同的getter方法)的值,运行时不再需要反射<br>
+ * 如果某个属性既不能直接访问也没有返回类型相同的getter方法,则不为该实体类生成,运行时继续使用反射
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+@SupportedAnnotationTypes("io.vertx.ext.sql.assist.anno.Table")
+public class TableProcessor extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+			if (element.getKind() != ElementKind.CLASS || element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+				note(element, "only top level classes are supported, fall back to reflection");
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			if (type.getModifiers().contains(Modifier.PRIVATE) || !type.getTypeParameters().isEmpty()) {
+				note(element, "private or generic classes are not supported, fall back to reflection");
+				continue;
+			}
+			try {
+				generate(type);
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + EntityDescriptor.SUFFIX + ": " + e.getMessage(), element);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 生成实体类的描述类
+	 *
+	 * @param type
+	 *          实体类
+	 * @throws IOException
+	 */
+	private void generate(TypeElement type) throws IOException {
+		String table = type.getAnnotation(Table.class).value();
+		List<String> columns = new ArrayList<>();
+		List<String> aliases = new ArrayList<>();
+		List<String> types = new ArrayList<>();
+		List<String> getters = new ArrayList<>();
+		int primaryIndex = -1;
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC)) {
+				continue;
+			}
+			VariableElement field = (VariableElement) member;
+			TableId tableId = field.getAnnotation(TableId.class);
+			TableColumn tableCol = field.getAnnotation(TableColumn.class);
+			String name;
+			String alias;
+			if (tableId != null) {
+				name = tableId.value();
+				alias = tableId.alias();
+			} else if (tableCol != null) {
+				name = tableCol.value();
+				alias = tableCol.alias();
+			} else {
+				continue;
+			}
+			if (name.isEmpty()) {
+				continue;
+			}
+			String getter = getter(type, field);
+			if (getter == null) {
+				note(field, "no accessible getter or field, fall back to reflection for " + type.getSimpleName());
+				return;
+			}
+			if (tableId != null && primaryIndex < 0) {
+				primaryIndex = columns.size();
+			}
+			columns.add(name);
+			aliases.add(alias);
+			types.add(processingEnv.getTypeUtils().erasure(field.asType()).toString() + ".class");
+			getters.add(getter);
+		}
+
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = pkg.isUnnamed() ? null : pkg.getQualifiedName().toString();
+		String entityName = type.getSimpleName().toString();
+		String className = entityName + EntityDescriptor.SUFFIX;
+		StringBuilder values = new StringBuilder();
+		if (primaryIndex >= 0) {
+			values.append("entity.").append(getters.get(primaryIndex));
+		}
+		for (int i = 0; i < getters.size(); i++) {
+			if (i == primaryIndex) {
+				continue;
+			}
+			if (values.length() > 0) {
+				values.append(", ");
+			}
+			values.append("entity.").append(getters.get(i));
+		}
+
+		StringBuilder code = new StringBuilder();
+		if (packageName != null) {
+			code.append("package ").append(packageName).append(";\n\n");
+		}
+		code.append("/**\n * ").append(entityName).append("的描述,由").append(TableProcessor.class.getName()).append("生成,请勿修改\n */\n");
+		code.append("public final class ").append(className).append(" implements ").append(EntityDescriptor.class.getName()).append(" {\n");
+		code.append("\tprivate static final String TABLE = ").append(literal(table)).append(";\n");
+		code.append("\tprivate static final String[] COLUMNS = {").append(literals(columns)).append("};\n");
+		code.append("\tprivate static final String[] ALIASES = {").append(literals(aliases)).append("};\n");
+		code.append("\tprivate static final Class<?>[] TYPES = {").append(String.join(", ", types)).append("};\n\n");
+		code.append("\t@Override\n\tpublic String getTable() {\n\t\treturn TABLE;\n\t}\n\n");
+		code.append("\t@Override\n\tpublic String[] getColumns() {\n\t\treturn COLUMNS.clone();\n\t}\n\n");
+		code.append("\t@Override\n\tpublic String[] getAliases() {\n\t\treturn ALIASES.clone();\n\t}\n\n");
+		code.append("\t@Override\n\tpublic Class<?>[] getTypes() {\n\t\treturn TYPES.clone();\n\t}\n\n");
+		code.append("\t@Override\n\tpublic int getPrimaryIndex() {\n\t\treturn ").append(primaryIndex).append(";\n\t}\n\n");
+		code.append("\t@Override\n\tpublic Object[] getValues(Object obj) {\n");
+		code.append("\t\t").append(entityName).append(" entity = (").append(entityName).append(") obj;\n");
+		code.append("\t\treturn new Object[] {").append(values).append("};\n\t}\n");
+		code.append("}\n");
+
+		JavaFileObject file = processingEnv.getFiler()
+				.createSourceFile(packageName == null ? className : packageName + "." + className, type);
+		try (Writer writer = file.openWriter()) {
+			writer.write(code.toString());
+		}
+	}
+
+	/**
+	 * 获取读取属性的表达式,优先直接读取非私有的属性,与反射读取的值一致;<br>
+	 * 私有属性使用返回类型与属性类型相同的getter方法
+	 *
+	 * @param type
+	 *          实体类
+	 * @param field
+	 *          属性
+	 * @return 不能访问返回null
+	 */
+	private String getter(TypeElement type, VariableElement field) {
+		String name = field.getSimpleName().toString();
+		if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+			return name;
+		}
+		String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() != ElementKind.METHOD) {
+				continue;
+			}
+			ExecutableElement method = (ExecutableElement) member;
+			String methodName = method.getSimpleName().toString();
+			if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.PRIVATE)
+					|| method.getModifiers().contains(Modifier.STATIC)
+					|| !processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+				continue;
+			}
+			if (methodName.equals("get" + suffix) || (bool && methodName.equals("is" + suffix))) {
+				return methodName + "()";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 将字符串转换为Java字面量
+	 *
+	 * @param value
+	 * @return
+	 */
+	private static String literal(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * 将多个字符串转换为以,号隔开的Java字面量
+	 *
+	 * @param values
+	 * @return
+	 */
+	private static String literals(List<String> values) {
+		StringBuilder result = new StringBuilder();
+		for (String value : values) {
+			if (result.length() > 0) {
+				result.append(", ");
+			}
+			result.append(literal(value));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * 输出提示信息
+	 *
+	 * @param element
+	 * @param msg
+	 */
+	private void note(Element element, String msg) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, msg, element);
+	}
+}
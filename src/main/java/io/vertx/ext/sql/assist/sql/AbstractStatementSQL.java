@@ -1,20 +1,25 @@
 package io.vertx.ext.sql.assist.sql;
 
-import java.lang.reflect.Field;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.ext.sql.assist.core.SQLStatement;
 import io.vertx.ext.sql.assist.core.SqlAndParams;
 import io.vertx.ext.sql.assist.core.SqlAssist;
+import io.vertx.ext.sql.assist.core.SqlCache;
+import io.vertx.ext.sql.assist.core.SqlParams;
 import io.vertx.ext.sql.assist.core.SqlPropertyValue;
 import io.vertx.ext.sql.assist.core.SqlWhereCondition;
-import io.vertx.ext.sql.assist.anno.Table;
-import io.vertx.ext.sql.assist.anno.TableColumn;
-import io.vertx.ext.sql.assist.anno.TableId;
 
 /**
  * 抽象数据库操作语句,默认以MySQL标准来编写,如果其他数据库可以基础并重写不兼容的方法<br>
@@ -23,10 +28,30 @@ import io.vertx.ext.sql.assist.anno.TableId;
  * @author <a href="https://mirrentools.org/">Mirren</a>
  */
 public abstract class AbstractStatementSQL implements SQLStatement {
+    /**
+     * 按非空列位图缓存的语句数量上限
+     */
+    private static final int MASK_SQL_CACHE_SIZE = 256;
+    /**
+     * 按SqlAssist结构缓存的语句数量上限
+     */
+    private static final int ASSIST_SQL_CACHE_SIZE = 1024;
+    /**
+     * 批量语句中参数数量的上限,PostgreSQL与MySQL预处理语句的参数上限都是65535
+     */
+    private static volatile int batchMaxParams = 65535;
+    /**
+     * 批量语句估算大小的上限(字节),需要小于MySQL的max_allowed_packet
+     */
+    private static volatile int batchMaxBytes = 4 * 1024 * 1024;
     /*
-    * 表列的缓存
+    * 非实体类对象的元数据缓存
     * */
-    private final ConcurrentHashMap<Class<?>,Field[]> tableCache;
+    private final ConcurrentHashMap<Class<?>,EntityMetadata> tableCache;
+    /**
+     * 实体类的元数据
+     */
+    protected final EntityMetadata metadata;
     /**
      * 表的名称
      */
@@ -39,62 +64,243 @@ public abstract class AbstractStatementSQL implements SQLStatement {
      * 返回列
      */
 	protected String sqlResultColumns;
+    /**
+     * 固定的查询总行数语句
+     */
+    private String countSQL;
+    /**
+     * 固定的是否存在语句
+     */
+    private String existSQL;
+    /**
+     * 固定的查询全部语句
+     */
+    private String selectAllSQL;
+    /**
+     * 固定的通过主键查询语句
+     */
+    private String selectByIdSQL;
+    /**
+     * 固定的插入全部列语句
+     */
+    private String insertAllSQL;
+    /**
+     * 固定的通过主键更新全部列语句
+     */
+    private String updateAllByIdSQL;
+    /**
+     * 固定的通过主键删除语句
+     */
+    private String deleteByIdSQL;
+    /**
+     * 按非空列位图缓存的语句,key为语句类型+位图+附加值;语句不会过期,超出上限时移除最早缓存的项
+     */
+    private final SqlCache<MaskSQLKey, String> maskSQLCache = new SqlCache<>(MASK_SQL_CACHE_SIZE, Long.MAX_VALUE);
+    /**
+     * 按SqlAssist结构缓存的语句,超出上限时移除最早缓存的项
+     */
+    private final SqlCache<AssistSQLKey, String> assistSQLCache = new SqlCache<>(ASSIST_SQL_CACHE_SIZE, Long.MAX_VALUE);
+    /**
+     * 是否存在语句的前缀
+     */
+    private String existPrefixSQL;
+    /**
+     * 通过SqlAssist查询的默认前缀
+     */
+    private String selectPrefixSQL;
 
     public AbstractStatementSQL(Class<?> entity) {
         this.tableCache= new ConcurrentHashMap<>();
-        this.parseTable(entity);
-        this.parseColumn(entity);
-    }
-
-    private void parseTable(Class<?> entity) {
-        Table table = entity.getAnnotation(Table.class);
-        if (table == null || table.value().isEmpty()) {
+        this.metadata = EntityMetadata.of(entity, this::getNameValue, this::getAliasNameValue);
+        if (this.metadata.getTableName() == null) {
             throw new NullPointerException(entity.getName() + " no Table annotation ,you need to set @Table on the class");
         }
-        this.sqlTableName = this.getNameValue(table.value());
+        if (this.metadata.getPrimaryId() == null) {
+            throw new NullPointerException(entity.getName() + " no TableId annotation ,you need to set @TableId on the field");
+        }
+        if (this.metadata.getResultColumns().isEmpty()) {
+            throw new NullPointerException(entity.getName() + " no TableColumn annotation ,you need to set @TableColumn on the field");
+        }
+        this.sqlTableName = this.metadata.getTableName();
+        this.sqlPrimaryId = this.metadata.getPrimaryId();
+        this.sqlResultColumns = this.metadata.getResultColumns();
+        this.initFixedSQL();
     }
 
-    private void parseColumn(Class<?> entity) {
-        LinkedList<String> column = new LinkedList<>();
-        for (Field field : entity.getDeclaredFields()) {
-            field.setAccessible(true);
-            TableId tableId = field.getAnnotation(TableId.class);
-            TableColumn tableCol = field.getAnnotation(TableColumn.class);
+    /**
+     * 设置批量语句的拆分上限
+     *
+     * @param maxParams
+     *          每条语句参数数量的上限
+     * @param maxBytes
+     *          每条语句估算大小的上限(字节)
+     */
+    public static void registerBatchLimit(int maxParams, int maxBytes) {
+        if (maxParams < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("maxParams and maxBytes must be greater than 0");
+        }
+        batchMaxParams = maxParams;
+        batchMaxBytes = maxBytes;
+    }
 
-            if (tableId != null) {
-                if (tableId.value().isEmpty())
-                    continue;
+    /**
+     * 获取批量语句中参数数量的上限
+     *
+     * @return
+     */
+    protected int getBatchMaxParams() {
+        return batchMaxParams;
+    }
 
-                if(tableId.alias().isEmpty())
-                	column.add(this.getNameValue(tableId.value()));
-                else
-                	column.add(this.getNameValue(tableId.value())+" AS "+this.getAliasNameValue(tableId.alias()));
+    /**
+     * 获取批量语句估算大小的上限(字节)
+     *
+     * @return
+     */
+    protected int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
 
-                if(this.sqlPrimaryId!=null)
-                	continue;
+    /**
+     * 生成形状固定的语句,执行时只需要绑定参数
+     */
+    private void initFixedSQL() {
+        this.countSQL = String.format("select count(0) from %s ", this.sqlTableName);
+        this.existPrefixSQL = String.format("select 1 from %s ", this.sqlTableName);
+        this.existSQL = this.existPrefixSQL + " limit 1";
+        this.selectPrefixSQL = String.format("select %s %s.%s from %s", "", this.sqlTableName, this.sqlResultColumns, this.sqlTableName);
+        this.selectAllSQL = String.format("select %s from %s ", this.sqlResultColumns, this.sqlTableName);
+        this.selectByIdSQL = String.format("select %s.%s from %s %s where %s = ? ", this.sqlTableName, this.sqlResultColumns, this.sqlTableName, "",
+                this.sqlPrimaryId);
+        this.insertAllSQL = this.buildInsertAllSQL(this.metadata);
+        this.updateAllByIdSQL = this.buildUpdateAllByIdSQL(this.metadata, this.metadata.indexOf(this.sqlPrimaryId));
+        this.deleteByIdSQL = String.format("delete from %s where %s = ? ", this.sqlTableName, this.sqlPrimaryId);
+    }
 
-                this.sqlPrimaryId = this.getNameValue(tableId.value());
+    /**
+     * 生成插入全部列的语句
+     *
+     * @param meta
+     * @return
+     */
+    private String buildInsertAllSQL(EntityMetadata meta) {
+        StringBuilder tempColumn = new StringBuilder();
+        StringBuilder tempValues = new StringBuilder();
+        for (int i = 0; i < meta.size(); i++) {
+            if (i > 0) {
+                tempColumn.append(",");
+                tempValues.append(",");
             }
-            if (tableCol != null) {
-				if (tableCol.value().isEmpty())
-					continue;
+            tempColumn.append(meta.getColumn(i));
+            tempValues.append("?");
+        }
+        return String.format("insert into %s (%s) values (%s) ", this.sqlTableName, tempColumn, tempValues);
+    }
 
-				if(tableCol.alias().isEmpty())
-					column.add(this.getNameValue(tableCol.value()));
-				else
-					column.add(this.getNameValue(tableCol.value())+" AS "+this.getAliasNameValue(tableCol.alias()));
+    /**
+     * 生成通过主键更新全部列的语句
+     *
+     * @param meta
+     * @param idIndex
+     *          主键的位置
+     * @return
+     */
+    private String buildUpdateAllByIdSQL(EntityMetadata meta, int idIndex) {
+        StringBuilder tempColumn = new StringBuilder();
+        for (int i = 0; i < meta.size(); i++) {
+            if (i == idIndex) {
+                continue;
+            }
+            if (tempColumn.length() > 0) {
+                tempColumn.append(",");
             }
+            tempColumn.append(meta.getColumn(i)).append(" = ? ");
         }
+        return String.format("update %s set %s where %s = ? ", this.sqlTableName, tempColumn, this.sqlPrimaryId);
+    }
 
-        if (this.sqlPrimaryId == null) {
-            throw new NullPointerException(entity.getName() + " no TableId annotation ,you need to set @TableId on the field");
+    /**
+     * 获取实体类的元数据
+     *
+     * @return EntityMetadata
+     */
+    public EntityMetadata getEntityMetadata() {
+        return metadata;
+    }
+
+    /**
+     * 获取对象的元数据,如果对象不是实体类则解析并缓存该对象类的元数据
+     *
+     * @param obj
+     * @return EntityMetadata
+     */
+    protected EntityMetadata getMetadata(Object obj) {
+        Class<?> clz = obj.getClass();
+        if (clz == this.metadata.getEntity()) {
+            return this.metadata;
         }
+        return this.tableCache.computeIfAbsent(clz, cls -> EntityMetadata.of(cls, this::getNameValue, this::getAliasNameValue));
+    }
 
-        if (column.isEmpty()) {
-            throw new NullPointerException(entity.getName() + " no TableColumn annotation ,you need to set @TableColumn on the field");
+    /**
+     * 获取属性值中非空列的位图,第i位为1表示第i列不为空<br>
+     * 只有实体类本身的元数据并且列数小于64时才可以使用位图缓存,否则返回-1
+     *
+     * @param meta
+     *          元数据
+     * @param values
+     *          属性值
+     * @return
+     */
+    protected long getNonEmptyMask(EntityMetadata meta, Object[] values) {
+        if (meta != this.metadata || values.length >= Long.SIZE) {
+            return -1;
         }
+        long mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
 
-        this.sqlResultColumns = String.join(",",column);
+    /**
+     * 获取位图对应的缓存语句
+     *
+     * @param type
+     *          语句的类型
+     * @param mask
+     *          非空列的位图,小于0时不使用缓存
+     * @param extra
+     *          影响语句的附加值,比如upsert的冲突列,没有传入null
+     * @return 没有缓存返回null
+     */
+    protected String getMaskSQL(String type, long mask, String extra) {
+        if (mask < 0) {
+            return null;
+        }
+        return this.maskSQLCache.get(new MaskSQLKey(type, mask, extra));
+    }
+
+    /**
+     * 缓存位图对应的语句,超过缓存上限后移除最早缓存的语句
+     *
+     * @param type
+     *          语句的类型
+     * @param mask
+     *          非空列的位图,小于0时不使用缓存
+     * @param extra
+     *          影响语句的附加值,没有传入null
+     * @param sql
+     *          语句
+     * @return 传入的语句
+     */
+    protected String putMaskSQL(String type, long mask, String extra, String sql) {
+        if (mask >= 0) {
+            this.maskSQLCache.put(new MaskSQLKey(type, mask, extra), sql);
+        }
+        return sql;
     }
 
     /**
@@ -118,89 +324,124 @@ public abstract class AbstractStatementSQL implements SQLStatement {
      * @return List
      */
     protected <T> List<SqlPropertyValue<?>> getPropertyValue(T obj) throws Exception {
-        List<SqlPropertyValue<?>> result = new LinkedList<>();
-        Field [] fields = this.tableCache.computeIfAbsent(obj.getClass(),cls->obj.getClass().getDeclaredFields());
-        for (Field field : fields) {
-            field.setAccessible(true);
-            TableId tableId = field.getAnnotation(TableId.class);
-            TableColumn tableCol = field.getAnnotation(TableColumn.class);
-            if (tableId == null && tableCol == null) {
-                continue;
-            }
-            if (tableId != null) {
-                result.add(0, new SqlPropertyValue<>(this.getNameValue(tableId.value()), field.get(obj)));
-            } else {
-                result.add(new SqlPropertyValue<>(this.getNameValue(tableCol.value()), field.get(obj)));
-            }
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values = meta.getValues(obj);
+        List<SqlPropertyValue<?>> result = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            result.add(new SqlPropertyValue<>(meta.getColumn(i), values[i]));
         }
         return result;
     }
 
+    /**
+     * 将SqlAssist解析为SQL语句与参数
+     *
+     * @param assist
+     *          帮助类
+     * @param stringBuffer
+     *          追加语句
+     * @param params
+     *          追加参数
+     * @param withPage
+     *          是否分页
+     */
 	public void parseSqlAssist(SqlAssist assist,StringBuilder stringBuffer,JsonArray params,Boolean withPage) {
-		if (assist.getJoinOrReference() != null) {
-			stringBuffer.append(assist.getJoinOrReference());
-		}
-		if (assist.getCondition() != null && assist.getCondition().size() > 0) {
-			List<SqlWhereCondition<?>> where = assist.getCondition();
-			stringBuffer.append(" where ").append(where.get(0).getRequire());
-			if (where.get(0).getValue() != null) {
-				params.add(where.get(0).getValue());
-			}
-			if (where.get(0).getValues() != null) {
-				for (Object value : where.get(0).getValues()) {
-					params.add(value);
-				}
-			}
-			for (int i = 1; i < where.size(); i++) {
-				stringBuffer.append(where.get(i).getRequire());
-				if (where.get(i).getValue() != null) {
-					params.add(where.get(i).getValue());
-				}
-				if (where.get(i).getValues() != null) {
-					for (Object value : where.get(i).getValues()) {
-						params.add(value);
-					}
-				}
-			}
-		}
+		stringBuffer.append(this.getAssistSQL("", assist, withPage, ""));
+		this.addAssistParams(assist, params, withPage);
+	}
+
+    /**
+     * 获取SqlAssist对应的语句,结构相同(条件/分组/排序/分页等相同,只有值不同)的SqlAssist共用同一个语句
+     *
+     * @param prefix
+     *          语句的前缀
+     * @param assist
+     *          帮助类
+     * @param withPage
+     *          是否分页
+     * @param suffix
+     *          语句的后缀
+     * @return
+     */
+    protected String getAssistSQL(String prefix, SqlAssist assist, boolean withPage, String suffix) {
+        AssistSQLKey key = new AssistSQLKey(prefix, assist, withPage, suffix);
+        String sql = this.assistSQLCache.get(key);
+        if (sql != null) {
+            return sql;
+        }
+        StringBuilder stringBuffer = new StringBuilder(prefix);
+        if (assist.getJoinOrReference() != null) {
+            stringBuffer.append(assist.getJoinOrReference());
+        }
+        if (assist.getCondition() != null && assist.getCondition().size() > 0) {
+            List<SqlWhereCondition<?>> where = assist.getCondition();
+            stringBuffer.append(" where ").append(where.get(0).getRequire());
+            for (int i = 1; i < where.size(); i++) {
+                stringBuffer.append(where.get(i).getRequire());
+            }
+        }
         if (assist.getGroupBy() != null) {
             stringBuffer.append(" group by ").append(assist.getGroupBy()).append(" ");
         }
         if (assist.getHaving() != null) {
             stringBuffer.append(" having ").append(assist.getHaving()).append(" ");
-            if (assist.getHavingValue() != null) {
-                if (params == null) {
-                    params = new JsonArray();
-                }
-                params.addAll(assist.getHavingValue());
-            }
         }
         if (assist.getOrder() != null) {
             stringBuffer.append(assist.getOrder());
         }
-        if (withPage && (assist.getRowSize() != null || assist.getStartRow() != null )) {
-            if (params == null) {
-                params = new JsonArray();
-            }
-            if (assist.getStartRow() != null) {
-                stringBuffer.append(" LIMIT ?");
-                params.add(assist.getRowSize());
-            }
-            if (assist.getStartRow() != null) {
-                stringBuffer.append(" OFFSET ?");
-                params.add(assist.getStartRow());
+        if (withPage && assist.getStartRow() != null) {
+            stringBuffer.append(" LIMIT ?");
+            stringBuffer.append(" OFFSET ?");
+        }
+        stringBuffer.append(suffix);
+        sql = stringBuffer.toString();
+        this.assistSQLCache.put(key, sql);
+        return sql;
+    }
+
+    /**
+     * 按{@link #getAssistSQL(String, SqlAssist, boolean, String)}中占位符的顺序追加SqlAssist的参数
+     *
+     * @param assist
+     *          帮助类
+     * @param params
+     *          追加参数
+     * @param withPage
+     *          是否分页
+     */
+    protected void addAssistParams(SqlAssist assist, JsonArray params, boolean withPage) {
+        if (assist.getCondition() != null) {
+            List<SqlWhereCondition<?>> where = assist.getCondition();
+            for (int i = 0; i < where.size(); i++) {
+                if (where.get(i).getValue() != null) {
+                    params.add(where.get(i).getValue());
+                }
+                if (where.get(i).getValues() != null) {
+                    for (Object value : where.get(i).getValues()) {
+                        params.add(value);
+                    }
+                }
             }
         }
-	}
+        if (assist.getHaving() != null && assist.getHavingValue() != null) {
+            params.addAll(assist.getHavingValue());
+        }
+        if (withPage && assist.getStartRow() != null) {
+            params.add(assist.getRowSize());
+            params.add(assist.getStartRow());
+        }
+    }
 
     @Override
     public SqlAndParams getCountSQL(SqlAssist assist) {
-        StringBuilder sql = new StringBuilder(String.format("select count(0) from %s ", this.sqlTableName));
-        JsonArray params = new JsonArray();
-        if (assist != null) {
-           this.parseSqlAssist(assist,sql,params,false);
+        SqlAndParams result;
+        if (assist == null) {
+            result = new SqlAndParams(this.countSQL, new JsonArray());
+        } else {
+            JsonArray params = new JsonArray();
+            this.addAssistParams(assist, params, false);
+            result = new SqlAndParams(this.getAssistSQL(this.countSQL, assist, false, ""), params);
         }
-        SqlAndParams result = new SqlAndParams(sql.toString(), params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("getCountSQL : " + result.toString());
         }
@@ -209,36 +450,124 @@ public abstract class AbstractStatementSQL implements SQLStatement {
 
     @Override
     public SqlAndParams getExistSQL(SqlAssist assist) {
-        StringBuilder sql = new StringBuilder(String.format("select 1 from %s ", this.sqlTableName));
-        JsonArray params = new JsonArray();
-        if (assist != null) {
-            this.parseSqlAssist(assist,sql,params,false);
+        SqlAndParams result;
+        if (assist == null) {
+            result = new SqlAndParams(this.existSQL, new JsonArray());
+        } else {
+            JsonArray params = new JsonArray();
+            this.addAssistParams(assist, params, false);
+            result = new SqlAndParams(this.getAssistSQL(this.existPrefixSQL, assist, false, " limit 1"), params);
         }
-        sql.append(" limit 1");
-        SqlAndParams result = new SqlAndParams(sql.toString(), params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("getCountSQL : " + result.toString());
         }
         return result;
     }
 
+    @Override
+    public SqlAndParams getEstimatedCountSQL(SqlAssist assist) {
+        SqlAndParams result;
+        if (isUnconditioned(assist)) {
+            result = new SqlAndParams(this.getTableStatsSQL(), new JsonArray().add(this.getTableStatsName()));
+        } else {
+            JsonArray params = new JsonArray();
+            this.addAssistParams(assist, params, false);
+            result = new SqlAndParams(this.getAssistSQL("EXPLAIN " + this.existPrefixSQL, assist, false, ""), params);
+        }
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug("getEstimatedCountSQL : " + result.toString());
+        }
+        return result;
+    }
+
+    /**
+     * 读取表统计行数的语句,返回列名为estimated,参数为{@link #getTableStatsName()}
+     *
+     * @return
+     */
+    protected String getTableStatsSQL() {
+        return "select TABLE_ROWS AS estimated from information_schema.TABLES where TABLE_SCHEMA = DATABASE() and TABLE_NAME = ?";
+    }
+
+    /**
+     * 读取表统计行数时使用的表名
+     *
+     * @return
+     */
+    protected String getTableStatsName() {
+        return getColumnLabel(this.sqlTableName);
+    }
+
+    /**
+     * 解析估算行数,默认解析MySQL的统计信息与EXPLAIN结果(第一行的rows*filtered%)
+     */
+    @Override
+    public long parseEstimatedCount(List<JsonObject> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return -1;
+        }
+        JsonObject row = rows.get(0);
+        if (row.containsKey("estimated")) {
+            return toLong(row.getValue("estimated"));
+        }
+        long estimated = toLong(row.getValue("rows"));
+        Object filtered = row.getValue("filtered");
+        if (estimated > 0 && filtered != null) {
+            estimated = (long) (estimated * Double.parseDouble(filtered.toString()) / 100);
+        }
+        return estimated;
+    }
+
+    /**
+     * SqlAssist是否没有条件,连接与分组
+     *
+     * @param assist
+     * @return
+     */
+    protected boolean isUnconditioned(SqlAssist assist) {
+        return assist == null || ((assist.getCondition() == null || assist.getCondition().isEmpty()) && assist.getJoinOrReference() == null
+                && assist.getGroupBy() == null && assist.getHaving() == null);
+    }
+
+    /**
+     * 将数字或数字字符串转换为long,无法转换返回-1
+     *
+     * @param value
+     * @return
+     */
+    protected static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return (long) Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     @Override
     public SqlAndParams selectAllSQL(SqlAssist assist) {
         // 如果Assist为空返回默认默认查询语句,反则根据Assist生成语句sql语句
         if (assist == null) {
-            SqlAndParams result = new SqlAndParams(String.format("select %s from %s ", this.sqlResultColumns, this.sqlTableName));
+            SqlAndParams result = new SqlAndParams(this.selectAllSQL);
             if (this.getLOG().isDebugEnabled()) {
                 this.getLOG().debug("SelectAllSQL : " + result.toString());
             }
             return result;
         } else {
-            String distinct = assist.getDistinct() == null ? "" : assist.getDistinct();// 去重语句
-            String column = assist.getResultColumn() == null ? this.sqlResultColumns : assist.getResultColumn();// 表的列名
-            // 初始化SQL语句
-            StringBuilder sql = new StringBuilder(String.format("select %s %s.%s from %s", distinct, this.sqlTableName, column, this.sqlTableName));
+            String prefix = this.selectPrefixSQL;
+            if (assist.getDistinct() != null || assist.getResultColumn() != null) {
+                String distinct = assist.getDistinct() == null ? "" : assist.getDistinct();// 去重语句
+                String column = assist.getResultColumn() == null ? this.sqlResultColumns : assist.getResultColumn();// 表的列名
+                prefix = String.format("select %s %s.%s from %s", distinct, this.sqlTableName, column, this.sqlTableName);
+            }
             JsonArray params = new JsonArray();// 参数
-            this.parseSqlAssist(assist,sql,params,true);
-            SqlAndParams result = new SqlAndParams(sql.toString(), params);
+            this.addAssistParams(assist, params, true);
+            SqlAndParams result = new SqlAndParams(this.getAssistSQL(prefix, assist, true, ""), params);
             if (this.getLOG().isDebugEnabled()) {
                 this.getLOG().debug("SelectAllSQL : " + result.toString());
             }
@@ -247,10 +576,210 @@ public abstract class AbstractStatementSQL implements SQLStatement {
     }
 
     @Override
-    public <S> SqlAndParams selectByIdSQL(S primaryValue, String resultColumns, String joinOrReference) {
-        String sql = String.format("select %s.%s from %s %s where %s = ? ", this.sqlTableName, (resultColumns == null ? this.sqlResultColumns : resultColumns),
-                this.sqlTableName, (joinOrReference == null ? "" : joinOrReference), this.sqlPrimaryId);
+    public SqlAndParams selectAllWithCountSQL(SqlAssist assist) {
+        if (assist == null) {
+            return new SqlAndParams(false, "The SqlAssist cannot be null");
+        }
+        // 去重在窗口函数之后执行,COUNT(*) OVER()统计的是去重前的行数
+        if (assist.getDistinct() != null) {
+            return new SqlAndParams(false, "The window count does not support distinct");
+        }
+        String column = assist.getResultColumn() == null ? this.sqlResultColumns : assist.getResultColumn();// 表的列名
+        String prefix = String.format("select %s.%s,COUNT(*) OVER() AS %s from %s", this.sqlTableName, column, WINDOW_COUNT_COLUMN,
+                this.sqlTableName);
+        JsonArray params = new JsonArray();// 参数
+        this.addAssistParams(assist, params, true);
+        SqlAndParams result = new SqlAndParams(this.getAssistSQL(prefix, assist, true, ""), params);
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug("selectAllWithCountSQL : " + result.toString());
+        }
+        return result;
+    }
+
+    @Override
+    public SqlAndParams keysetAllSQL(SqlAssist assist, JsonArray lastValues, int limit, boolean desc, String... sortColumns) {
+        List<String> keys = this.getKeysetSortColumns(sortColumns);
+        if (lastValues != null && lastValues.size() != keys.size()) {
+            return new SqlAndParams(false, "The keyset cursor has " + lastValues.size() + " values, but " + keys.size() + " columns are required");
+        }
+        String prefix = this.selectPrefixSQL;
+        if (assist != null && (assist.getDistinct() != null || assist.getResultColumn() != null)) {
+            String distinct = assist.getDistinct() == null ? "" : assist.getDistinct();// 去重语句
+            String column = assist.getResultColumn() == null ? this.sqlResultColumns : assist.getResultColumn();// 表的列名
+            prefix = String.format("select %s %s.%s from %s", distinct, this.sqlTableName, column, this.sqlTableName);
+        }
+        StringBuilder sql = new StringBuilder(prefix);
         JsonArray params = new JsonArray();
+        boolean where = false;
+        if (assist != null) {
+            if (assist.getJoinOrReference() != null) {
+                sql.append(assist.getJoinOrReference());
+            }
+            // 原有条件可能包含or,需要放在括号中
+            List<SqlWhereCondition<?>> conditions = assist.getCondition();
+            if (conditions != null && !conditions.isEmpty()) {
+                sql.append(" where (");
+                for (SqlWhereCondition<?> condition : conditions) {
+                    sql.append(condition.getRequire());
+                    if (condition.getValue() != null) {
+                        params.add(condition.getValue());
+                    }
+                    if (condition.getValues() != null) {
+                        for (Object value : condition.getValues()) {
+                            params.add(value);
+                        }
+                    }
+                }
+                sql.append(") ");
+                where = true;
+            }
+        }
+        String columns = String.join(",", keys);
+        if (lastValues != null) {
+            sql.append(where ? " and (" : " where (").append(columns).append(desc ? ") < (" : ") > (");
+            for (int i = 0; i < keys.size(); i++) {
+                sql.append(i == 0 ? "" : ",").append(this.getKeysetPlaceholder(this.getKeysetColumnType(keys.get(i)), lastValues.getValue(i)));
+            }
+            sql.append(") ");
+            params.addAll(lastValues);
+        }
+        if (assist != null && assist.getGroupBy() != null) {
+            sql.append(" group by ").append(assist.getGroupBy()).append(" ");
+        }
+        if (assist != null && assist.getHaving() != null) {
+            sql.append(" having ").append(assist.getHaving()).append(" ");
+            if (assist.getHavingValue() != null) {
+                params.addAll(assist.getHavingValue());
+            }
+        }
+        sql.append(" order by ");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "" : ",").append(keys.get(i)).append(desc ? " desc" : " asc");
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit);
+        SqlAndParams result = new SqlAndParams(sql.toString(), params);
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug("keysetAllSQL : " + result.toString());
+        }
+        return result;
+    }
+
+    @Override
+    public String[] keysetColumns(String... sortColumns) {
+        List<String> keys = this.getKeysetSortColumns(sortColumns);
+        String[] result = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            result[i] = getColumnLabel(keys.get(i));
+        }
+        // 主键可能设置了别名
+        if (result.length > 0 && keys.get(keys.size() - 1).equals(this.sqlTableName + "." + this.sqlPrimaryId)) {
+            result[result.length - 1] = this.getPrimaryLabel();
+        }
+        return result;
+    }
+
+    /**
+     * 获取keyset游标值的占位符,游标经过JSON编码,日期时间等类型的值会变为字符串,子类可以按列的类型添加类型转换
+     *
+     * @param type
+     *          排序列对应属性的类型,不是实体类的列时为null
+     * @param value
+     *          游标中的值
+     * @return
+     */
+    protected String getKeysetPlaceholder(Class<?> type, Object value) {
+        return "?";
+    }
+
+    /**
+     * 获取排序列对应属性的类型
+     *
+     * @param column
+     * @return 不是实体类的列时返回null
+     */
+    private Class<?> getKeysetColumnType(String column) {
+        String label = getColumnLabel(column);
+        for (int i = 0; i < this.metadata.size(); i++) {
+            if (getColumnLabel(this.metadata.getColumn(i)).equals(label)) {
+                return this.metadata.getType(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取keyset分页的排序列,没有包含主键时追加主键
+     *
+     * @param sortColumns
+     * @return
+     */
+    private List<String> getKeysetSortColumns(String[] sortColumns) {
+        List<String> result = new ArrayList<>();
+        String primaryLabel = getColumnLabel(this.sqlPrimaryId);
+        boolean hasPrimary = false;
+        if (sortColumns != null) {
+            for (String column : sortColumns) {
+                if (column == null || column.trim().isEmpty()) {
+                    continue;
+                }
+                result.add(column.trim());
+                if (getColumnLabel(column).equals(primaryLabel)) {
+                    hasPrimary = true;
+                }
+            }
+        }
+        if (!hasPrimary) {
+            result.add(this.sqlTableName + "." + this.sqlPrimaryId);
+        }
+        return result;
+    }
+
+    /**
+     * 获取主键在结果集中的列名,主键设置了别名时为别名
+     *
+     * @return
+     */
+    private String getPrimaryLabel() {
+        for (String column : this.sqlResultColumns.split(",")) {
+            if (column.equals(this.sqlPrimaryId)) {
+                break;
+            }
+            if (column.startsWith(this.sqlPrimaryId + " AS ")) {
+                return getColumnLabel(column.substring(this.sqlPrimaryId.length() + 4));
+            }
+        }
+        return getColumnLabel(this.sqlPrimaryId);
+    }
+
+    /**
+     * 去掉列名中的表名与引号
+     *
+     * @param column
+     * @return
+     */
+    private static String getColumnLabel(String column) {
+        String label = column.trim();
+        int index = label.lastIndexOf('.');
+        if (index >= 0) {
+            label = label.substring(index + 1);
+        }
+        if (label.length() > 1 && (label.charAt(0) == '`' || label.charAt(0) == '"' || label.charAt(0) == '[')) {
+            label = label.substring(1, label.length() - 1);
+        }
+        return label;
+    }
+
+    @Override
+    public <S> SqlAndParams selectByIdSQL(S primaryValue, String resultColumns, String joinOrReference) {
+        String sql;
+        if (resultColumns == null && joinOrReference == null) {
+            sql = this.selectByIdSQL;
+        } else {
+            sql = String.format("select %s.%s from %s %s where %s = ? ", this.sqlTableName, (resultColumns == null ? this.sqlResultColumns : resultColumns),
+                    this.sqlTableName, (joinOrReference == null ? "" : joinOrReference), this.sqlPrimaryId);
+        }
+        SqlParams params = new SqlParams(1);
         params.add(primaryValue);
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
@@ -259,6 +788,27 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         return result;
     }
 
+    @Override
+    public <S> SqlAndParams selectByIdsSQL(List<S> primaryValues, String resultColumns, String joinOrReference) {
+        if (primaryValues == null || primaryValues.isEmpty()) {
+            return new SqlAndParams(false, "The primary values cannot be empty");
+        }
+        StringBuilder sql = new StringBuilder(String.format("select %s.%s,%s.%s AS %s from %s %s where %s.%s in (", this.sqlTableName,
+                (resultColumns == null ? this.sqlResultColumns : resultColumns), this.sqlTableName, this.sqlPrimaryId, ID_COLUMN, this.sqlTableName,
+                (joinOrReference == null ? "" : joinOrReference), this.sqlTableName, this.sqlPrimaryId));
+        SqlParams params = new SqlParams(primaryValues.size());
+        for (int i = 0; i < primaryValues.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+            params.add(primaryValues.get(i));
+        }
+        sql.append(") ");
+        SqlAndParams result = new SqlAndParams(sql.toString(), params);
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug("selectByIdsSQL : " + result.toString());
+        }
+        return result;
+    }
+
     @Override
     public <T> SqlAndParams selectByObjSQL(T obj, String resultColumns, String joinOrReference, boolean single) {
         StringBuilder sql = new StringBuilder(
@@ -266,23 +816,23 @@ public abstract class AbstractStatementSQL implements SQLStatement {
                         (joinOrReference == null ? "" : joinOrReference)));
         JsonArray params = null;
         boolean first = true;
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (int i = propertyValue.size() - 1; i >= 0; i--) {
-            SqlPropertyValue<?> pv = propertyValue.get(i);
-            if (pv.getValue() != null) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] != null) {
                 if (first) {
                     params = new JsonArray();
-                    sql.append(String.format("where %s = ? ", pv.getName()));
-                    params.add(pv.getValue());
+                    sql.append("where ").append(meta.getColumn(i)).append(" = ? ");
+                    params.add(values[i]);
                     first = false;
                 } else {
-                    sql.append(String.format("and %s = ? ", pv.getName()));
-                    params.add(pv.getValue());
+                    sql.append("and ").append(meta.getColumn(i)).append(" = ? ");
+                    params.add(values[i]);
                 }
             }
         }
@@ -298,25 +848,18 @@ public abstract class AbstractStatementSQL implements SQLStatement {
 
     @Override
     public <T> SqlAndParams insertAllSQL(T obj) {
-        JsonArray params = new JsonArray();
-        LinkedList<String> tempColumn = new LinkedList<>();
-        LinkedList<String> tempValues = new LinkedList<>();
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (SqlPropertyValue<?> pv : propertyValue) {
-            tempColumn.add(pv.getName());
-            tempValues.add("?");
-            if (pv.getValue() != null) {
-                params.add(pv.getValue());
-            } else {
-                params.addNull();
-            }
+        SqlParams params = new SqlParams(values.length);
+        for (int i = 0; i < values.length; i++) {
+            params.add(values[i]);
         }
-        String sql = String.format("insert into %s (%s) values (%s) ", this.sqlTableName, String.join(",",tempColumn), String.join(",",tempValues));
+        String sql = meta == this.metadata ? this.insertAllSQL : this.buildInsertAllSQL(meta);
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("insertAllSQL : " + result.toString());
@@ -326,24 +869,37 @@ public abstract class AbstractStatementSQL implements SQLStatement {
 
     @Override
     public <T> SqlAndParams insertNonEmptySQL(T obj) {
-        JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (SqlPropertyValue<?> pv : propertyValue) {
-            if (pv.getValue() != null) {
-				tempColumn.add(pv.getName());
-				tempValues.add("?");
-                params.add(pv.getValue());
+        SqlParams params = new SqlParams(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                params.add(values[i]);
             }
         }
-        ;
-        String sql = String.format("insert into %s (%s) values (%s) ", this.sqlTableName,String.join(",",tempColumn) , String.join(",",tempValues));
+        long mask = this.getNonEmptyMask(meta, values);
+        String sql = this.getMaskSQL("insertNonEmpty", mask, null);
+        if (sql == null) {
+            StringBuilder tempColumn = new StringBuilder();
+            StringBuilder tempValues = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    if (tempColumn.length() > 0) {
+                        tempColumn.append(",");
+                        tempValues.append(",");
+                    }
+                    tempColumn.append(meta.getColumn(i));
+                    tempValues.append("?");
+                }
+            }
+            sql = this.putMaskSQL("insertNonEmpty", mask, null,
+                    String.format("insert into %s (%s) values (%s) ", this.sqlTableName, tempColumn, tempValues));
+        }
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("insertNonEmptySQL : " + result.toString());
@@ -351,37 +907,199 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         return result;
     }
 
+    @Override
+    public <T> List<SqlAndParams> insertAllBatchSQL(List<T> objs) {
+        return this.insertBatchSQL(objs, false, false, null, "insertAllBatchSQL");
+    }
+
+    @Override
+    public <T> List<SqlAndParams> insertNonEmptyBatchSQL(List<T> objs) {
+        return this.insertBatchSQL(objs, true, false, null, "insertNonEmptyBatchSQL");
+    }
+
+    @Override
+    public <T> List<SqlAndParams> upsertAllBatchSQL(List<T> objs, String dupCol) {
+        return this.insertBatchSQL(objs, false, true, dupCol, "upsertAllBatchSQL");
+    }
+
+    /**
+     * 获取批量upsert语句中values之后的部分,默认不支持返回null,支持的数据库需要重写该方法
+     *
+     * @param meta
+     *          元数据
+     * @param columns
+     *          插入的列
+     * @param dupCol
+     *          冲突列,可能为null
+     * @return
+     */
+    protected String getUpsertBatchSuffix(EntityMetadata meta, BitSet columns, String dupCol) {
+        return null;
+    }
+
+    /**
+     * 生成批量插入的语句,插入列相同的对象合并为多行values的语句,并按参数数量与估算大小拆分
+     *
+     * @param objs
+     *          对象集合
+     * @param nonEmpty
+     *          是否只插入不为null的属性
+     * @param upsert
+     *          是否为upsert语句,values之后的部分由{@link #getUpsertBatchSuffix(EntityMetadata, BitSet, String)}生成
+     * @param dupCol
+     *          upsert的冲突列
+     * @param name
+     *          日志中的名称
+     * @return
+     */
+    protected <T> List<SqlAndParams> insertBatchSQL(List<T> objs, boolean nonEmpty, boolean upsert, String dupCol, String name) {
+        List<SqlAndParams> result = new ArrayList<>();
+        if (objs == null || objs.isEmpty()) {
+            return result;
+        }
+        // key=[元数据,插入的列],value=各行的属性值
+        Map<List<Object>, List<Object[]>> groups = new LinkedHashMap<>();
+        for (T obj : objs) {
+            EntityMetadata meta = this.getMetadata(obj);
+            Object[] values;
+            try {
+                values = meta.getValues(obj);
+            } catch (Exception e) {
+                return Collections.singletonList(new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage()));
+            }
+            BitSet columns = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                if (!nonEmpty || values[i] != null) {
+                    columns.set(i);
+                }
+            }
+            if (columns.isEmpty()) {
+                return Collections.singletonList(new SqlAndParams(false, "The object has no value"));
+            }
+            groups.computeIfAbsent(Arrays.asList(meta, columns), k -> new ArrayList<>()).add(values);
+        }
+        int maxParams = this.getBatchMaxParams();
+        int maxBytes = this.getBatchMaxBytes();
+        for (Map.Entry<List<Object>, List<Object[]>> group : groups.entrySet()) {
+            EntityMetadata meta = (EntityMetadata) group.getKey().get(0);
+            BitSet columns = (BitSet) group.getKey().get(1);
+            int columnSize = columns.cardinality();
+            StringBuilder tempColumn = new StringBuilder();
+            StringBuilder tempValues = new StringBuilder("(");
+            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                if (tempColumn.length() > 0) {
+                    tempColumn.append(",");
+                    tempValues.append(",");
+                }
+                tempColumn.append(meta.getColumn(i));
+                tempValues.append("?");
+            }
+            String rowValues = tempValues.append(")").toString();
+            String head = String.format("insert into %s (%s) values ", this.sqlTableName, tempColumn);
+            String suffix = upsert ? this.getUpsertBatchSuffix(meta, columns, dupCol) : "";
+            if (suffix == null) {
+                return Collections.singletonList(new SqlAndParams(false, "The statement does not support " + name));
+            }
+            int rowLimit = Math.max(1, maxParams / columnSize);
+            StringBuilder sql = null;
+            SqlParams params = null;
+            int rows = 0;
+            int bytes = 0;
+            for (Object[] values : group.getValue()) {
+                int rowBytes = rowValues.length() + 1;
+                for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                    rowBytes += estimateSize(values[i]);
+                }
+                if (sql != null && (rows >= rowLimit || bytes + rowBytes > maxBytes)) {
+                    result.add(this.batchResult(sql, suffix, params, name));
+                    sql = null;
+                }
+                if (sql == null) {
+                    sql = new StringBuilder(head);
+                    params = new SqlParams(Math.min(rowLimit, group.getValue().size()) * columnSize);
+                    rows = 0;
+                    bytes = head.length() + suffix.length();
+                } else {
+                    sql.append(",");
+                }
+                sql.append(rowValues);
+                for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                    params.add(values[i]);
+                }
+                rows++;
+                bytes += rowBytes;
+            }
+            result.add(this.batchResult(sql, suffix, params, name));
+        }
+        return result;
+    }
+
+    /**
+     * 创建批量语句的结果
+     *
+     * @param sql
+     * @param suffix
+     *          values之后的部分
+     * @param params
+     * @param name
+     *          日志中的名称
+     * @return
+     */
+    private SqlAndParams batchResult(StringBuilder sql, String suffix, SqlParams params, String name) {
+        SqlAndParams result = new SqlAndParams(sql.append(" ").append(suffix).toString(), params);
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug(name + " : " + result.toString());
+        }
+        return result;
+    }
+
+    /**
+     * 估算参数在语句中占用的字节数
+     *
+     * @param value
+     * @return
+     */
+    protected int estimateSize(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence) {
+            // UTF-8最多3个字节,另加引号与转义
+            return ((CharSequence) value).length() * 3 + 2;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length * 2 + 3;
+        }
+        return 24;
+    }
+
     @Override
     public <T> SqlAndParams updateAllByIdSQL(T obj) {
         if (this.sqlPrimaryId == null) {
             return new SqlAndParams(false, "there is no primary key in your SQL statement");
         }
-        JsonArray params = new JsonArray();
-        LinkedList<String> tempColumn = new LinkedList<>();
         Object tempIdValue = null;
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (SqlPropertyValue<?> pv : propertyValue) {
-            if (pv.getName().equals(this.sqlPrimaryId)) {
-                tempIdValue = pv.getValue();
+        int idIndex = meta.indexOf(this.sqlPrimaryId);
+        SqlParams params = new SqlParams(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (i == idIndex) {
+                tempIdValue = values[i];
                 continue;
             }
-            tempColumn.add(pv.getName()+" = ? ");
-            if (pv.getValue() != null) {
-                params.add(pv.getValue());
-            } else {
-                params.addNull();
-            }
+            params.add(values[i]);
         }
         if (tempIdValue == null) {
             return new SqlAndParams(false, "there is no primary key in your SQL statement");
         }
         params.add(tempIdValue);
-        String sql = String.format("update %s set %s where %s = ? ", this.sqlTableName, String.join(",",tempColumn), this.sqlPrimaryId);
+        String sql = meta == this.metadata ? this.updateAllByIdSQL : this.buildUpdateAllByIdSQL(meta, idIndex);
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("updateAllByIdSQL : " + result.toString());
@@ -395,17 +1113,21 @@ public abstract class AbstractStatementSQL implements SQLStatement {
             return new SqlAndParams(false, "SqlAssist or SqlAssist.condition is null");
         }
         JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (SqlPropertyValue<?> pv : propertyValue) {
-			tempColumn.add(pv.getName()+" = ? ");
-            if (pv.getValue() != null) {
-                params.add(pv.getValue());
+        StringBuilder tempColumn = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                tempColumn.append(",");
+            }
+            tempColumn.append(meta.getColumn(i)).append(" = ? ");
+            if (values[i] != null) {
+                params.add(values[i]);
             } else {
                 params.addNull();
             }
@@ -414,7 +1136,7 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         StringBuilder whereStr = new StringBuilder();
         this.parseSqlAssist(assist,whereStr,params,false);
 
-        String sql = String.format("update %s set %s %s", this.sqlTableName, String.join(",",tempColumn), whereStr);
+        String sql = String.format("update %s set %s %s", this.sqlTableName, tempColumn, whereStr);
 
         SqlAndParams result = new SqlAndParams(sql, params);
 
@@ -432,33 +1154,47 @@ public abstract class AbstractStatementSQL implements SQLStatement {
             }
             return new SqlAndParams(false, "there is no primary key in your SQL statement");
         }
-        JsonArray params = new JsonArray();
-        LinkedList<String> tempColumn = new LinkedList<>();
         Object tempIdValue = null;
-        List<SqlPropertyValue<?>> propertyValue;
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
-        for (SqlPropertyValue<?> pv : propertyValue) {
-            if (pv.getName().equals(this.sqlPrimaryId)) {
-                tempIdValue = pv.getValue();
+        int idIndex = meta.indexOf(this.sqlPrimaryId);
+        SqlParams params = new SqlParams(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (i == idIndex) {
+                tempIdValue = values[i];
                 continue;
             }
-            if (pv.getValue() != null) {
-                tempColumn.add(pv.getName()+ " = ? ");
-                params.add(pv.getValue());
+            if (values[i] != null) {
+                params.add(values[i]);
             }
         }
-        if (tempColumn.isEmpty() || tempIdValue == null) {
+        if (params.size() == 0 || tempIdValue == null) {
             if (this.getLOG().isDebugEnabled()) {
                 this.getLOG().debug("there is no set update value or no primary key in your SQL statement");
             }
             return new SqlAndParams(false, "there is no set update value or no primary key in your SQL statement");
         }
         params.add(tempIdValue);
-        String sql = String.format("update %s set %s where %s = ? ", this.sqlTableName, String.join(",",tempColumn), this.sqlPrimaryId);
+        long mask = this.getNonEmptyMask(meta, values);
+        String sql = this.getMaskSQL("updateNonEmptyById", mask, null);
+        if (sql == null) {
+            StringBuilder tempColumn = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i != idIndex && values[i] != null) {
+                    if (tempColumn.length() > 0) {
+                        tempColumn.append(",");
+                    }
+                    tempColumn.append(meta.getColumn(i)).append(" = ? ");
+                }
+            }
+            sql = this.putMaskSQL("updateNonEmptyById", mask, null,
+                    String.format("update %s set %s where %s = ? ", this.sqlTableName, tempColumn, this.sqlPrimaryId));
+        }
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
             this.getLOG().debug("updateNonEmptyByIdSQL : " + result.toString());
@@ -466,6 +1202,134 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         return result;
     }
 
+    @Override
+    public <T> List<SqlAndParams> updateNonEmptyByIdBatchSQL(List<T> objs) {
+        List<SqlAndParams> result = new ArrayList<>();
+        if (objs == null || objs.isEmpty()) {
+            return result;
+        }
+        if (this.sqlPrimaryId == null) {
+            return Collections.singletonList(new SqlAndParams(false, "there is no primary key in your SQL statement"));
+        }
+        // key=[元数据,更新的列],value=各行的属性值
+        Map<List<Object>, List<Object[]>> groups = new LinkedHashMap<>();
+        for (T obj : objs) {
+            EntityMetadata meta = this.getMetadata(obj);
+            Object[] values;
+            try {
+                values = meta.getValues(obj);
+            } catch (Exception e) {
+                return Collections.singletonList(new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage()));
+            }
+            int idIndex = meta.indexOf(this.sqlPrimaryId);
+            BitSet columns = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                if (i != idIndex && values[i] != null) {
+                    columns.set(i);
+                }
+            }
+            if (columns.isEmpty() || idIndex < 0 || values[idIndex] == null) {
+                return Collections.singletonList(
+                        new SqlAndParams(false, "there is no set update value or no primary key in your SQL statement"));
+            }
+            groups.computeIfAbsent(Arrays.asList(meta, columns), k -> new ArrayList<>()).add(values);
+        }
+        int maxParams = this.getBatchMaxParams();
+        int maxBytes = this.getBatchMaxBytes();
+        for (Map.Entry<List<Object>, List<Object[]>> group : groups.entrySet()) {
+            EntityMetadata meta = (EntityMetadata) group.getKey().get(0);
+            BitSet columns = (BitSet) group.getKey().get(1);
+            int idIndex = meta.indexOf(this.sqlPrimaryId);
+            int rowLimit = Math.max(1, maxParams / this.getUpdateBatchParams(columns.cardinality()));
+            List<Object[]> rows = new ArrayList<>();
+            int bytes = 0;
+            for (Object[] values : group.getValue()) {
+                int rowBytes = 16 + columns.cardinality() * 16 + estimateSize(values[idIndex]);
+                for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                    rowBytes += estimateSize(values[i]);
+                }
+                if (!rows.isEmpty() && (rows.size() >= rowLimit || bytes + rowBytes > maxBytes)) {
+                    result.add(this.updateBatchResult(meta, idIndex, columns, rows));
+                    rows = new ArrayList<>();
+                    bytes = 0;
+                }
+                rows.add(values);
+                bytes += rowBytes;
+            }
+            result.add(this.updateBatchResult(meta, idIndex, columns, rows));
+        }
+        return result;
+    }
+
+    /**
+     * 创建批量更新语句的结果
+     *
+     * @param meta
+     * @param idIndex
+     * @param columns
+     * @param rows
+     * @return
+     */
+    private SqlAndParams updateBatchResult(EntityMetadata meta, int idIndex, BitSet columns, List<Object[]> rows) {
+        SqlParams params = new SqlParams(rows.size() * this.getUpdateBatchParams(columns.cardinality()));
+        String sql = this.getUpdateBatchSQL(meta, idIndex, columns, rows, params);
+        SqlAndParams result = new SqlAndParams(sql, params);
+        if (this.getLOG().isDebugEnabled()) {
+            this.getLOG().debug("updateNonEmptyByIdBatchSQL : " + result.toString());
+        }
+        return result;
+    }
+
+    /**
+     * 获取批量更新语句中每个对象占用的参数数量
+     *
+     * @param columnSize
+     *          更新的列数
+     * @return
+     */
+    protected int getUpdateBatchParams(int columnSize) {
+        return columnSize * 2 + 1;
+    }
+
+    /**
+     * 生成批量更新的语句并追加参数,默认使用case 主键 when ? then ? end的形式
+     *
+     * @param meta
+     *          元数据
+     * @param idIndex
+     *          主键的位置
+     * @param columns
+     *          更新的列
+     * @param rows
+     *          各行的属性值
+     * @param params
+     *          追加参数
+     * @return
+     */
+    protected String getUpdateBatchSQL(EntityMetadata meta, int idIndex, BitSet columns, List<Object[]> rows, SqlParams params) {
+        StringBuilder sql = new StringBuilder("update ").append(this.sqlTableName).append(" set ");
+        boolean first = true;
+        for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+            if (!first) {
+                sql.append(",");
+            }
+            first = false;
+            sql.append(meta.getColumn(i)).append(" = case ").append(this.sqlPrimaryId);
+            for (Object[] values : rows) {
+                sql.append(" when ? then ?");
+                params.add(values[idIndex]);
+                params.add(values[i]);
+            }
+            sql.append(" end ");
+        }
+        sql.append("where ").append(this.sqlPrimaryId).append(" in (");
+        for (int r = 0; r < rows.size(); r++) {
+            sql.append(r == 0 ? "?" : ",?");
+            params.add(rows.get(r)[idIndex]);
+        }
+        return sql.append(") ").toString();
+    }
+
     @Override
     public <T> SqlAndParams updateNonEmptyByAssistSQL(T obj, SqlAssist assist) {
         if (assist == null || assist.getCondition() == null || assist.getCondition().size() < 1) {
@@ -473,23 +1337,26 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         }
 
         JsonArray params = new JsonArray();
-        LinkedList<String> tempColumn = new LinkedList<>();
-        List<SqlPropertyValue<?>> propertyValue;
-
+        EntityMetadata meta = this.getMetadata(obj);
+        Object[] values;
         try {
-            propertyValue = getPropertyValue(obj);
+            values = meta.getValues(obj);
         } catch (Exception e) {
             return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
         }
 
-        for (SqlPropertyValue<?> pv : propertyValue) {
-            if (pv.getValue() != null) {
-				tempColumn.add(pv.getName()+ " = ? ");
-				params.add(pv.getValue());
+        StringBuilder tempColumn = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                if (tempColumn.length() > 0) {
+                    tempColumn.append(",");
+                }
+                tempColumn.append(meta.getColumn(i)).append(" = ? ");
+                params.add(values[i]);
             }
         }
 
-        if (tempColumn.isEmpty()) {
+        if (tempColumn.length() == 0) {
             return new SqlAndParams(false, "The object has no value");
         }
 
@@ -497,7 +1364,7 @@ public abstract class AbstractStatementSQL implements SQLStatement {
 
         this.parseSqlAssist(assist,whereStr,params,false);
 
-        String sql = String.format("update %s set %s %s", this.sqlTableName, String.join(",",tempColumn), whereStr);
+        String sql = String.format("update %s set %s %s", this.sqlTableName, tempColumn, whereStr);
 
         SqlAndParams result = new SqlAndParams(sql, params);
 
@@ -565,8 +1432,8 @@ public abstract class AbstractStatementSQL implements SQLStatement {
         if (this.sqlPrimaryId == null) {
             return new SqlAndParams(false, "there is no primary key in your SQL statement");
         }
-        String sql = String.format("delete from %s where %s = ? ", this.sqlTableName, this.sqlPrimaryId);
-        JsonArray params = new JsonArray();
+        String sql = this.deleteByIdSQL;
+        SqlParams params = new SqlParams(1);
         params.add(primaryValue);
         SqlAndParams result = new SqlAndParams(sql, params);
         if (this.getLOG().isDebugEnabled()) {
@@ -592,4 +1459,99 @@ public abstract class AbstractStatementSQL implements SQLStatement {
     }
 
     protected abstract Logger getLOG();
+
+    /**
+     * SqlAssist语句缓存的key,由语句前后缀与SqlAssist的结构组成,不包含参数值
+     */
+    private static final class AssistSQLKey {
+        private final String prefix;
+        private final String suffix;
+        private final String join;
+        private final String[] requires;
+        private final String groupBy;
+        private final String having;
+        private final String order;
+        private final String distinct;
+        private final String resultColumn;
+        private final boolean page;
+        private final int hash;
+
+        AssistSQLKey(String prefix, SqlAssist assist, boolean withPage, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.join = assist.getJoinOrReference();
+            List<SqlWhereCondition<?>> where = assist.getCondition();
+            if (where == null) {
+                this.requires = null;
+            } else {
+                this.requires = new String[where.size()];
+                for (int i = 0; i < this.requires.length; i++) {
+                    this.requires[i] = where.get(i).getRequire();
+                }
+            }
+            this.groupBy = assist.getGroupBy();
+            this.having = assist.getHaving();
+            this.order = assist.getOrder();
+            this.distinct = assist.getDistinct();
+            this.resultColumn = assist.getResultColumn();
+            this.page = withPage && assist.getStartRow() != null;
+            int result = Objects.hash(prefix, suffix, this.join, this.groupBy, this.having, this.order, this.distinct, this.resultColumn, this.page);
+            this.hash = result * 31 + Arrays.hashCode(this.requires);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof AssistSQLKey)) {
+                return false;
+            }
+            AssistSQLKey other = (AssistSQLKey) obj;
+            return this.hash == other.hash && this.page == other.page && Objects.equals(this.prefix, other.prefix)
+                    && Objects.equals(this.suffix, other.suffix) && Objects.equals(this.join, other.join)
+                    && Arrays.equals(this.requires, other.requires) && Objects.equals(this.groupBy, other.groupBy)
+                    && Objects.equals(this.having, other.having) && Objects.equals(this.order, other.order)
+                    && Objects.equals(this.distinct, other.distinct) && Objects.equals(this.resultColumn, other.resultColumn);
+        }
+    }
+
+    /**
+     * 位图语句缓存的key
+     */
+    private static final class MaskSQLKey {
+        private final String type;
+        private final long mask;
+        private final String extra;
+
+        MaskSQLKey(String type, long mask, String extra) {
+            this.type = type;
+            this.mask = mask;
+            this.extra = extra;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.type.hashCode() * 31 + Long.hashCode(this.mask);
+            return this.extra == null ? result : result * 31 + this.extra.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MaskSQLKey)) {
+                return false;
+            }
+            MaskSQLKey other = (MaskSQLKey) obj;
+            return this.mask == other.mask && this.type.equals(other.type)
+                    && (this.extra == null ? other.extra == null : this.extra.equals(other.extra));
+        }
+    }
 }
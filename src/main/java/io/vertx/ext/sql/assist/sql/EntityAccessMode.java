@@ -0,0 +1,13 @@
+package io.vertx.ext.sql.assist.sql;
+
+/**
+ * 没有编译时生成的{@link EntityDescriptor}时,读取实体类属性的方式
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public enum EntityAccessMode {
+	/** 通过java.lang.reflect.Field读取 */
+	REFLECTION,
+	/** 通过MethodHandle直接读取属性,所有属性组合为一个句柄调用,属性太多时使用反射 */
+	METHOD_HANDLE
+}
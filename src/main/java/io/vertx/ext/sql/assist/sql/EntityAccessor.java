@@ -0,0 +1,18 @@
+package io.vertx.ext.sql.assist.sql;
+
+/**
+ * 实体类属性的访问器,用于读取对象中所有列的值
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public interface EntityAccessor {
+	/**
+	 * 获取对象所有列的值,主键在第一位,其余按属性的声明顺序
+	 *
+	 * @param obj
+	 *          对象
+	 * @return
+	 * @throws IllegalAccessException
+	 */
+	Object[] getValues(Object obj) throws IllegalAccessException;
+}
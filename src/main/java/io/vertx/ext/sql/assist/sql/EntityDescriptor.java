@@ -0,0 +1,59 @@
+package io.vertx.ext.sql.assist.sql;
+
+import io.vertx.ext.sql.assist.processor.TableProcessor;
+
+/**
+ * 实体类的描述,由{@link TableProcessor}在编译时为带有@Table注解的类生成,类名为实体类名+{@link #SUFFIX}<br>
+ * 如果存在该类,{@link EntityMetadata}将直接使用该类的常量与生成的读取方法,不再通过反射解析注解与读取属性
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public interface EntityDescriptor extends EntityAccessor {
+	/** 生成类的后缀 */
+	String SUFFIX = "_SqlMeta";
+
+	/**
+	 * 获取表的名称(未经方言处理)
+	 *
+	 * @return
+	 */
+	String getTable();
+
+	/**
+	 * 获取列名(未经方言处理),按属性的声明顺序
+	 *
+	 * @return
+	 */
+	String[] getColumns();
+
+	/**
+	 * 获取列的别名,与{@link #getColumns()}一一对应,没有别名为空字符串
+	 *
+	 * @return
+	 */
+	String[] getAliases();
+
+	/**
+	 * 获取属性的类型,与{@link #getColumns()}一一对应
+	 *
+	 * @return
+	 */
+	Class<?>[] getTypes();
+
+	/**
+	 * 获取主键在{@link #getColumns()}中的位置
+	 *
+	 * @return
+	 */
+	int getPrimaryIndex();
+
+	/**
+	 * 获取对象所有列的值,主键在第一位,其余按属性的声明顺序
+	 *
+	 * @param obj
+	 *          对象
+	 * @return
+	 */
+	@Override
+	Object[] getValues(Object obj);
+}
@@ -0,0 +1,377 @@
+package io.vertx.ext.sql.assist.sql;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+
+/**
+ * 实体类的元数据,只在创建时解析一次注解,之后生成语句时直接使用<br>
+ * 列名已经按数据库方言处理过,主键固定在第一位,属性访问器与列名一一对应<br>
+ * 如果存在编译时生成的{@link EntityDescriptor}则优先使用,否则通过反射解析,并按{@link EntityAccessMode}创建属性访问器
+ *
+ * @author <a href="https://mirrentools.org/">Mirren</a>
+ */
+public final class EntityMetadata {
+	/** 没有编译时生成的描述时读取属性的方式 */
+	private static volatile EntityAccessMode accessMode = EntityAccessMode.METHOD_HANDLE;
+
+	/**
+	 * 设置读取属性的方式,只对之后创建的元数据有效
+	 *
+	 * @param mode
+	 *          读取方式
+	 */
+	public static void registerAccessMode(EntityAccessMode mode) {
+		accessMode = Objects.requireNonNull(mode, "EntityAccessMode can not be null");
+	}
+
+	/**
+	 * 获取读取属性的方式
+	 *
+	 * @return
+	 */
+	public static EntityAccessMode getAccessMode() {
+		return accessMode;
+	}
+
+	/** 实体类 */
+	private final Class<?> entity;
+	/** 表的名称,没有{@link Table}注解时为null */
+	private final String tableName;
+	/** 主键的名称,没有{@link TableId}注解时为null */
+	private final String primaryId;
+	/** 返回列 */
+	private final String resultColumns;
+	/** 列名,如果存在主键则主键在第一位 */
+	private final String[] columns;
+	/** 属性的类型,与columns一一对应 */
+	private final Class<?>[] types;
+	/** 属性访问器 */
+	private final EntityAccessor accessor;
+
+	private EntityMetadata(Class<?> entity, String tableName, String primaryId, String resultColumns, String[] columns, Class<?>[] types,
+			EntityAccessor accessor) {
+		this.entity = entity;
+		this.tableName = tableName;
+		this.primaryId = primaryId;
+		this.resultColumns = resultColumns;
+		this.columns = columns;
+		this.types = types;
+		this.accessor = accessor;
+	}
+
+	/**
+	 * 解析实体类的元数据
+	 *
+	 * @param entity
+	 *          实体类
+	 * @param nameValue
+	 *          表名与列名的处理方法 name to `name`
+	 * @param aliasValue
+	 *          别名的处理方法 name to `name`
+	 * @return
+	 */
+	public static EntityMetadata of(Class<?> entity, UnaryOperator<String> nameValue, UnaryOperator<String> aliasValue) {
+		EntityDescriptor descriptor = findDescriptor(entity);
+		if (descriptor != null) {
+			return of(entity, descriptor, nameValue, aliasValue);
+		}
+		Table table = entity.getAnnotation(Table.class);
+		String tableName = (table == null || table.value().isEmpty()) ? null : nameValue.apply(table.value());
+		String primaryId = null;
+		Field primaryField = null;
+		List<String> result = new ArrayList<>();
+		List<String> columns = new ArrayList<>();
+		List<Field> fields = new ArrayList<>();
+		for (Field field : entity.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			TableId tableId = field.getAnnotation(TableId.class);
+			TableColumn tableCol = field.getAnnotation(TableColumn.class);
+			String name;
+			String alias;
+			if (tableId != null) {
+				name = tableId.value();
+				alias = tableId.alias();
+			} else if (tableCol != null) {
+				name = tableCol.value();
+				alias = tableCol.alias();
+			} else {
+				continue;
+			}
+			if (name.isEmpty()) {
+				continue;
+			}
+			field.setAccessible(true);
+			String column = nameValue.apply(name);
+			result.add(alias.isEmpty() ? column : column + " AS " + aliasValue.apply(alias));
+			if (tableId != null && primaryId == null) {
+				primaryId = column;
+				primaryField = field;
+				continue;
+			}
+			columns.add(column);
+			fields.add(field);
+		}
+		if (primaryField != null) {
+			columns.add(0, primaryId);
+			fields.add(0, primaryField);
+		}
+		Field[] fieldArray = fields.toArray(new Field[0]);
+		Class<?>[] types = new Class<?>[fieldArray.length];
+		for (int i = 0; i < fieldArray.length; i++) {
+			types[i] = fieldArray[i].getType();
+		}
+		// 属性太多时无法组合为一个句柄
+		EntityAccessor accessor = accessMode == EntityAccessMode.METHOD_HANDLE && fieldArray.length <= HandleAccessor.MAX_FIELDS
+				? new HandleAccessor(fieldArray)
+				: new FieldAccessor(fieldArray);
+		return new EntityMetadata(entity, tableName, primaryId, String.join(",", result), columns.toArray(new String[0]), types, accessor);
+	}
+
+	/**
+	 * 通过编译时生成的描述创建元数据
+	 *
+	 * @param entity
+	 *          实体类
+	 * @param descriptor
+	 *          实体类的描述
+	 * @param nameValue
+	 *          表名与列名的处理方法 name to `name`
+	 * @param aliasValue
+	 *          别名的处理方法 name to `name`
+	 * @return
+	 */
+	public static EntityMetadata of(Class<?> entity, EntityDescriptor descriptor, UnaryOperator<String> nameValue,
+			UnaryOperator<String> aliasValue) {
+		String[] names = descriptor.getColumns();
+		String[] aliases = descriptor.getAliases();
+		Class<?>[] declaredTypes = descriptor.getTypes();
+		int primaryIndex = descriptor.getPrimaryIndex();
+		String tableName = descriptor.getTable() == null ? null : nameValue.apply(descriptor.getTable());
+		String primaryId = primaryIndex < 0 ? null : nameValue.apply(names[primaryIndex]);
+		List<String> result = new ArrayList<>();
+		List<String> columns = new ArrayList<>();
+		List<Class<?>> types = new ArrayList<>();
+		for (int i = 0; i < names.length; i++) {
+			String column = nameValue.apply(names[i]);
+			result.add(aliases[i].isEmpty() ? column : column + " AS " + aliasValue.apply(aliases[i]));
+			if (i == primaryIndex) {
+				continue;
+			}
+			columns.add(column);
+			types.add(declaredTypes[i]);
+		}
+		if (primaryIndex >= 0) {
+			columns.add(0, primaryId);
+			types.add(0, declaredTypes[primaryIndex]);
+		}
+		return new EntityMetadata(entity, tableName, primaryId, String.join(",", result), columns.toArray(new String[0]),
+				types.toArray(new Class<?>[0]), descriptor);
+	}
+
+	/**
+	 * 查找编译时生成的实体类描述
+	 *
+	 * @param entity
+	 *          实体类
+	 * @return 不存在返回null
+	 */
+	private static EntityDescriptor findDescriptor(Class<?> entity) {
+		try {
+			Class<?> clz = Class.forName(entity.getName() + EntityDescriptor.SUFFIX, true, entity.getClassLoader());
+			if (!EntityDescriptor.class.isAssignableFrom(clz)) {
+				return null;
+			}
+			return (EntityDescriptor) clz.getDeclaredConstructor().newInstance();
+		} catch (Exception | LinkageError e) {
+			// 没有生成描述类,使用反射解析
+			return null;
+		}
+	}
+
+	/**
+	 * 获取对象所有列的值,顺序与{@link #getColumns()}一致
+	 *
+	 * @param obj
+	 *          对象
+	 * @return
+	 * @throws IllegalAccessException
+	 */
+	public Object[] getValues(Object obj) throws IllegalAccessException {
+		return accessor.getValues(obj);
+	}
+
+	/**
+	 * 获取列所在的位置
+	 *
+	 * @param column
+	 *          列名(已按方言处理)
+	 * @return 不存在返回-1
+	 */
+	public int indexOf(String column) {
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].equals(column)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 获取实体类
+	 *
+	 * @return
+	 */
+	public Class<?> getEntity() {
+		return entity;
+	}
+
+	/**
+	 * 获取表的名称
+	 *
+	 * @return
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * 获取主键的名称
+	 *
+	 * @return
+	 */
+	public String getPrimaryId() {
+		return primaryId;
+	}
+
+	/**
+	 * 获取返回列
+	 *
+	 * @return
+	 */
+	public String getResultColumns() {
+		return resultColumns;
+	}
+
+	/**
+	 * 获取列的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return columns.length;
+	}
+
+	/**
+	 * 获取指定位置的列名
+	 *
+	 * @param index
+	 * @return
+	 */
+	public String getColumn(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * 获取指定位置属性的类型
+	 *
+	 * @param index
+	 * @return
+	 */
+	public Class<?> getType(int index) {
+		return types[index];
+	}
+
+	/**
+	 * 获取属性访问器
+	 *
+	 * @return
+	 */
+	public EntityAccessor getAccessor() {
+		return accessor;
+	}
+
+	@Override
+	public String toString() {
+		return "EntityMetadata [entity=" + entity.getName() + ", tableName=" + tableName + ", primaryId=" + primaryId + ", resultColumns="
+				+ resultColumns + "]";
+	}
+
+	/**
+	 * 通过反射读取属性的访问器
+	 *
+	 * @author <a href="https://mirrentools.org/">Mirren</a>
+	 */
+	private static class FieldAccessor implements EntityAccessor {
+		/** 属性,主键在第一位 */
+		private final Field[] fields;
+
+		FieldAccessor(Field[] fields) {
+			this.fields = fields;
+		}
+
+		@Override
+		public Object[] getValues(Object obj) throws IllegalAccessException {
+			Object[] values = new Object[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				values[i] = fields[i].get(obj);
+			}
+			return values;
+		}
+	}
+
+	/**
+	 * 通过MethodHandle读取属性的访问器,所有属性的读取句柄会被组合为一个(Object)Object[]的MethodHandle,<br>
+	 * 热点调用时JIT会为该句柄生成专用代码,避免Field.get的访问检查与逐个属性的调用<br>
+	 * 与{@link FieldAccessor}一样直接读取属性,不经过getter方法
+	 *
+	 * @author <a href="https://mirrentools.org/">Mirren</a>
+	 */
+	private static class HandleAccessor implements EntityAccessor {
+		/** 可以组合的属性数量上限,MethodHandle的参数数量不能超过255 */
+		static final int MAX_FIELDS = 250;
+		/** 读取所有属性的句柄,类型为(Object)Object[],主键在第一位 */
+		private final MethodHandle handle;
+
+		HandleAccessor(Field[] fields) {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodType getterType = MethodType.methodType(Object.class, Object.class);
+			MethodHandle[] getters = new MethodHandle[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				try {
+					// 属性已经setAccessible,不需要额外的访问权限
+					getters[i] = lookup.unreflectGetter(fields[i]).asType(getterType);
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException("Can not access field " + fields[i], e);
+				}
+			}
+			// (Object,Object...)Object[] -> 每个参数先经过对应的getter -> 所有参数都是同一个对象
+			MethodHandle array = MethodHandles.identity(Object[].class).asCollector(Object[].class, fields.length);
+			MethodHandle filtered = MethodHandles.filterArguments(array, 0, getters);
+			this.handle = MethodHandles.permuteArguments(filtered, MethodType.methodType(Object[].class, Object.class), new int[fields.length]);
+		}
+
+		@Override
+		public Object[] getValues(Object obj) {
+			try {
+				return (Object[]) handle.invokeExact(obj);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -1,13 +1,11 @@
 package io.vertx.ext.sql.assist.sql;
 
-import io.vertx.core.json.JsonArray;
+import java.util.BitSet;
+
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.sql.assist.core.SqlAndParams;
-import io.vertx.ext.sql.assist.core.SqlPropertyValue;
-
-import java.util.LinkedList;
-import java.util.List;
+import io.vertx.ext.sql.assist.core.SqlParams;
 
 /**
  * MySQL通用SQL操作
@@ -39,30 +37,31 @@ public class MySQLStatementSQL extends AbstractStatementSQL {
 
 	@Override
 	public <T> SqlAndParams upsertAllSQL(T obj, String dupCol) {
-		JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-		LinkedList<String> updateItems = new LinkedList<>();
-
-		List<SqlPropertyValue<?>> propertyValue;
+		EntityMetadata meta = this.getMetadata(obj);
+		Object[] values;
 		try {
-			propertyValue = getPropertyValue(obj);
+			values = meta.getValues(obj);
 		} catch (Exception e) {
 			return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
 		}
-		for (SqlPropertyValue<?> pv : propertyValue) {
-			tempColumn.add(pv.getName());
-			tempValues.add("?");
-			updateItems.add(pv.getName()+" = ? ");
-			if (pv.getValue() != null) {
-				params.add(pv.getValue());
-			} else {
-				params.addNull();
+		SqlParams params = new SqlParams(values.length);
+		StringBuilder tempColumn = new StringBuilder();
+		StringBuilder tempValues = new StringBuilder();
+		StringBuilder updateItems = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				tempColumn.append(",");
+				tempValues.append(",");
+				updateItems.append(",");
 			}
+			tempColumn.append(meta.getColumn(i));
+			tempValues.append("?");
+			updateItems.append(meta.getColumn(i)).append(" = VALUES(").append(meta.getColumn(i)).append(") ");
+			params.add(values[i]);
 		}
-		String sql = String.format("insert into %s (%s) values (%s) on duplicate key update %s", this.sqlTableName, String.join(",",tempColumn), String.join(",",tempValues),String.join(",",updateItems));
+		String sql = String.format("insert into %s (%s) values (%s) on duplicate key update %s", this.sqlTableName, tempColumn, tempValues, updateItems);
 
-		SqlAndParams result = new SqlAndParams(sql, new JsonArray().addAll(params).addAll(params));
+		SqlAndParams result = new SqlAndParams(sql, params);
 		if (this.getLOG().isDebugEnabled()) {
 			this.getLOG().debug("upsertAllSQL : " + result.toString());
 		}
@@ -71,32 +70,59 @@ public class MySQLStatementSQL extends AbstractStatementSQL {
 
 	@Override
 	public <T> SqlAndParams upsertNonEmptySQL(T obj, String dupCol) {
-		JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-		LinkedList<String> updateItems = new LinkedList<>();
-		List<SqlPropertyValue<?>> propertyValue;
+		EntityMetadata meta = this.getMetadata(obj);
+		Object[] values;
 		try {
-			propertyValue = getPropertyValue(obj);
+			values = meta.getValues(obj);
 		} catch (Exception e) {
 			return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
 		}
-		for (SqlPropertyValue<?> pv : propertyValue) {
-			if (pv.getValue() != null) {
-				tempColumn.add(pv.getName());
-				tempValues.add("?");
-				updateItems.add(pv.getName()+" = ? ");
-				params.add(pv.getValue());
+		SqlParams params = new SqlParams(values.length);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				params.add(values[i]);
+			}
+		}
+		long mask = this.getNonEmptyMask(meta, values);
+		String sql = this.getMaskSQL("upsertNonEmpty", mask, null);
+		if (sql == null) {
+			StringBuilder tempColumn = new StringBuilder();
+			StringBuilder tempValues = new StringBuilder();
+			StringBuilder updateItems = new StringBuilder();
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					if (tempColumn.length() > 0) {
+						tempColumn.append(",");
+						tempValues.append(",");
+						updateItems.append(",");
+					}
+					tempColumn.append(meta.getColumn(i));
+					tempValues.append("?");
+					updateItems.append(meta.getColumn(i)).append(" = VALUES(").append(meta.getColumn(i)).append(") ");
+				}
 			}
+			sql = this.putMaskSQL("upsertNonEmpty", mask, null,
+					String.format("insert into %s (%s) values (%s) on duplicate key update %s", this.sqlTableName, tempColumn, tempValues, updateItems));
 		}
-		String sql = String.format("insert into %s (%s) values (%s) on duplicate key update %s", this.sqlTableName, String.join(",",tempColumn), String.join(",",tempValues),String.join(",",updateItems));
-		SqlAndParams result = new SqlAndParams(sql, new JsonArray().addAll(params).addAll(params));
+		SqlAndParams result = new SqlAndParams(sql, params);
 		if (this.getLOG().isDebugEnabled()) {
 			this.getLOG().debug("upsertNonEmptySQL : " + result.toString());
 		}
 		return result;
 	}
 
+	@Override
+	protected String getUpsertBatchSuffix(EntityMetadata meta, BitSet columns, String dupCol) {
+		StringBuilder updateItems = new StringBuilder();
+		for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+			if (updateItems.length() > 0) {
+				updateItems.append(",");
+			}
+			updateItems.append(meta.getColumn(i)).append(" = VALUES(").append(meta.getColumn(i)).append(") ");
+		}
+		return "on duplicate key update " + updateItems;
+	}
+
 	@Override
 	public <T> SqlAndParams insertNonEmptySQLReturnId(T obj) {
 		return this.insertNonEmptySQL(obj);
@@ -1,13 +1,26 @@
 package io.vertx.ext.sql.assist.sql;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.sql.assist.core.SqlAndParams;
-import io.vertx.ext.sql.assist.core.SqlPropertyValue;
-
-import java.util.LinkedList;
-import java.util.List;
+import io.vertx.ext.sql.assist.core.SqlParams;
 
 /**
  * SQLite通用SQL操作
@@ -17,11 +30,69 @@ import java.util.List;
  */
 public class PostgreSQLStatementSQL extends AbstractStatementSQL {
 	private final Logger LOG = LoggerFactory.getLogger(PostgreSQLStatementSQL.class);
+	/** EXPLAIN结果中的估算行数 */
+	private static final Pattern EXPLAIN_ROWS = Pattern.compile("rows=(\\d+)");
+	/** Java类型对应的PostgreSQL类型 */
+	private static final Map<Class<?>, String> PG_TYPES = new HashMap<>();
+	static {
+		PG_TYPES.put(Long.class, "int8");
+		PG_TYPES.put(long.class, "int8");
+		PG_TYPES.put(Integer.class, "int4");
+		PG_TYPES.put(int.class, "int4");
+		PG_TYPES.put(Short.class, "int2");
+		PG_TYPES.put(short.class, "int2");
+		PG_TYPES.put(Double.class, "float8");
+		PG_TYPES.put(double.class, "float8");
+		PG_TYPES.put(Float.class, "float4");
+		PG_TYPES.put(float.class, "float4");
+		PG_TYPES.put(BigDecimal.class, "numeric");
+		PG_TYPES.put(Boolean.class, "bool");
+		PG_TYPES.put(boolean.class, "bool");
+		PG_TYPES.put(String.class, "text");
+		PG_TYPES.put(UUID.class, "uuid");
+		PG_TYPES.put(byte[].class, "bytea");
+		PG_TYPES.put(LocalDate.class, "date");
+		PG_TYPES.put(LocalTime.class, "time");
+		PG_TYPES.put(LocalDateTime.class, "timestamp");
+		PG_TYPES.put(OffsetDateTime.class, "timestamptz");
+		PG_TYPES.put(Instant.class, "timestamptz");
+		PG_TYPES.put(JsonObject.class, "jsonb");
+		PG_TYPES.put(JsonArray.class, "jsonb");
+	}
 
 	public PostgreSQLStatementSQL(Class<?> entity) {
 		super(entity);
 	}
 
+	@Override
+	protected String getTableStatsSQL() {
+		return "select reltuples::bigint AS estimated from pg_class where oid = ?::regclass";
+	}
+
+	@Override
+	protected String getTableStatsName() {
+		return this.sqlTableName;
+	}
+
+	/**
+	 * 解析估算行数,EXPLAIN的结果为文本,读取第一行中的rows=
+	 */
+	@Override
+	public long parseEstimatedCount(List<JsonObject> rows) {
+		if (rows == null || rows.isEmpty() || rows.get(0).containsKey("estimated")) {
+			return super.parseEstimatedCount(rows);
+		}
+		for (Object value : rows.get(0).getMap().values()) {
+			if (value != null) {
+				Matcher matcher = EXPLAIN_ROWS.matcher(value.toString());
+				if (matcher.find()) {
+					return Long.parseLong(matcher.group(1));
+				}
+			}
+		}
+		return -1;
+	}
+
 	@Override
 	protected String getAliasNameValue(String value) {
 		return "\""+value+"\"";
@@ -36,28 +107,30 @@ public class PostgreSQLStatementSQL extends AbstractStatementSQL {
 	public <T> SqlAndParams upsertAllSQL(T obj, String dupCol) {
 		if(dupCol==null||dupCol.trim().equals(""))
 			dupCol = this.sqlPrimaryId;
-		JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-		LinkedList<String> updateItems = new LinkedList<>();
-		List<SqlPropertyValue<?>> propertyValue;
+		EntityMetadata meta = this.getMetadata(obj);
+		Object[] values;
 		try {
-			propertyValue = getPropertyValue(obj);
+			values = meta.getValues(obj);
 		} catch (Exception e) {
 			return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
 		}
-		for (SqlPropertyValue<?> pv : propertyValue) {
-			tempColumn.add(pv.getName());
-			tempValues.add("?");
-			updateItems.add(pv.getName()+" = excluded."+pv.getName()+" ");
-			if (pv.getValue() != null) {
-				params.add(pv.getValue());
-			} else {
-				params.addNull();
+		SqlParams params = new SqlParams(values.length);
+		StringBuilder tempColumn = new StringBuilder();
+		StringBuilder tempValues = new StringBuilder();
+		StringBuilder updateItems = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				tempColumn.append(",");
+				tempValues.append(",");
+				updateItems.append(",");
 			}
+			tempColumn.append(meta.getColumn(i));
+			tempValues.append("?");
+			updateItems.append(meta.getColumn(i)).append(" = excluded.").append(meta.getColumn(i)).append(" ");
+			params.add(values[i]);
 		}
 		String sql = String.format("insert into %s (%s) values (%s) ON CONFLICT(%s) do update set %s",
-				this.sqlTableName, String.join(",",tempColumn), String.join(",",tempValues), dupCol,String.join(",",updateItems));
+				this.sqlTableName, tempColumn, tempValues, dupCol, updateItems);
 		SqlAndParams result = new SqlAndParams(sql, params);
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("upsertAllSQL : " + result.toString());
@@ -70,26 +143,40 @@ public class PostgreSQLStatementSQL extends AbstractStatementSQL {
 		if(dupCol==null||dupCol.trim().equals(""))
 			dupCol = this.sqlPrimaryId;
 
-		JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-		LinkedList<String> updateItems = new LinkedList<>();
-		List<SqlPropertyValue<?>> propertyValue;
+		EntityMetadata meta = this.getMetadata(obj);
+		Object[] values;
 		try {
-			propertyValue = getPropertyValue(obj);
+			values = meta.getValues(obj);
 		} catch (Exception e) {
 			return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
 		}
-		for (SqlPropertyValue<?> pv : propertyValue) {
-			if (pv.getValue() != null) {
-				tempColumn.add(pv.getName());
-				tempValues.add("?");
-				updateItems.add(pv.getName()+" = excluded."+pv.getName()+" ");
-				params.add(pv.getValue());
+		SqlParams params = new SqlParams(values.length);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				params.add(values[i]);
 			}
 		}
-		String sql = String.format("insert into %s (%s) values (%s) ON CONFLICT(%s) do update set %s",
-				this.sqlTableName,String.join(",",tempColumn), String.join(",",tempValues), dupCol,String.join(",",updateItems));
+		long mask = this.getNonEmptyMask(meta, values);
+		String sql = this.getMaskSQL("upsertNonEmpty", mask, dupCol);
+		if (sql == null) {
+			StringBuilder tempColumn = new StringBuilder();
+			StringBuilder tempValues = new StringBuilder();
+			StringBuilder updateItems = new StringBuilder();
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					if (tempColumn.length() > 0) {
+						tempColumn.append(",");
+						tempValues.append(",");
+						updateItems.append(",");
+					}
+					tempColumn.append(meta.getColumn(i));
+					tempValues.append("?");
+					updateItems.append(meta.getColumn(i)).append(" = excluded.").append(meta.getColumn(i)).append(" ");
+				}
+			}
+			sql = this.putMaskSQL("upsertNonEmpty", mask, dupCol, String.format("insert into %s (%s) values (%s) ON CONFLICT(%s) do update set %s",
+					this.sqlTableName, tempColumn, tempValues, dupCol, updateItems));
+		}
 		SqlAndParams result = new SqlAndParams(sql, params);
 		if (this.getLOG().isDebugEnabled()) {
 			this.getLOG().debug("upsertNonEmptySQL : " + result.toString());
@@ -97,25 +184,212 @@ public class PostgreSQLStatementSQL extends AbstractStatementSQL {
 		return result;
 	}
 
+	@Override
+	protected String getUpsertBatchSuffix(EntityMetadata meta, BitSet columns, String dupCol) {
+		if (dupCol == null || dupCol.trim().equals(""))
+			dupCol = this.sqlPrimaryId;
+		StringBuilder updateItems = new StringBuilder();
+		for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+			if (updateItems.length() > 0) {
+				updateItems.append(",");
+			}
+			updateItems.append(meta.getColumn(i)).append(" = excluded.").append(meta.getColumn(i)).append(" ");
+		}
+		return String.format("ON CONFLICT(%s) do update set %s", dupCol, updateItems);
+	}
+
+	@Override
+	protected int getUpdateBatchParams(int columnSize) {
+		return columnSize + 1;
+	}
+
+	/**
+	 * 使用update ... from (values ...) as v(...)的形式,每个参数都带有类型转换,避免values中的参数被推断为text
+	 */
+	@Override
+	protected String getUpdateBatchSQL(EntityMetadata meta, int idIndex, BitSet columns, List<Object[]> rows, SqlParams params) {
+		StringBuilder setItems = new StringBuilder();
+		StringBuilder names = new StringBuilder(meta.getColumn(idIndex));
+		for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+			if (setItems.length() > 0) {
+				setItems.append(",");
+			}
+			setItems.append(meta.getColumn(i)).append(" = v.").append(meta.getColumn(i)).append(" ");
+			names.append(",").append(meta.getColumn(i));
+		}
+		StringBuilder values = new StringBuilder();
+		for (int r = 0; r < rows.size(); r++) {
+			Object[] row = rows.get(r);
+			values.append(r == 0 ? "(" : ",(").append("?").append(getTypeCast(meta.getType(idIndex)));
+			params.add(row[idIndex]);
+			for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+				values.append(",?").append(getTypeCast(meta.getType(i)));
+				params.add(row[i]);
+			}
+			values.append(")");
+		}
+		return String.format("update %s as t set %s from (values %s) as v(%s) where t.%s = v.%s ", this.sqlTableName, setItems, values, names,
+				meta.getColumn(idIndex), meta.getColumn(idIndex));
+	}
+
+	/**
+	 * 存在没有对应PostgreSQL类型的非空属性时,values中的参数无法转换为列的类型,改为逐个对象生成update语句
+	 */
+	@Override
+	public <T> List<SqlAndParams> updateNonEmptyByIdBatchSQL(List<T> objs) {
+		return this.updateBatchOrEach(objs, false);
+	}
+
+	/**
+	 * 在update ... from (values ...)后追加returning t.主键,返回每条语句实际更新的主键;<br>
+	 * 语句是写操作,不能与相同的查询合并({@link SqlAndParams#setCoalesce(boolean)})
+	 */
+	@Override
+	public <T> List<SqlAndParams> updateNonEmptyByIdBatchSQLReturnId(List<T> objs) {
+		return this.updateBatchOrEach(objs, true);
+	}
+
+	/**
+	 * 生成批量更新语句,存在无法转换类型的属性时逐个对象生成update语句
+	 *
+	 * @param objs
+	 *          对象
+	 * @param returnId
+	 *          是否返回更新的主键
+	 * @return
+	 */
+	private <T> List<SqlAndParams> updateBatchOrEach(List<T> objs, boolean returnId) {
+		if (objs == null || !this.hasUncastValue(objs)) {
+			List<SqlAndParams> result = super.updateNonEmptyByIdBatchSQL(objs);
+			if (returnId) {
+				for (SqlAndParams qp : result) {
+					if (qp.succeeded()) {
+						qp.setSql(qp.getSql() + "returning t." + this.sqlPrimaryId).setCoalesce(false);
+					}
+				}
+			}
+			return result;
+		}
+		List<SqlAndParams> result = new ArrayList<>(objs.size());
+		for (T obj : objs) {
+			SqlAndParams qp = this.updateNonEmptyByIdSQL(obj);
+			if (returnId && qp.succeeded()) {
+				qp.setSql(qp.getSql() + "returning " + this.sqlPrimaryId).setCoalesce(false);
+			}
+			result.add(qp);
+		}
+		return result;
+	}
+
+	/**
+	 * 对象中是否有非空属性的类型没有对应的PostgreSQL类型
+	 *
+	 * @param objs
+	 * @return 获取属性值失败时返回false,由批量语句返回失败的结果
+	 */
+	private <T> boolean hasUncastValue(List<T> objs) {
+		for (T obj : objs) {
+			EntityMetadata meta = this.getMetadata(obj);
+			Object[] values;
+			try {
+				values = meta.getValues(obj);
+			} catch (Exception e) {
+				return false;
+			}
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null && this.getTypeCast(meta.getType(i)).isEmpty()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 主键为已知类型时使用= ANY(?)绑定一个数组参数,语句不随主键的数量变化,可以重用预处理语句;<br>
+	 * 数组以文本形式传递再转换为主键的类型,新旧客户端都可以使用;未知类型的主键使用in (?,...)
+	 */
+	@Override
+	public <S> SqlAndParams selectByIdsSQL(List<S> primaryValues, String resultColumns, String joinOrReference) {
+		String cast = this.getTypeCast(this.metadata.getType(0));
+		if (primaryValues == null || primaryValues.isEmpty() || cast.isEmpty() || "::bytea".equals(cast) || "::jsonb".equals(cast)) {
+			return super.selectByIdsSQL(primaryValues, resultColumns, joinOrReference);
+		}
+		String sql = String.format("select %s.%s,%s.%s AS %s from %s %s where %s.%s = ANY(?::text%s[]) ", this.sqlTableName,
+				(resultColumns == null ? this.sqlResultColumns : resultColumns), this.sqlTableName, this.sqlPrimaryId, ID_COLUMN, this.sqlTableName,
+				(joinOrReference == null ? "" : joinOrReference), this.sqlTableName, this.sqlPrimaryId, cast);
+		StringBuilder array = new StringBuilder("{");
+		for (int i = 0; i < primaryValues.size(); i++) {
+			if (i > 0) {
+				array.append(',');
+			}
+			Object value = primaryValues.get(i);
+			if (value == null) {
+				array.append("NULL");
+			} else {
+				array.append('"').append(value.toString().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+			}
+		}
+		array.append('}');
+		SqlParams params = new SqlParams(1);
+		params.add(array.toString());
+		SqlAndParams result = new SqlAndParams(sql, params);
+		if (this.getLOG().isDebugEnabled()) {
+			this.getLOG().debug("selectByIdsSQL : " + result.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * 游标中以字符串保存的日期时间,UUID等值先作为文本传递再转换为列的类型,避免与列的类型不一致
+	 */
+	@Override
+	protected String getKeysetPlaceholder(Class<?> type, Object value) {
+		if (!(value instanceof String) || type == null || type == String.class) {
+			return "?";
+		}
+		String cast = this.getTypeCast(type);
+		if (cast.isEmpty() || "::bytea".equals(cast) || "::jsonb".equals(cast)) {
+			return "?";
+		}
+		return "?::text" + cast;
+	}
+
+	/**
+	 * 获取Java类型对应的PostgreSQL类型转换,未知的类型返回空字符串
+	 *
+	 * @param type
+	 * @return
+	 */
+	protected String getTypeCast(Class<?> type) {
+		String name = PG_TYPES.get(type);
+		return name == null ? "" : "::" + name;
+	}
+
 	@Override
 	public <T> SqlAndParams insertNonEmptySQLReturnId(T obj) {
-		JsonArray params = new JsonArray();
-		LinkedList<String> tempColumn = new LinkedList<>();
-		LinkedList<String> tempValues = new LinkedList<>();
-		List<SqlPropertyValue<?>> propertyValue;
+		EntityMetadata meta = this.getMetadata(obj);
+		Object[] values;
 		try {
-			propertyValue = getPropertyValue(obj);
+			values = meta.getValues(obj);
 		} catch (Exception e) {
 			return new SqlAndParams(false, " Get SqlPropertyValue failed: " + e.getMessage());
 		}
-		for (SqlPropertyValue<?> pv : propertyValue) {
-			if (pv.getValue() != null) {
-				tempColumn.add(pv.getName());
-				tempValues.add("?");
-				params.add(pv.getValue());
+		SqlParams params = new SqlParams(values.length);
+		StringBuilder tempColumn = new StringBuilder();
+		StringBuilder tempValues = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				if (tempColumn.length() > 0) {
+					tempColumn.append(",");
+					tempValues.append(",");
+				}
+				tempColumn.append(meta.getColumn(i));
+				tempValues.append("?");
+				params.add(values[i]);
 			}
 		}
-		String sql = String.format("insert into %s (%s) values (%s) returning %s", this.sqlTableName, String.join(",",tempColumn), String.join(",",tempValues), this.sqlPrimaryId);
+		String sql = String.format("insert into %s (%s) values (%s) returning %s", this.sqlTableName, tempColumn, tempValues, this.sqlPrimaryId);
 		SqlAndParams result = new SqlAndParams(sql, params);
 		if (this.getLOG().isDebugEnabled()) {
 			this.getLOG().debug("insertNonEmptySQLReturnId : " + result.toString());
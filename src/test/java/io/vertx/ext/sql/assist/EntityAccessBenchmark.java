@@ -0,0 +1,66 @@
+package io.vertx.ext.sql.assist;
+
+import io.vertx.ext.sql.assist.core.SQLStatement;
+import io.vertx.ext.sql.assist.sql.EntityAccessMode;
+import io.vertx.ext.sql.assist.sql.EntityMetadata;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+/**
+ * 比较不同属性读取方式生成语句的耗时,直接运行main方法
+ */
+public class EntityAccessBenchmark {
+    private static final int WARMUP = 200_000;
+    private static final int ROUNDS = 2_000_000;
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 2; i++) {
+            for (EntityAccessMode mode : EntityAccessMode.values()) {
+                EntityMetadata.registerAccessMode(mode);
+                SQLStatement statement = new MySQLStatementSQL(User.class);
+                System.out.println(mode + " (" + statement.getClass().getSimpleName() + "): getValues " + getValues(statement) + " ns/op, insertAllSQL "
+                        + insertAll(statement) + " ns/op");
+            }
+        }
+    }
+
+    private static double getValues(SQLStatement statement) {
+        EntityMetadata metadata = ((MySQLStatementSQL) statement).getEntityMetadata();
+        User user = newUser();
+        long sink = 0;
+        try {
+            for (int i = 0; i < WARMUP; i++) {
+                sink += metadata.getValues(user).length;
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                sink += metadata.getValues(user).length;
+            }
+            double result = (System.nanoTime() - start) / (double) ROUNDS;
+            return sink == 0 ? -1 : result;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double insertAll(SQLStatement statement) {
+        User user = newUser();
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += statement.insertAllSQL(user).getSql().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += statement.insertAllSQL(user).getSql().length();
+        }
+        double result = (System.nanoTime() - start) / (double) ROUNDS;
+        return sink == 0 ? -1 : result;
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("benchmark");
+        user.setPwd("123456");
+        return user;
+    }
+}
@@ -0,0 +1,34 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import com.github.jasync.sql.db.mysql.exceptions.MySQLException;
+import com.github.jasync.sql.db.mysql.message.server.ErrorMessage;
+
+public class MySQLLoadDataLoaderTest {
+
+    @Test
+    public void testErrorCodeFromDrivers() {
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new io.vertx.mysqlclient.MySQLException("not allowed", 1148, "42000")));
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new MySQLException(new ErrorMessage(3948, "42000", "disabled"))));
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new SQLException("not allowed", "42000", 1148)));
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new RuntimeException(new SQLException("disabled", "42000", 3948))));
+        // 错误码不同时不匹配消息
+        assertFalse(MySQLLoadDataLoader.isLocalInfileDisabled(new io.vertx.mysqlclient.MySQLException("row 1148 too long", 1406, "22001")));
+        assertFalse(MySQLLoadDataLoader.isLocalInfileDisabled(new SQLException("ERROR 1148", "42000", 1064)));
+    }
+
+    @Test
+    public void testErrorMessagePattern() {
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new IllegalStateException("ERROR 1148 (42000): The used command is not allowed")));
+        assertTrue(MySQLLoadDataLoader.isLocalInfileDisabled(new IllegalStateException("ERROR 3948 (42000): Loading local data is disabled")));
+        assertFalse(MySQLLoadDataLoader.isLocalInfileDisabled(new IllegalStateException("Duplicate entry '1148' for key 'PRIMARY'")));
+        assertFalse(MySQLLoadDataLoader.isLocalInfileDisabled(new IllegalStateException("ERROR 11480")));
+        assertFalse(MySQLLoadDataLoader.isLocalInfileDisabled(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,66 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class PgCopyLoaderTest {
+
+    private static String write(Object value) {
+        Buffer buffer = Buffer.buffer();
+        PgCopyLoader.writeValue(value, buffer);
+        return buffer.toString();
+    }
+
+    @Test
+    public void testNull() {
+        assertEquals("\\N", write(null));
+        // 字符串\N需要与NULL区分
+        assertEquals("\\\\N", write("\\N"));
+    }
+
+    @Test
+    public void testEscapeControlCharacters() {
+        assertEquals("a\\tb\\nc\\rd\\\\e\\bf\\fg\\vh", write("a\tb\nc\rd\\e\bf\fg\u000Bh"));
+        assertEquals("plain", write("plain"));
+        assertEquals("中文", write("中文"));
+    }
+
+    @Test
+    public void testScalars() {
+        assertEquals("t", write(true));
+        assertEquals("f", write(false));
+        assertEquals("-12", write(-12));
+        assertEquals("1.5", write(1.5d));
+    }
+
+    @Test
+    public void testBytea() {
+        assertEquals("\\\\x00ff7f", write(new byte[]{0, (byte) 0xff, 0x7f}));
+        assertEquals("\\\\x", write(new byte[0]));
+    }
+
+    @Test
+    public void testDates() {
+        Instant instant = Instant.parse("2020-01-02T03:04:05.006Z");
+        assertEquals("2020-01-02T03:04:05.006Z", write(Date.from(instant)));
+        assertEquals("2020-01-02T03:04:05.006Z", write(Timestamp.from(instant)));
+        assertEquals("2020-01-02", write(java.sql.Date.valueOf("2020-01-02")));
+        assertEquals("03:04:05", write(Time.valueOf("03:04:05")));
+    }
+
+    @Test
+    public void testJson() {
+        assertEquals("{\"a\":\"x\\\\ny\"}", write(new JsonObject().put("a", "x\ny")));
+        assertEquals("[1,\"\\\\t\"]", write(new JsonArray().add(1).add("\t")));
+    }
+}
@@ -0,0 +1,112 @@
+package io.vertx.ext.sql.assist.bulk;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+public class RowBufferStreamTest {
+
+    /**
+     * 暂停后仍然会发出行的上游
+     */
+    private static class PushStream implements ReadStream<String> {
+        private Handler<String> handler;
+        private Handler<Void> endHandler;
+
+        void push(String value) {
+            handler.handle(value);
+        }
+
+        void end() {
+            endHandler.handle(null);
+        }
+
+        @Override
+        public ReadStream<String> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public ReadStream<String> handler(Handler<String> handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        @Override
+        public ReadStream<String> pause() {
+            return this;
+        }
+
+        @Override
+        public ReadStream<String> resume() {
+            return this;
+        }
+
+        @Override
+        public ReadStream<String> fetch(long amount) {
+            return this;
+        }
+
+        @Override
+        public ReadStream<String> endHandler(Handler<Void> endHandler) {
+            this.endHandler = endHandler;
+            return this;
+        }
+    }
+
+    @Test
+    public void testFullChunkWaitsForDemand() {
+        PushStream source = new PushStream();
+        RowBufferStream<String> stream = new RowBufferStream<>(source, (row, buffer) -> buffer.appendString(row), 4);
+        List<String> chunks = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger();
+        stream.pause();
+        stream.handler(chunk -> chunks.add(chunk.toString()));
+        stream.endHandler(v -> ended.incrementAndGet());
+        source.push("abcd");
+        assertEquals(0, chunks.size());
+        source.push("ef");
+        assertEquals(0, chunks.size());
+        stream.fetch(1);
+        assertEquals(1, chunks.size());
+        assertEquals("abcdef", chunks.get(0));
+        source.push("gh");
+        source.end();
+        assertEquals(0, ended.get());
+        stream.fetch(1);
+        assertEquals(2, chunks.size());
+        assertEquals("gh", chunks.get(1));
+        assertEquals(1, ended.get());
+        assertEquals(3, stream.getRows());
+    }
+
+    @Test
+    public void testIteratorSource() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add("r" + i);
+        }
+        RowBufferStream<String> stream = new RowBufferStream<>(new IteratorReadStream<>(rows.iterator()), (row, buffer) -> buffer.appendString(row), 6);
+        StringBuilder result = new StringBuilder();
+        AtomicInteger chunks = new AtomicInteger();
+        stream.pause();
+        stream.handler(chunk -> {
+            chunks.incrementAndGet();
+            result.append(chunk);
+        });
+        stream.endHandler(v -> result.append("|end"));
+        while (!result.toString().endsWith("|end")) {
+            stream.fetch(1);
+        }
+        assertEquals("r0r1r2r3r4r5r6r7r8r9|end", result.toString());
+        assertEquals(4, chunks.get());
+    }
+}
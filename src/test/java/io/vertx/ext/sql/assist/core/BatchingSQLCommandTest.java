@@ -0,0 +1,213 @@
+package io.vertx.ext.sql.assist.core;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class BatchingSQLCommandTest {
+    private Vertx vertx;
+    /** 每次selectByIds的主键 */
+    private List<List<Object>> batches;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        batches = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    /**
+     * 只支持selectByIds的SQLCommand
+     *
+     * @param result
+     *          根据主键返回结果
+     */
+    private SQLCommand delegate(Function<List<Object>, Future<List<JsonObject>>> result) {
+        return (SQLCommand) Proxy.newProxyInstance(SQLCommand.class.getClassLoader(), new Class<?>[]{SQLCommand.class}, (proxy, method, args) -> {
+            if (!method.getName().equals("selectByIds") || args.length != 1) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            List<Object> ids = new ArrayList<>((Collection<?>) args[0]);
+            synchronized (batches) {
+                batches.add(ids);
+            }
+            return result.apply(ids);
+        });
+    }
+
+    /**
+     * 主键为偶数的数据不存在
+     */
+    private static Future<List<JsonObject>> rows(List<Object> ids) {
+        List<JsonObject> rows = new ArrayList<>();
+        for (Object id : ids) {
+            rows.add(((Long) id) % 2 == 0 ? null : new JsonObject().put("id", id));
+        }
+        return Future.succeededFuture(rows);
+    }
+
+    @Test
+    public void testSameTickMerge(TestContext context) {
+        BatchingSQLCommand command = new BatchingSQLCommand(delegate(BatchingSQLCommandTest::rows), vertx, 0, 100);
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            Future<JsonObject> a = command.selectById(1L);
+            Future<JsonObject> b = command.selectById(2L);
+            Future<JsonObject> c = command.selectById(1);
+            context.assertEquals(0, batches.size());
+            CompositeFuture.all(a, b, c).onComplete(context.asyncAssertSuccess(done -> {
+                context.assertEquals(1, batches.size());
+                context.assertEquals(2, batches.get(0).size());
+                context.assertEquals(1L, a.result().getLong("id"));
+                context.assertNull(b.result());
+                context.assertEquals(a.result(), c.result());
+                // 相同主键的调用者各得到一份副本
+                context.assertTrue(a.result() != c.result());
+                async.complete();
+            }));
+        });
+    }
+
+    @Test
+    public void testWindowFlush(TestContext context) {
+        BatchingSQLCommand command = new BatchingSQLCommand(delegate(BatchingSQLCommandTest::rows), vertx, 100_000, 100);
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            Future<JsonObject> a = command.selectById(1L);
+            vertx.setTimer(20, t1 -> {
+                Future<JsonObject> b = command.selectById(3L);
+                context.assertEquals(0, batches.size());
+                CompositeFuture.all(a, b).onComplete(context.asyncAssertSuccess(done -> {
+                    context.assertEquals(1, batches.size());
+                    context.assertEquals(2, batches.get(0).size());
+                    command.selectById(5L).onComplete(context.asyncAssertSuccess(row -> {
+                        context.assertEquals(2, batches.size());
+                        context.assertEquals(5L, row.getLong("id"));
+                        async.complete();
+                    }));
+                }));
+            });
+        });
+    }
+
+    @Test
+    public void testMaxBatchSize(TestContext context) {
+        BatchingSQLCommand command = new BatchingSQLCommand(delegate(BatchingSQLCommandTest::rows), vertx, 1_000_000, 2);
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            command.selectById(1L);
+            command.selectById(3L);
+            // 达到上限时立即执行
+            context.assertEquals(1, batches.size());
+            command.selectById(5L).onComplete(context.asyncAssertSuccess(row -> {
+                context.assertEquals(2, batches.size());
+                async.complete();
+            }));
+            // 与主键5组成满的一批
+            command.selectById(7L);
+        });
+    }
+
+    @Test
+    public void testFailureFanOut(TestContext context) {
+        BatchingSQLCommand command = new BatchingSQLCommand(delegate(ids -> Future.failedFuture("boom")), vertx, 0, 100);
+        Async async = context.async(3);
+        vertx.runOnContext(v -> {
+            for (long id : new long[]{1, 1, 2}) {
+                command.selectById(id).onComplete(context.asyncAssertFailure(e -> {
+                    context.assertEquals("boom", e.getMessage());
+                    async.countDown();
+                }));
+            }
+        });
+        async.awaitSuccess();
+        context.assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testUuidIds(TestContext context) {
+        // 执行器返回的UUID主键为字符串
+        SQLExecute<?> execute = (SQLExecute<?>) Proxy.newProxyInstance(SQLExecute.class.getClassLoader(), new Class<?>[]{SQLExecute.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("queryAsListObj")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    SqlParams params = ((SqlAndParams) args[0]).getSqlParams();
+                    List<Object> ids = new ArrayList<>();
+                    List<JsonObject> rows = new ArrayList<>();
+                    for (int i = 0; i < params.size(); i++) {
+                        ids.add(params.getValue(i));
+                        rows.add(new JsonObject().put(SQLStatement.ID_COLUMN, params.getValue(i).toString()).put("name", "n" + i));
+                    }
+                    synchronized (batches) {
+                        batches.add(ids);
+                    }
+                    return Future.succeededFuture(rows);
+                });
+        BatchingSQLCommand command = new BatchingSQLCommand(new SQLCommandImpl(new MySQLStatementSQL(User.class), execute), vertx, 0, 100);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            Future<JsonObject> first = command.selectById(a);
+            Future<JsonObject> second = command.selectById(b);
+            Future<JsonObject> same = command.selectById(UUID.fromString(a.toString()));
+            CompositeFuture.all(first, second, same).onComplete(context.asyncAssertSuccess(done -> {
+                context.assertEquals(1, batches.size());
+                context.assertEquals(2, batches.get(0).size());
+                context.assertEquals("n0", first.result().getString("name"));
+                context.assertEquals("n1", second.result().getString("name"));
+                context.assertEquals("n0", same.result().getString("name"));
+                async.complete();
+            }));
+        });
+    }
+
+    @Test
+    public void testCallerContext(TestContext context) {
+        // 在其他线程中完成查询
+        BatchingSQLCommand command = new BatchingSQLCommand(delegate(ids -> {
+            Promise<List<JsonObject>> promise = Promise.promise();
+            new Thread(() -> rows(ids).onComplete(promise)).start();
+            return promise.future();
+        }), vertx, 50_000, 100);
+        Context first = vertx.getOrCreateContext();
+        Context second = vertx.getOrCreateContext();
+        context.assertTrue(first != second);
+        Async async = context.async(2);
+        for (Context caller : new Context[]{first, second}) {
+            caller.runOnContext(v -> command.selectById(1L).onComplete(context.asyncAssertSuccess(row -> {
+                context.assertTrue(Vertx.currentContext() == caller);
+                context.assertEquals(1L, row.getLong("id"));
+                async.countDown();
+            })));
+        }
+        async.awaitSuccess();
+        context.assertEquals(1, batches.size());
+    }
+}
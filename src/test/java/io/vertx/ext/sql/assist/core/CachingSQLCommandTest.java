@@ -0,0 +1,56 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+public class CachingSQLCommandTest {
+
+    @Test
+    public void testLimitAllCachesDelegateResult() {
+        AtomicInteger limits = new AtomicInteger();
+        SQLCommand delegate = (SQLCommand) Proxy.newProxyInstance(SQLCommand.class.getClassLoader(), new Class<?>[]{SQLCommand.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "limitAll":
+                            limits.incrementAndGet();
+                            List<JsonObject> rows = new ArrayList<>();
+                            rows.add(new JsonObject().put("id", 1));
+                            // 估算的总行数只有delegate的分页方式才会返回
+                            return Future.succeededFuture(new SqlLimitResult<JsonObject>(100000, 1, 15).setEstimated(true).setData(rows));
+                        case "deleteById":
+                            return Future.succeededFuture(1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        CachingSQLCommand command = new CachingSQLCommand(delegate, new MySQLStatementSQL(User.class), 10, 60_000);
+
+        SqlLimitResult<JsonObject> first = command.limitAll(new SqlAssist().setPage(1)).result();
+        assertTrue(first.isEstimated());
+        first.getData().get(0).put("id", 2);
+        SqlLimitResult<JsonObject> second = command.limitAll(new SqlAssist().setPage(1)).result();
+        assertEquals(1, limits.get());
+        assertTrue(second.isEstimated());
+        assertEquals(100000, second.getTotals());
+        assertEquals(1, (int) second.getData().get(0).getInteger("id"));
+
+        command.limitAll(new SqlAssist().setPage(2));
+        assertEquals(2, limits.get());
+
+        command.deleteById(1L);
+        command.limitAll(new SqlAssist().setPage(1));
+        assertEquals(3, limits.get());
+    }
+}
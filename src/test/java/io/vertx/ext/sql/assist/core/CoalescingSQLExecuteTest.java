@@ -0,0 +1,164 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+public class CoalescingSQLExecuteTest {
+
+    /**
+     * 查询需要手动完成的执行器
+     */
+    @SuppressWarnings("unchecked")
+    private static SQLExecute<Object> pending(List<Promise<Object>> queries, List<SqlAndParams> sqls) {
+        return (SQLExecute<Object>) Proxy.newProxyInstance(SQLExecute.class.getClassLoader(), new Class<?>[]{SQLExecute.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("query") || method.getName().equals("update") || method.getName().equals("insert")) {
+                        sqls.add((SqlAndParams) args[0]);
+                        Promise<Object> promise = Promise.promise();
+                        queries.add(promise);
+                        return promise.future();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    public void testSqlParamsEquality() {
+        SqlParams a = new SqlParams().add(1).add("x").add(new byte[]{1, 2}).addNull().add(1.5d);
+        SqlParams b = new SqlParams().add(1).add("x").add(new byte[]{1, 2}).addNull().add(1.5d);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertFalse(a.equals(new SqlParams().add(1L).add("x").add(new byte[]{1, 2}).addNull().add(1.5d)));
+        assertFalse(a.equals(new SqlParams().add(1).add("x").add(new byte[]{1, 3}).addNull().add(1.5d)));
+        assertFalse(a.equals(new SqlParams().add(1).add("x")));
+    }
+
+    @Test
+    public void testJoinOnEqualParams() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        Future<JsonObject> first = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1).add(new byte[]{7})));
+        Future<JsonObject> second = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1).add(new byte[]{7})));
+        Future<JsonObject> other = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(2).add(new byte[]{7})));
+        assertEquals(2, queries.size());
+        queries.get(0).complete(new JsonObject().put("a", 1));
+        queries.get(1).complete(new JsonObject().put("a", 2));
+        assertEquals(1, (int) first.result().getInteger("a"));
+        assertEquals(1, (int) second.result().getInteger("a"));
+        assertNotSame(first.result(), second.result());
+        assertEquals(2, (int) other.result().getInteger("a"));
+        assertEquals(0, execute.getInFlightCount());
+    }
+
+    @Test
+    public void testListResultsAreCopied() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        Future<List<JsonObject>> first = execute.queryAsListObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        Future<List<JsonObject>> second = execute.queryAsListObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        assertEquals(1, queries.size());
+        List<JsonObject> rows = new ArrayList<>();
+        rows.add(new JsonObject().put("a", 1));
+        rows.add(null);
+        queries.get(0).complete(rows);
+        first.result().get(0).put("a", 2);
+        assertEquals(1, (int) second.result().get(0).getInteger("a"));
+        assertNull(second.result().get(1));
+        assertNotSame(first.result(), second.result());
+    }
+
+    @Test
+    public void testSingleCallerUsesResult() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        Future<JsonObject> only = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        JsonObject row = new JsonObject().put("a", 1);
+        queries.get(0).complete(row);
+        assertSame(row, only.result());
+    }
+
+    @Test
+    public void testFailureSharedByJoinedCallers() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        Future<JsonObject> first = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        Future<JsonObject> second = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        queries.get(0).fail("boom");
+        assertEquals("boom", first.cause().getMessage());
+        assertEquals("boom", second.cause().getMessage());
+        assertEquals(0, execute.getInFlightCount());
+        // 失败后再次查询重新执行
+        execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    public void testWriteClearsInFlight() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        Future<JsonObject> before = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        execute.update(new SqlAndParams("update t set a = 2", new SqlParams()));
+        assertEquals(0, execute.getInFlightCount());
+        // 写操作之后的查询不共享写之前的结果
+        Future<JsonObject> after = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        Future<JsonObject> joined = execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        assertEquals(3, queries.size());
+        queries.get(0).complete(new JsonObject().put("a", 1));
+        queries.get(1).complete(1);
+        queries.get(2).complete(new JsonObject().put("a", 2));
+        assertEquals(1, (int) before.result().getInteger("a"));
+        assertEquals(2, (int) after.result().getInteger("a"));
+        assertEquals(2, (int) joined.result().getInteger("a"));
+        assertEquals(0, execute.getInFlightCount());
+
+        execute.insert(new SqlAndParams("insert into t values (1)", new SqlParams()));
+        execute.queryAsObj(new SqlAndParams("select 1", new SqlParams().add(1)));
+        assertEquals(1, execute.getInFlightCount());
+        queries.get(3).complete(new JsonArray());
+        // 写操作完成时同样清除
+        assertEquals(0, execute.getInFlightCount());
+    }
+
+    @Test
+    public void testCommandOptOut() {
+        List<Promise<Object>> queries = new ArrayList<>();
+        List<SqlAndParams> sqls = new ArrayList<>();
+        CoalescingSQLExecute<Object> execute = new CoalescingSQLExecute<>(pending(queries, sqls));
+        SQLCommandImpl command = new SQLCommandImpl(new MySQLStatementSQL(User.class), execute).setCoalesce(false);
+        command.selectById(1L, null, null);
+        command.selectById(1L, null, null);
+        assertEquals(2, queries.size());
+        assertFalse(sqls.get(0).isCoalesce());
+
+        SQLCommandImpl shared = new SQLCommandImpl(new MySQLStatementSQL(User.class), execute);
+        shared.selectById(1L, null, null);
+        shared.selectById(1L, null, null);
+        assertEquals(3, queries.size());
+        assertTrue(sqls.get(2).isCoalesce());
+        for (Promise<Object> query : queries) {
+            query.complete(new JsonObject());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+public class IdCachingSQLCommandTest {
+
+    private static SQLCommand delegate(AtomicInteger selects) {
+        return (SQLCommand) Proxy.newProxyInstance(SQLCommand.class.getClassLoader(), new Class<?>[]{SQLCommand.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "selectById":
+                            selects.incrementAndGet();
+                            return Future.succeededFuture(new JsonObject().put("id", args[0]));
+                        case "deleteById":
+                            return Future.succeededFuture(1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void testWritesInvalidateOtherInstances() {
+        AtomicInteger selectsA = new AtomicInteger();
+        AtomicInteger selectsB = new AtomicInteger();
+        IdCachingSQLCommand a = new IdCachingSQLCommand(delegate(selectsA), new MySQLStatementSQL(User.class), 10, 60_000, false);
+        IdCachingSQLCommand b = new IdCachingSQLCommand(delegate(selectsB), new MySQLStatementSQL(User.class), 10, 60_000, false);
+        a.selectById(1, null, null);
+        b.selectById(1L, null, null);
+        b.selectById(1, null, null);
+        assertEquals(1, selectsB.get());
+
+        a.deleteById(1L);
+        b.selectById(1L, null, null);
+        assertEquals(2, selectsB.get());
+        a.selectById(1L, null, null);
+        assertEquals(2, selectsA.get());
+    }
+
+    @Test
+    public void testInvalidateTable() {
+        AtomicInteger selects = new AtomicInteger();
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class);
+        IdCachingSQLCommand command = new IdCachingSQLCommand(delegate(selects), statement, 10, 60_000, false);
+        String table = statement.getEntityMetadata().getTableName();
+        command.selectById(2L, null, null);
+        command.selectById(3L, null, null);
+        IdCachingSQLCommand.invalidate(table, 2);
+        command.selectById(2L, null, null);
+        command.selectById(3L, null, null);
+        assertEquals(3, selects.get());
+        IdCachingSQLCommand.invalidateTable(table);
+        command.selectById(3L, null, null);
+        assertEquals(4, selects.get());
+    }
+}
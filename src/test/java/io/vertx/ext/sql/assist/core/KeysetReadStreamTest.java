@@ -0,0 +1,164 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+public class KeysetReadStreamTest {
+
+    /**
+     * 模拟按id排序的keyset查询
+     */
+    private static KeysetReadStream stream(int total, int chunkSize, List<JsonArray> cursors) {
+        return new KeysetReadStream(last -> {
+            cursors.add(last);
+            int from = last == null ? 0 : last.getInteger(0);
+            List<JsonObject> rows = new ArrayList<>();
+            for (int i = from + 1; i <= Math.min(total, from + chunkSize); i++) {
+                rows.add(new JsonObject().put("id", i));
+            }
+            return Future.succeededFuture(rows);
+        }, new String[]{"id"}, chunkSize);
+    }
+
+    @Test
+    public void testReadAllInChunks() {
+        List<JsonArray> cursors = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger();
+        stream(7, 3, cursors).endHandler(v -> ended.incrementAndGet()).handler(row -> ids.add(row.getInteger("id")));
+        assertEquals(7, ids.size());
+        assertEquals(1, (int) ids.get(0));
+        assertEquals(7, (int) ids.get(6));
+        assertEquals(1, ended.get());
+        assertEquals(3, cursors.size());
+        assertNull(cursors.get(0));
+        assertEquals(new JsonArray().add(3), cursors.get(1));
+        assertEquals(new JsonArray().add(6), cursors.get(2));
+    }
+
+    @Test
+    public void testExactChunkBoundary() {
+        List<JsonArray> cursors = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger();
+        stream(6, 3, cursors).endHandler(v -> ended.incrementAndGet()).handler(row -> ids.add(row.getInteger("id")));
+        assertEquals(6, ids.size());
+        assertEquals(1, ended.get());
+        // 最后一批刚好满时需要多查询一次空批
+        assertEquals(3, cursors.size());
+    }
+
+    @Test
+    public void testFetchOnDemand() {
+        List<JsonArray> cursors = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        KeysetReadStream stream = stream(10, 4, cursors);
+        stream.pause();
+        stream.handler(row -> ids.add(row.getInteger("id")));
+        assertEquals(0, ids.size());
+        assertEquals(0, cursors.size());
+        stream.fetch(2);
+        assertEquals(2, ids.size());
+        assertEquals(1, cursors.size());
+        stream.fetch(3);
+        assertEquals(5, ids.size());
+        assertEquals(2, cursors.size());
+    }
+
+    @Test
+    public void testCloseStopsReading() {
+        List<JsonArray> cursors = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger();
+        KeysetReadStream stream = stream(10, 4, cursors);
+        stream.pause();
+        stream.endHandler(v -> ended.incrementAndGet()).handler(row -> ids.add(row.getInteger("id")));
+        stream.fetch(1);
+        assertTrue(stream.close().succeeded());
+        stream.fetch(100);
+        assertEquals(1, ids.size());
+        assertEquals(1, cursors.size());
+        assertEquals(0, ended.get());
+    }
+
+    @Test
+    public void testMissingKeyColumnFails() {
+        List<Throwable> errors = new ArrayList<>();
+        KeysetReadStream stream = new KeysetReadStream(last -> {
+            List<JsonObject> rows = new ArrayList<>();
+            rows.add(new JsonObject().put("name", "a"));
+            return Future.succeededFuture(rows);
+        }, new String[]{"id"}, 1);
+        stream.exceptionHandler(errors::add).handler(row -> {
+        });
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+    }
+
+    /**
+     * 不支持游标的执行器,记录执行的方法与SQL
+     */
+    private static SQLCommandImpl command(List<String> calls) {
+        SQLExecute<?> execute = (SQLExecute<?>) Proxy.newProxyInstance(SQLExecute.class.getClassLoader(), new Class<?>[]{SQLExecute.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("isCursorStream")) {
+                        return false;
+                    }
+                    calls.add(method.getName() + ":" + ((SqlAndParams) args[0]).getSql());
+                    if (method.getName().equals("queryAsListObj")) {
+                        return Future.succeededFuture(new ArrayList<JsonObject>());
+                    }
+                    if (method.getName().equals("queryAsStream")) {
+                        return Future.succeededFuture(new KeysetReadStream(last -> Future.succeededFuture(new ArrayList<>()), new String[]{"id"}, 1));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new SQLCommandImpl(new MySQLStatementSQL(User.class), execute);
+    }
+
+    @Test
+    public void testRowSizeWithoutStartRowReadsInChunks() {
+        List<String> calls = new ArrayList<>();
+        SqlAssist<?> assist = new SqlAssist<>().setRowSize(100);
+        Future<SqlReadStream<JsonObject>> stream = command(calls).selectAllAsStream(assist);
+        stream.result().handler(row -> {
+        });
+        // 没有LIMIT的查询不能一次读取全部结果
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0), calls.get(0).startsWith("queryAsListObj:"));
+        assertTrue(calls.get(0), calls.get(0).contains("LIMIT"));
+    }
+
+    @Test
+    public void testLimitedQueryUsesQueryAsStream() {
+        List<String> calls = new ArrayList<>();
+        SqlAssist<?> assist = new SqlAssist<>().setStartRow(0).setRowSize(100);
+        command(calls).selectAllAsStream(assist);
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0), calls.get(0).startsWith("queryAsStream:"));
+    }
+
+    @Test
+    public void testLoaderFailure() {
+        List<Throwable> errors = new ArrayList<>();
+        KeysetReadStream stream = new KeysetReadStream(last -> Future.failedFuture("boom"), new String[]{"id"}, 1);
+        stream.exceptionHandler(errors::add).handler(row -> {
+        });
+        assertEquals(1, errors.size());
+        assertEquals("boom", errors.get(0).getMessage());
+    }
+}
@@ -0,0 +1,45 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class NumberedPlaceholderTest {
+
+    @Test
+    public void testNoPlaceholderReturnsSameString() {
+        String sql = "select * from user";
+        assertSame(sql, PostgreSQLPoolSQLExecute.toNumberedPlaceholder(sql));
+    }
+
+    @Test
+    public void testPlaceholdersAreNumberedInOrder() {
+        assertEquals("select * from user where id = $1 and name = $2 limit $3",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select * from user where id = ? and name = ? limit ?"));
+    }
+
+    @Test
+    public void testQuotedTextIsKept() {
+        assertEquals("select '?', \"a?b\" from user where id = $1",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select '?', \"a?b\" from user where id = ?"));
+        // 转义的单引号拆成两个相邻的字符串,其中的?同样不转换
+        assertEquals("select 'it''s ?' from user where id = $1",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select 'it''s ?' from user where id = ?"));
+    }
+
+    @Test
+    public void testCommentsAreKept() {
+        assertEquals("select * from user -- id = ?\nwhere id = $1",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select * from user -- id = ?\nwhere id = ?"));
+        assertEquals("select /* ? */ * from user where id = $1 /* ?",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select /* ? */ * from user where id = ? /* ?"));
+        assertEquals("select * from user where id = $1 -- ?",
+                PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select * from user where id = ? -- ?"));
+    }
+
+    @Test
+    public void testUnterminatedQuoteKeepsRest() {
+        assertEquals("select $1, '?", PostgreSQLPoolSQLExecute.toNumberedPlaceholder("select ?, '?"));
+    }
+}
@@ -0,0 +1,150 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.MySQLStatementSQL;
+
+public class SelectByIdsTest {
+
+    /**
+     * 模拟数据库: 倒序返回存在的主键,主键以Integer返回
+     *
+     * @param chunks
+     *          每次查询的主键
+     * @param missing
+     *          不存在的主键
+     */
+    private static SQLCommandImpl command(List<List<Object>> chunks, Object missing) {
+        SQLExecute<?> execute = (SQLExecute<?>) Proxy.newProxyInstance(SQLExecute.class.getClassLoader(), new Class<?>[]{SQLExecute.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("queryAsListObj")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    SqlParams params = ((SqlAndParams) args[0]).getSqlParams();
+                    List<Object> ids = new ArrayList<>();
+                    for (int i = 0; i < params.size(); i++) {
+                        ids.add(params.getValue(i));
+                    }
+                    chunks.add(ids);
+                    List<JsonObject> rows = new ArrayList<>();
+                    for (Object id : ids) {
+                        if (id.equals(missing)) {
+                            continue;
+                        }
+                        Map<String, Object> row = new HashMap<>();
+                        // 与执行器一致,UUID等类型的主键在行数据中为字符串
+                        Object rowId = id instanceof Long ? (Object) ((Long) id).intValue() : id instanceof byte[] ? ((byte[]) id).clone() : id.toString();
+                        row.put(SQLStatement.ID_COLUMN, rowId);
+                        row.put("name", id instanceof Long ? "n" + id : id instanceof byte[] ? "binary" : "s" + id);
+                        rows.add(new JsonObject(row));
+                    }
+                    Collections.reverse(rows);
+                    return Future.succeededFuture(rows);
+                });
+        return new SQLCommandImpl(new MySQLStatementSQL(User.class), execute);
+    }
+
+    @Test
+    public void testOrderDuplicatesAndNulls() {
+        List<List<Object>> chunks = new ArrayList<>();
+        Future<List<JsonObject>> future = command(chunks, 9L).selectByIds(Arrays.asList(3L, null, 1L, 9L, 3L, 2L));
+        assertTrue(future.succeeded());
+        List<JsonObject> rows = future.result();
+        assertEquals(6, rows.size());
+        assertEquals("n3", rows.get(0).getString("name"));
+        assertNull(rows.get(1));
+        assertEquals("n1", rows.get(2).getString("name"));
+        assertNull(rows.get(3));
+        assertEquals("n3", rows.get(4).getString("name"));
+        assertEquals("n2", rows.get(5).getString("name"));
+        // 重复的主键只查询一次,结果为副本
+        assertNotSame(rows.get(0), rows.get(4));
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(3L, 1L, 9L, 2L), chunks.get(0));
+    }
+
+    @Test
+    public void testIntegerAndLongAreEqual() {
+        List<List<Object>> chunks = new ArrayList<>();
+        Future<List<JsonObject>> future = command(chunks, null).selectByIds(Arrays.asList(1L, 2L));
+        assertEquals("n1", future.result().get(0).getString("name"));
+        assertEquals(SQLCommandImpl.idKey(1), SQLCommandImpl.idKey(1L));
+        assertEquals(SQLCommandImpl.idKey((short) 1).hashCode(), SQLCommandImpl.idKey(1L).hashCode());
+    }
+
+    @Test
+    public void testBinaryIds() {
+        List<List<Object>> chunks = new ArrayList<>();
+        byte[] a = {1, 2};
+        byte[] b = {3};
+        Future<List<JsonObject>> future = command(chunks, null).selectByIds(Arrays.asList(a, b, new byte[]{1, 2}));
+        assertTrue(future.succeeded());
+        assertEquals(3, future.result().size());
+        assertEquals("binary", future.result().get(0).getString("name"));
+        assertEquals("binary", future.result().get(1).getString("name"));
+        assertEquals("binary", future.result().get(2).getString("name"));
+        // 内容相同的主键只查询一次
+        assertEquals(2, chunks.get(0).size());
+    }
+
+    @Test
+    public void testUuidIds() {
+        List<List<Object>> chunks = new ArrayList<>();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        Future<List<JsonObject>> future = command(chunks, null).selectByIds(Arrays.asList(a, b, UUID.fromString(a.toString())));
+        assertTrue(future.succeeded());
+        assertEquals("s" + a, future.result().get(0).getString("name"));
+        assertEquals("s" + b, future.result().get(1).getString("name"));
+        assertEquals("s" + a, future.result().get(2).getString("name"));
+        assertEquals(2, chunks.get(0).size());
+        Map<UUID, JsonObject> map = command(chunks, null).selectByIdsAsMap(Arrays.asList(a, b)).result();
+        assertEquals("s" + b, map.get(b).getString("name"));
+    }
+
+    @Test
+    public void testChunkBoundaries() {
+        for (int size = 1; size <= 7; size++) {
+            List<List<Object>> chunks = new ArrayList<>();
+            SQLCommandImpl command = command(chunks, null).setSelectByIdsOptions(3, 2);
+            List<Long> ids = new ArrayList<>();
+            for (long i = 1; i <= size; i++) {
+                ids.add(i);
+            }
+            List<JsonObject> rows = command.selectByIds(ids).result();
+            assertEquals(size, rows.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals("n" + (i + 1), rows.get(i).getString("name"));
+            }
+            assertEquals((size + 2) / 3, chunks.size());
+            for (List<Object> chunk : chunks) {
+                assertTrue(chunk.size() <= 3);
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        List<List<Object>> chunks = new ArrayList<>();
+        assertEquals(0, command(chunks, null).selectByIds(Collections.emptyList()).result().size());
+        assertEquals(Arrays.asList(null, null), command(chunks, null).selectByIds(Arrays.asList(null, null)).result());
+        assertEquals(0, chunks.size());
+    }
+}
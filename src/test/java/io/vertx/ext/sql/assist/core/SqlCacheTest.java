@@ -0,0 +1,44 @@
+package io.vertx.ext.sql.assist.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SqlCacheTest {
+
+    @Test
+    public void testGetAndExpire() throws Exception {
+        SqlCache<String, Integer> cache = new SqlCache<>(10, 20);
+        cache.put("a", 1);
+        assertEquals(1, (int) cache.get("a"));
+        Thread.sleep(40);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictOldest() throws Exception {
+        SqlCache<Integer, Integer> cache = new SqlCache<>(10, 60_000);
+        for (int i = 0; i < 11; i++) {
+            cache.put(i, i);
+            Thread.sleep(1);
+        }
+        assertTrue(cache.size() <= 10);
+        assertNull(cache.get(0));
+        assertEquals(10, (int) cache.get(10));
+    }
+
+    @Test
+    public void testGenerationRejectsStalePut() {
+        SqlCache<String, Integer> cache = new SqlCache<>(10, 60_000);
+        long generation = cache.getGeneration();
+        cache.invalidateAll();
+        assertFalse(cache.put("a", 1, generation));
+        assertNull(cache.get("a"));
+        assertTrue(cache.put("a", 1, cache.getGeneration()));
+        assertEquals(1, (int) cache.get("a"));
+    }
+}
@@ -0,0 +1,94 @@
+package io.vertx.ext.sql.assist.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.sql.EntityAccessMode;
+import io.vertx.ext.sql.assist.sql.EntityDescriptor;
+import io.vertx.ext.sql.assist.sql.EntityMetadata;
+
+/**
+ * 通过注解处理器编译{@link User},检查生成的描述类与反射解析的元数据一致
+ */
+public class TableProcessorTest {
+
+    private Path output;
+
+    @Before
+    public void setUp() throws IOException {
+        output = Files.createTempDirectory("table-processor");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        EntityMetadata.registerAccessMode(EntityAccessMode.METHOD_HANDLE);
+        try (Stream<Path> paths = Files.walk(output)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private EntityDescriptor compileDescriptor() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("tests must run on a JDK", compiler);
+        String source = new File("src/test/java/io/vertx/ext/sql/assist/User.java").getPath();
+        int code = compiler.run(null, null, null, "-encoding", "UTF-8", "-classpath", System.getProperty("java.class.path"),
+                "-processor", TableProcessor.class.getName(), "-d", output.toString(), source);
+        assertEquals("compile with processor failed", 0, code);
+        assertTrue(Files.exists(output.resolve("io/vertx/ext/sql/assist/User" + EntityDescriptor.SUFFIX + ".class")));
+        // 父加载器中已有User,生成的描述类引用的是同一个User类
+        URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+        Class<?> clz = loader.loadClass(User.class.getName() + EntityDescriptor.SUFFIX);
+        return (EntityDescriptor) clz.getDeclaredConstructor().newInstance();
+    }
+
+    @Test
+    public void testDescriptorMatchesReflection() throws Exception {
+        EntityDescriptor descriptor = compileDescriptor();
+        assertEquals("user", descriptor.getTable());
+        assertArrayEquals(new String[]{"id", "name", "pwd"}, descriptor.getColumns());
+        assertArrayEquals(new String[]{"", "", "possword"}, descriptor.getAliases());
+        assertArrayEquals(new Class<?>[]{Long.class, String.class, String.class}, descriptor.getTypes());
+        assertEquals(0, descriptor.getPrimaryIndex());
+
+        User user = new User();
+        user.setId(7L);
+        user.setName("name");
+        user.setPwd("pwd");
+        for (EntityAccessMode mode : EntityAccessMode.values()) {
+            EntityMetadata.registerAccessMode(mode);
+            EntityMetadata reflect = EntityMetadata.of(User.class, name -> name, name -> name);
+            EntityMetadata generated = EntityMetadata.of(User.class, descriptor, name -> name, name -> name);
+            assertEquals(reflect.getTableName(), generated.getTableName());
+            assertEquals(reflect.getPrimaryId(), generated.getPrimaryId());
+            assertEquals(reflect.getResultColumns(), generated.getResultColumns());
+            assertEquals(reflect.size(), generated.size());
+            for (int i = 0; i < reflect.size(); i++) {
+                assertEquals(reflect.getColumn(i), generated.getColumn(i));
+                assertEquals(reflect.getType(i), generated.getType(i));
+            }
+            assertArrayEquals(reflect.getValues(user), generated.getValues(user));
+            assertArrayEquals(reflect.getValues(user), descriptor.getValues(user));
+        }
+        assertEquals(Arrays.asList(7L, "name", "pwd"), Arrays.asList(descriptor.getValues(user)));
+    }
+}
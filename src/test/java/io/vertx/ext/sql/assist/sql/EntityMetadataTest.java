@@ -0,0 +1,49 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+
+public class EntityMetadataTest {
+
+    @Table("masked")
+    public static class Masked {
+        @TableId("id")
+        private Long id = 1L;
+        @TableColumn("pwd")
+        private String pwd = "secret";
+        @TableColumn("active")
+        private boolean active = true;
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getPwd() {
+            return "******";
+        }
+
+        public boolean isActive() {
+            return false;
+        }
+    }
+
+    @After
+    public void reset() {
+        EntityMetadata.registerAccessMode(EntityAccessMode.METHOD_HANDLE);
+    }
+
+    @Test
+    public void testValuesReadFromFields() throws Exception {
+        for (EntityAccessMode mode : EntityAccessMode.values()) {
+            EntityMetadata.registerAccessMode(mode);
+            EntityMetadata metadata = EntityMetadata.of(Masked.class, name -> name, name -> name);
+            assertArrayEquals(new Object[]{1L, "secret", true}, metadata.getValues(new Masked()));
+        }
+    }
+}
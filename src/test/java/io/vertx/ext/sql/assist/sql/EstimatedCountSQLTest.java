@@ -0,0 +1,60 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+import io.vertx.ext.sql.assist.core.SqlAssist;
+
+public class EstimatedCountSQLTest {
+
+    @Test
+    public void testUnconditionedReadsTableStats() {
+        SqlAndParams mysql = new MySQLStatementSQL(User.class).getEstimatedCountSQL(null);
+        assertEquals("select TABLE_ROWS AS estimated from information_schema.TABLES where TABLE_SCHEMA = DATABASE() and TABLE_NAME = ?", mysql.getSql());
+        assertEquals(new JsonArray().add("user"), mysql.getParams());
+        SqlAndParams pg = new PostgreSQLStatementSQL(User.class).getEstimatedCountSQL(null);
+        assertEquals("select reltuples::bigint AS estimated from pg_class where oid = ?::regclass", pg.getSql());
+        assertEquals(new JsonArray().add("\"user\""), pg.getParams());
+    }
+
+    @Test
+    public void testConditionUsesExplain() {
+        SqlAndParams qp = new PostgreSQLStatementSQL(User.class).getEstimatedCountSQL(new SqlAssist<>().andEq("name", "a"));
+        assertEquals("EXPLAIN select 1 from \"user\"  where name = ? ", qp.getSql());
+        assertEquals(new JsonArray().add("a"), qp.getParams());
+    }
+
+    @Test
+    public void testParseMySQL() {
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class);
+        assertEquals(42, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("estimated", 42))));
+        assertEquals(42, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("estimated", "42"))));
+        // EXPLAIN的rows乘以filtered百分比
+        assertEquals(250, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("rows", 1000).put("filtered", 25.0))));
+        assertEquals(1000, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("rows", 1000))));
+        assertEquals(-1, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("rows", "x"))));
+        assertEquals(-1, statement.parseEstimatedCount(new ArrayList<>()));
+        assertEquals(-1, statement.parseEstimatedCount(null));
+    }
+
+    @Test
+    public void testParsePostgreSQL() {
+        PostgreSQLStatementSQL statement = new PostgreSQLStatementSQL(User.class);
+        assertEquals(42, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("estimated", 42L))));
+        // EXPLAIN的结果为文本,读取第一行中的rows=
+        JsonObject plan = new JsonObject().put("QUERY PLAN", "Seq Scan on \"user\"  (cost=0.00..25.88 rows=6 width=4)");
+        JsonObject filter = new JsonObject().put("QUERY PLAN", "  Filter: (name = 'rows=99'::text)");
+        assertEquals(6, statement.parseEstimatedCount(Arrays.asList(plan, filter)));
+        assertEquals(-1, statement.parseEstimatedCount(Collections.singletonList(new JsonObject().put("QUERY PLAN", "Result"))));
+        assertEquals(-1, statement.parseEstimatedCount(new ArrayList<>()));
+    }
+}
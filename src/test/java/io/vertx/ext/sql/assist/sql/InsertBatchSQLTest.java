@@ -0,0 +1,162 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+
+public class InsertBatchSQLTest {
+    private static final String MYSQL_UPDATE = "on duplicate key update `id` = VALUES(`id`) ,`name` = VALUES(`name`) ,`pwd` = VALUES(`pwd`) ";
+    private static final String PG_UPDATE = "do update set \"id\" = excluded.\"id\" ,\"name\" = excluded.\"name\" ,\"pwd\" = excluded.\"pwd\" ";
+
+    private static User user(long id, String name, String pwd) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setPwd(pwd);
+        return user;
+    }
+
+    private static List<User> users(int size) {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            users.add(user(i, "name" + i, "pwd" + i));
+        }
+        return users;
+    }
+
+    @Test
+    public void testInsertAllBatch() {
+        List<User> users = Arrays.asList(user(1, "a", "x"), user(2, "b", null));
+        List<SqlAndParams> mysql = new MySQLStatementSQL(User.class).insertAllBatchSQL(users);
+        assertEquals(1, mysql.size());
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?),(?,?,?) ", mysql.get(0).getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add("x").add(2L).add("b").addNull(), mysql.get(0).getParams());
+        List<SqlAndParams> pg = new PostgreSQLStatementSQL(User.class).insertAllBatchSQL(users);
+        assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?),(?,?,?) ", pg.get(0).getSql());
+        assertEquals(0, new MySQLStatementSQL(User.class).insertAllBatchSQL(new ArrayList<User>()).size());
+    }
+
+    @Test
+    public void testNonEmptyGroupsByColumns() {
+        List<SqlAndParams> qps = new MySQLStatementSQL(User.class)
+                .insertNonEmptyBatchSQL(Arrays.asList(user(1, "a", "x"), user(2, "b", null), user(3, "c", "y")));
+        // 非空属性相同的对象合并,按第一次出现的顺序
+        assertEquals(2, qps.size());
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?),(?,?,?) ", qps.get(0).getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add("x").add(3L).add("c").add("y"), qps.get(0).getParams());
+        assertEquals("insert into `user` (`id`,`name`) values (?,?) ", qps.get(1).getSql());
+        assertEquals(new JsonArray().add(2L).add("b"), qps.get(1).getParams());
+    }
+
+    @Test
+    public void testChunkByParams() {
+        // 每行3个参数,上限7个参数时每条语句2行
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class) {
+            @Override
+            protected int getBatchMaxParams() {
+                return 7;
+            }
+        };
+        List<SqlAndParams> qps = statement.insertAllBatchSQL(users(5));
+        assertEquals(3, qps.size());
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?),(?,?,?) ", qps.get(0).getSql());
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?) ", qps.get(2).getSql());
+        assertEquals(new JsonArray().add(3L).add("name3").add("pwd3").add(4L).add("name4").add("pwd4"), qps.get(1).getParams());
+        assertEquals(new JsonArray().add(5L).add("name5").add("pwd5"), qps.get(2).getParams());
+        // 参数上限小于列数时每条语句1行
+        MySQLStatementSQL single = new MySQLStatementSQL(User.class) {
+            @Override
+            protected int getBatchMaxParams() {
+                return 1;
+            }
+        };
+        assertEquals(2, single.insertAllBatchSQL(users(2)).size());
+    }
+
+    @Test
+    public void testChunkByBytes() {
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class) {
+            @Override
+            protected int getBatchMaxBytes() {
+                return 200;
+            }
+        };
+        // 每行估算63字节,语句头46字节,每条语句2行
+        List<SqlAndParams> qps = statement.insertAllBatchSQL(users(5));
+        assertEquals(3, qps.size());
+        assertEquals(6, qps.get(0).getParams().size());
+        assertEquals(6, qps.get(1).getParams().size());
+        assertEquals(3, qps.get(2).getParams().size());
+        // 超过上限的单行单独成为一条语句
+        char[] big = new char[100];
+        Arrays.fill(big, 'b');
+        qps = statement.insertAllBatchSQL(Arrays.asList(user(1, "a", "x"), user(2, new String(big), "x"), user(3, "c", "x")));
+        assertEquals(3, qps.size());
+        for (SqlAndParams qp : qps) {
+            assertEquals(3, qp.getParams().size());
+        }
+    }
+
+    @Test
+    public void testUpsertBatchSuffix() {
+        List<User> users = Arrays.asList(user(1, "a", "x"), user(2, "b", null));
+        List<SqlAndParams> mysql = new MySQLStatementSQL(User.class).upsertAllBatchSQL(users, null);
+        assertEquals(1, mysql.size());
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?),(?,?,?) " + MYSQL_UPDATE, mysql.get(0).getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add("x").add(2L).add("b").addNull(), mysql.get(0).getParams());
+        List<SqlAndParams> pg = new PostgreSQLStatementSQL(User.class).upsertAllBatchSQL(users, null);
+        assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?),(?,?,?) ON CONFLICT(\"id\") " + PG_UPDATE, pg.get(0).getSql());
+        pg = new PostgreSQLStatementSQL(User.class).upsertAllBatchSQL(users, "name");
+        assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?),(?,?,?) ON CONFLICT(name) " + PG_UPDATE, pg.get(0).getSql());
+        // 拆分后每条语句都带有upsert的部分
+        PostgreSQLStatementSQL chunked = new PostgreSQLStatementSQL(User.class) {
+            @Override
+            protected int getBatchMaxParams() {
+                return 3;
+            }
+        };
+        pg = chunked.upsertAllBatchSQL(users, null);
+        assertEquals(2, pg.size());
+        for (SqlAndParams qp : pg) {
+            assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?) ON CONFLICT(\"id\") " + PG_UPDATE, qp.getSql());
+        }
+    }
+
+    @Test
+    public void testUpsertWithoutSuffixFails() {
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class) {
+            @Override
+            protected String getUpsertBatchSuffix(EntityMetadata meta, BitSet columns, String dupCol) {
+                return null;
+            }
+        };
+        List<SqlAndParams> qps = statement.upsertAllBatchSQL(users(2), null);
+        assertEquals(1, qps.size());
+        assertFalse(qps.get(0).succeeded());
+        assertTrue(statement.insertAllBatchSQL(users(2)).get(0).succeeded());
+    }
+
+    @Test
+    public void testUpsertAllSQL() {
+        User user = user(1, "a", "x");
+        SqlAndParams mysql = new MySQLStatementSQL(User.class).upsertAllSQL(user, null);
+        assertEquals("insert into `user` (`id`,`name`,`pwd`) values (?,?,?) " + MYSQL_UPDATE, mysql.getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add("x"), mysql.getParams());
+        SqlAndParams pg = new PostgreSQLStatementSQL(User.class).upsertAllSQL(user, null);
+        assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?) ON CONFLICT(\"id\") " + PG_UPDATE, pg.getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add("x"), pg.getParams());
+        pg = new PostgreSQLStatementSQL(User.class).upsertAllSQL(user, "name");
+        assertEquals("insert into \"user\" (\"id\",\"name\",\"pwd\") values (?,?,?) ON CONFLICT(name) " + PG_UPDATE, pg.getSql());
+    }
+}
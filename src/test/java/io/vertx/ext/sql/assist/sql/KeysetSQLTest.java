@@ -0,0 +1,84 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+import io.vertx.ext.sql.assist.core.SqlAssist;
+
+public class KeysetSQLTest {
+
+    @Table("event")
+    public static class Event {
+        @TableId("id")
+        private Long id;
+        @TableColumn("created")
+        private LocalDateTime created;
+        @TableColumn("score")
+        private Integer score;
+    }
+
+    @Test
+    public void testFirstPageOrdersByPrimaryKey() {
+        SqlAndParams qp = new MySQLStatementSQL(User.class).keysetAllSQL(null, null, 11, false);
+        assertEquals("select  `user`.`id`,`name`,`pwd` AS `possword` from `user` order by `user`.`id` asc LIMIT ?", qp.getSql());
+        assertEquals(new JsonArray().add(11), qp.getParams());
+    }
+
+    @Test
+    public void testConditionsAreParenthesisedBeforeRowComparison() {
+        SqlAssist<?> assist = new SqlAssist<>().andEq("name", "a").orEq("name", "b");
+        SqlAndParams qp = new MySQLStatementSQL(User.class).keysetAllSQL(assist, new JsonArray().add("x").add(5), 11, true, "name");
+        // or条件在括号中,游标条件对所有行生效
+        assertEquals("select  `user`.`id`,`name`,`pwd` AS `possword` from `user` where (name = ? or name = ? )  and (name,`user`.`id`) < (?,?) "
+                + " order by name desc,`user`.`id` desc LIMIT ?", qp.getSql());
+        assertEquals(new JsonArray().add("a").add("b").add("x").add(5).add(11), qp.getParams());
+    }
+
+    @Test
+    public void testAscendingRowComparison() {
+        SqlAndParams qp = new PostgreSQLStatementSQL(User.class).keysetAllSQL(null, new JsonArray().add("x").add(5), 11, false, "name");
+        assertEquals("select  \"user\".\"id\",\"name\",\"pwd\" AS \"possword\" from \"user\" where (name,\"user\".\"id\") > (?,?) "
+                + " order by name asc,\"user\".\"id\" asc LIMIT ?", qp.getSql());
+    }
+
+    @Test
+    public void testPrimaryKeyIsNotAppendedTwice() {
+        SqlAndParams qp = new MySQLStatementSQL(User.class).keysetAllSQL(null, new JsonArray().add(1), 11, false, "id");
+        assertEquals("select  `user`.`id`,`name`,`pwd` AS `possword` from `user` where (id) > (?)  order by id asc LIMIT ?", qp.getSql());
+        assertArrayEquals(new String[]{"name", "id"}, new MySQLStatementSQL(User.class).keysetColumns("user.name"));
+    }
+
+    @Test
+    public void testCursorSizeMismatchFails() {
+        assertFalse(new MySQLStatementSQL(User.class).keysetAllSQL(null, new JsonArray().add(1), 11, false, "name").succeeded());
+    }
+
+    @Test
+    public void testTimestampCursorIsCast() {
+        // 游标经过JSON编码后时间为字符串,PostgreSQL需要转换为列的类型
+        JsonArray cursor = new JsonArray().add("2024-01-02T03:04:05").add(7);
+        SqlAndParams pg = new PostgreSQLStatementSQL(Event.class).keysetAllSQL(null, cursor, 11, false, "created");
+        assertEquals("select  \"event\".\"id\",\"created\",\"score\" from \"event\" where (created,\"event\".\"id\") > (?::text::timestamp,?) "
+                + " order by created asc,\"event\".\"id\" asc LIMIT ?", pg.getSql());
+        assertEquals(new JsonArray().add("2024-01-02T03:04:05").add(7).add(11), pg.getParams());
+        // 数字保持原样
+        SqlAndParams score = new PostgreSQLStatementSQL(Event.class).keysetAllSQL(null, new JsonArray().add(3).add(7), 11, false, "event.score");
+        assertEquals("select  \"event\".\"id\",\"created\",\"score\" from \"event\" where (event.score,\"event\".\"id\") > (?,?) "
+                + " order by event.score asc,\"event\".\"id\" asc LIMIT ?", score.getSql());
+        // MySQL隐式转换字符串
+        SqlAndParams mysql = new MySQLStatementSQL(Event.class).keysetAllSQL(null, cursor, 11, false, "created");
+        assertEquals("select  `event`.`id`,`created`,`score` from `event` where (created,`event`.`id`) > (?,?) "
+                + " order by created asc,`event`.`id` asc LIMIT ?", mysql.getSql());
+    }
+}
@@ -0,0 +1,40 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+import io.vertx.ext.sql.assist.core.SqlAssist;
+
+public class SelectWithCountSQLTest {
+
+    @Test
+    public void testWindowCountWithConditionAndPage() {
+        SqlAssist<?> assist = new SqlAssist<>().andEq("name", "a").setOrders(SqlAssist.order("id", true)).setStartRow(10).setRowSize(5);
+        SqlAndParams mysql = new MySQLStatementSQL(User.class).selectAllWithCountSQL(assist);
+        assertEquals("select `user`.`id`,`name`,`pwd` AS `possword`,COUNT(*) OVER() AS sql_assist_total from `user` where name = ? "
+                + " order by id asc  LIMIT ? OFFSET ?", mysql.getSql());
+        assertEquals(new JsonArray().add("a").add(5).add(10), mysql.getParams());
+        SqlAndParams pg = new PostgreSQLStatementSQL(User.class).selectAllWithCountSQL(assist);
+        assertEquals("select \"user\".\"id\",\"name\",\"pwd\" AS \"possword\",COUNT(*) OVER() AS sql_assist_total from \"user\" where name = ? "
+                + " order by id asc  LIMIT ? OFFSET ?", pg.getSql());
+    }
+
+    @Test
+    public void testCustomResultColumns() {
+        SqlAndParams qp = new MySQLStatementSQL(User.class).selectAllWithCountSQL(new SqlAssist<>().setResultColumn("id,name"));
+        assertEquals("select `user`.id,name,COUNT(*) OVER() AS sql_assist_total from `user`", qp.getSql());
+        assertEquals(new JsonArray(), qp.getParams());
+    }
+
+    @Test
+    public void testUnsupportedAssistFails() {
+        // 去重在窗口函数之后执行,统计的行数不正确
+        assertFalse(new MySQLStatementSQL(User.class).selectAllWithCountSQL(new SqlAssist<>().setDistinct(true)).succeeded());
+        assertFalse(new MySQLStatementSQL(User.class).selectAllWithCountSQL(null).succeeded());
+    }
+}
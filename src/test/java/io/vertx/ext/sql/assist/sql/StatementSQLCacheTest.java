@@ -0,0 +1,38 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.core.SqlAssist;
+
+public class StatementSQLCacheTest {
+
+    @Test
+    public void testMaskSQLCacheEvictsWhenFull() {
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class);
+        for (int i = 0; i < 1000; i++) {
+            statement.putMaskSQL("type" + i, i, null, "sql" + i);
+        }
+        // 超出上限后仍然缓存新的语句,最早的语句被移除
+        assertEquals("sql999", statement.getMaskSQL("type999", 999, null));
+        assertNull(statement.getMaskSQL("type0", 0, null));
+        assertNull(statement.getMaskSQL("type1", -1, null));
+    }
+
+    @Test
+    public void testAssistSQLCacheEvictsWhenFull() {
+        MySQLStatementSQL statement = new MySQLStatementSQL(User.class);
+        for (int i = 0; i < 3000; i++) {
+            statement.getAssistSQL("select 1 from `user`", new SqlAssist<>().setOrders(SqlAssist.order("c" + i, true)), false, "");
+        }
+        // 超出上限后新的结构仍然被缓存,第二次返回同一个语句
+        SqlAssist<?> assist = new SqlAssist<>().andEq("name", "a").setOrders(SqlAssist.order("id", false));
+        String sql = statement.getAssistSQL("select 1 from `user`", assist, false, "");
+        assertEquals("select 1 from `user` where name = ?  order by id desc ", sql);
+        assertSame(sql, statement.getAssistSQL("select 1 from `user`", new SqlAssist<>().andEq("name", "b").setOrders(SqlAssist.order("id", false)), false, ""));
+    }
+}
@@ -0,0 +1,113 @@
+package io.vertx.ext.sql.assist.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.assist.User;
+import io.vertx.ext.sql.assist.anno.Table;
+import io.vertx.ext.sql.assist.anno.TableColumn;
+import io.vertx.ext.sql.assist.anno.TableId;
+import io.vertx.ext.sql.assist.core.SQLCommandImpl;
+import io.vertx.ext.sql.assist.core.SQLExecute;
+import io.vertx.ext.sql.assist.core.SqlAndParams;
+
+public class UpdateBatchReturnIdTest {
+
+    @Table("task")
+    public static class Task {
+        @TableId("id")
+        private Long id;
+        @TableColumn("name")
+        private String name;
+        /** 没有对应的PostgreSQL类型 */
+        @TableColumn("grade")
+        private Character grade;
+
+        Task(long id, String name, Character grade) {
+            this.id = id;
+            this.name = name;
+            this.grade = grade;
+        }
+    }
+
+    private static User user(long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+
+    @Test
+    public void testPostgresReturnsUpdatedIds() {
+        List<SqlAndParams> qps = new PostgreSQLStatementSQL(User.class)
+                .updateNonEmptyByIdBatchSQLReturnId(Arrays.asList(user(1, "a"), user(2, "b")));
+        assertEquals(1, qps.size());
+        assertEquals("update \"user\" as t set \"name\" = v.\"name\"  from (values (?::int8,?::text),(?::int8,?::text)) as v(\"id\",\"name\") "
+                + "where t.\"id\" = v.\"id\" returning t.\"id\"", qps.get(0).getSql());
+        assertEquals(new JsonArray().add(1L).add("a").add(2L).add("b"), qps.get(0).getParams());
+        assertFalse(qps.get(0).isCoalesce());
+    }
+
+    @Test
+    public void testUncastTypeUpdatesEachObject() {
+        PostgreSQLStatementSQL statement = new PostgreSQLStatementSQL(Task.class);
+        List<SqlAndParams> qps = statement.updateNonEmptyByIdBatchSQL(Arrays.asList(new Task(1, "a", 'x'), new Task(2, "b", null)));
+        // values中无法转换Character,逐个对象使用普通的update语句
+        assertEquals(2, qps.size());
+        assertEquals("update \"task\" set \"name\" = ? ,\"grade\" = ?  where \"id\" = ? ", qps.get(0).getSql());
+        assertEquals(Arrays.asList("a", 'x', 1L), qps.get(0).getParams().getList());
+        assertEquals("update \"task\" set \"name\" = ?  where \"id\" = ? ", qps.get(1).getSql());
+        List<SqlAndParams> returnId = statement.updateNonEmptyByIdBatchSQLReturnId(Arrays.asList(new Task(1, "a", 'x')));
+        assertEquals("update \"task\" set \"name\" = ? ,\"grade\" = ?  where \"id\" = ? returning \"id\"", returnId.get(0).getSql());
+        assertFalse(returnId.get(0).isCoalesce());
+        // 没有设置该属性时仍然使用values批量更新
+        List<SqlAndParams> batch = statement.updateNonEmptyByIdBatchSQL(Arrays.asList(new Task(1, "a", null), new Task(2, "b", null)));
+        assertEquals(1, batch.size());
+        assertEquals("update \"task\" as t set \"name\" = v.\"name\"  from (values (?::int8,?::text),(?::int8,?::text)) as v(\"id\",\"name\") "
+                + "where t.\"id\" = v.\"id\" ", batch.get(0).getSql());
+    }
+
+    @Test
+    public void testMySqlIsNotSupported() {
+        List<SqlAndParams> qps = new MySQLStatementSQL(User.class).updateNonEmptyByIdBatchSQLReturnId(Arrays.asList(user(1, "a")));
+        assertEquals(1, qps.size());
+        assertFalse(qps.get(0).succeeded());
+    }
+
+    @Test
+    public void testCommandCollectsIds() {
+        List<String> sqls = new ArrayList<>();
+        SQLExecute<?> execute = (SQLExecute<?>) Proxy.newProxyInstance(SQLExecute.class.getClassLoader(), new Class<?>[]{SQLExecute.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("queryAsListArray")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    SqlAndParams qp = (SqlAndParams) args[0];
+                    sqls.add(qp.getSql());
+                    // 主键2不存在
+                    List<JsonArray> rows = new ArrayList<>();
+                    rows.add(new JsonArray().add(qp.getParams().getValue(0)));
+                    return Future.succeededFuture(rows);
+                });
+        PostgreSQLStatementSQL statement = new PostgreSQLStatementSQL(User.class);
+        SQLCommandImpl command = new SQLCommandImpl(statement, execute);
+        User noName = new User();
+        noName.setId(3L);
+        noName.setPwd("p");
+        Future<JsonArray> ids = command.updateNonEmptyByIdBatchReturnId(Arrays.asList(user(1, "a"), user(2, "b"), noName));
+        assertTrue(ids.succeeded());
+        // 更新的列不同的对象使用不同的语句
+        assertEquals(2, sqls.size());
+        assertEquals(new JsonArray().add(1L).add(3L), ids.result());
+    }
+}